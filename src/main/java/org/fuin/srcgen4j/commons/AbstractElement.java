@@ -19,7 +19,6 @@ package org.fuin.srcgen4j.commons;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -31,8 +30,6 @@ import jakarta.xml.bind.annotation.XmlElement;
 import jakarta.xml.bind.annotation.XmlTransient;
 
 import org.checkerframework.checker.nullness.qual.Nullable;
-import org.fuin.utils4j.Utils4J;
-import org.fuin.utils4j.VariableResolver;
 
 /**
  * Basic functionality used by all configuration sub classes.
@@ -49,25 +46,14 @@ public abstract class AbstractElement {
     private Map<String, String> varMap;
 
     /**
-     * Derives all variables from a parent map plus the ones defined in the object itself.
+     * Derives all variables from a parent map plus the ones defined in the object itself. Only the variables of the object itself are
+     * stored, all others are looked up in the parent. An object without variables shares the parent's map.
      * 
      * @param parentVars
      *            Variables defined by the parent.
      */
     protected final void inheritVariables(@Nullable final Map<String, String> parentVars) {
-        if (varMap == null) {
-            varMap = new HashMap<>();
-        }
-        if (parentVars != null) {
-            varMap.putAll(parentVars);
-        }
-        if (variables != null) {
-            for (Variable variable : variables) {
-                final Map<String, String> vars = varMap;
-                varMap.put(variable.getName(), Utils4J.replaceVars(variable.getValue(), vars));
-            }
-            varMap = new VariableResolver(varMap).getResolved();
-        }
+        varMap = VariableScope.create(parentVars, variables);
     }
 
     /**
@@ -80,7 +66,7 @@ public abstract class AbstractElement {
         if (varMap == null) {
             return Collections.emptyMap();
         }
-        return Collections.unmodifiableMap(varMap);
+        return varMap;
     }
 
     /**
@@ -17,7 +17,7 @@
  */
 package org.fuin.srcgen4j.commons;
 
-import static org.fuin.utils4j.Utils4J.replaceVars;
+import static org.fuin.srcgen4j.commons.VariableTemplate.replaceVars;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -48,6 +48,9 @@ public final class Artifact extends AbstractNamedTarget implements Initializable
     @Nullable
     private transient GeneratorConfig parent;
 
+    @Nullable
+    private transient TargetRouter router;
+
     /**
      * Package visible default constructor for deserialization.
      */
@@ -97,6 +100,7 @@ public final class Artifact extends AbstractNamedTarget implements Initializable
      */
     public final void setTargets(@Nullable final List<Target> targets) {
         this.targets = targets;
+        this.router = null;
     }
 
     /**
@@ -111,6 +115,7 @@ public final class Artifact extends AbstractNamedTarget implements Initializable
             targets = new ArrayList<>();
         }
         targets.add(target);
+        router = null;
     }
 
     /**
@@ -157,7 +162,7 @@ public final class Artifact extends AbstractNamedTarget implements Initializable
 
     /**
      * Returns the first target that matched the given path based on the defined patterns. Returns null if the argument is
-     * <code>null</code>.
+     * <code>null</code>. After initialization the patterns are evaluated by a precompiled router that caches the latest results.
      * 
      * @param targetPath
      *            Path to find.
@@ -172,6 +177,10 @@ public final class Artifact extends AbstractNamedTarget implements Initializable
         if (targetPath == null) {
             return null;
         }
+        final TargetRouter targetRouter = router;
+        if (targetRouter != null) {
+            return targetRouter.find(targetPath);
+        }
         for (final Target target : targets) {
             if (target.matches(targetPath)) {
                 return target;
@@ -191,6 +200,7 @@ public final class Artifact extends AbstractNamedTarget implements Initializable
             for (final Target target : targets) {
                 target.init(context, this, getVarMap());
             }
+            router = new TargetRouter(targets);
         }
         return this;
     }
@@ -27,7 +27,6 @@ import jakarta.xml.bind.annotation.XmlRootElement;
 
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.fuin.objects4j.common.Contract;
-import org.fuin.utils4j.Utils4J;
 
 /**
  * Configuration for a {@link ArtifactFactory}.
@@ -52,7 +51,11 @@ public final class ArtifactFactoryConfig extends AbstractElement {
     private transient SrcGen4JContext context;
 
     @Nullable
-    private transient ArtifactFactory<?> factory;
+    private transient volatile ArtifactFactory<?> factory;
+
+    // Factory that is currently initialized - Only accessed while holding the lock of this instance
+    @Nullable
+    private transient ArtifactFactory<?> creating;
 
     /**
      * Package visible default constructor for deserialization.
@@ -146,28 +149,50 @@ public final class ArtifactFactoryConfig extends AbstractElement {
 
     /**
      * Returns the factory instance. If it does not exist, it will be created. Requires that {@link #init(SrcGen4JContext, Map)} was called
-     * once before.
+     * once before. The method is thread safe and the factory is initialized only once. Other threads wait until the initialization is
+     * finished. A call from within {@link ArtifactFactory#init(ArtifactFactoryConfig)} on the creating thread returns the instance that is
+     * currently initialized.
      * 
      * @return Factory.
      */
     @NotNull
     public final ArtifactFactory<?> getFactory() {
-        if (factory == null) {
-            if (factoryClassName == null) {
-                throw new IllegalStateException("Factory class name was not set: " + artifact);
-            }
-            if (context == null) {
-                throw new IllegalStateException("Context class loader was not set: " + artifact);
+        ArtifactFactory<?> f = factory;
+        if (f == null) {
+            synchronized (this) {
+                f = factory;
+                if (f == null && creating != null) {
+                    return creating;
+                }
+                if (f == null) {
+                    f = createFactory();
+                    factory = f;
+                }
             }
-            final Object obj = Utils4J.createInstance(factoryClassName, context.getClassLoader());
-            if (!ArtifactFactory.class.isAssignableFrom(obj.getClass())) {
-                throw new IllegalStateException(
-                        "Expected an object of type '" + ArtifactFactory.class.getName() + "', but was: " + obj.getClass());
-            }
-            factory = (ArtifactFactory<?>) obj;
-            factory.init(this);
         }
-        return factory;
+        return f;
+    }
+
+    private ArtifactFactory<?> createFactory() {
+        if (factoryClassName == null) {
+            throw new IllegalStateException("Factory class name was not set: " + artifact);
+        }
+        if (context == null) {
+            throw new IllegalStateException("Context class loader was not set: " + artifact);
+        }
+        final Object obj = InstanceRegistry.createInstance(factoryClassName, context.getClassLoader());
+        if (!ArtifactFactory.class.isAssignableFrom(obj.getClass())) {
+            throw new IllegalStateException(
+                    "Expected an object of type '" + ArtifactFactory.class.getName() + "', but was: " + obj.getClass());
+        }
+        final ArtifactFactory<?> f = (ArtifactFactory<?>) obj;
+        creating = f;
+        try {
+            f.init(this);
+        } finally {
+            creating = null;
+        }
+        return f;
     }
 
     /**
@@ -0,0 +1,297 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.commons;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import org.fuin.objects4j.common.Contract;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes generated artifacts only if the content changed. The size of an existing file is compared first and the content is only read
+ * if the size is equal. Files with identical content are not touched, so their modification time stays the same and compilers or IDEs
+ * will not rebuild them. All files passed to the writer are recorded, so files that were not produced by a run can be detected later.
+ * This class is thread safe.
+ */
+public final class ArtifactWriter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ArtifactWriter.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final AtomicLong written = new AtomicLong();
+
+    private final AtomicLong unchanged = new AtomicLong();
+
+    private final AtomicLong skipped = new AtomicLong();
+
+    private final Set<Path> recorded = ConcurrentHashMap.newKeySet();
+
+    private final Map<String, Queue<WrittenArtifact>> outputs = new ConcurrentHashMap<>();
+
+    /**
+     * Default constructor.
+     */
+    public ArtifactWriter() {
+        super();
+    }
+
+    /**
+     * Writes an artifact into a folder. Existing files that are not allowed to be overridden by the folder are skipped.
+     * 
+     * @param folder
+     *            Target folder.
+     * @param artifact
+     *            Artifact to write relative to the folder.
+     * 
+     * @return Outcome of the operation.
+     */
+    @NotNull
+    public final ArtifactWriteResult write(@NotNull final Folder folder, @NotNull final GeneratedArtifact artifact) {
+        Contract.requireArgNotNull("folder", folder);
+        Contract.requireArgNotNull("artifact", artifact);
+
+        final File dir = folder.getCanonicalDir();
+        if (dir == null) {
+            throw new IllegalStateException("Folder has no parent project: " + folder.getName());
+        }
+        final File file = new File(dir, artifact.getPathAndName());
+        if (file.exists() && !folder.overrideAllowed(file)) {
+            LOG.debug("Override not allowed: {}", file);
+            record(file);
+            skipped.incrementAndGet();
+            return ArtifactWriteResult.SKIPPED;
+        }
+        return write(file, artifact.getData());
+    }
+
+    /**
+     * Writes an artifact into a folder on behalf of a generator. The artifact is remembered, so it can be looked up by the name of the
+     * generator later.
+     * 
+     * @param generatorName
+     *            Name of the generator that created the artifact.
+     * @param folder
+     *            Target folder.
+     * @param artifact
+     *            Artifact to write relative to the folder.
+     * 
+     * @return Outcome of the operation.
+     */
+    @NotNull
+    public final ArtifactWriteResult write(@NotEmpty final String generatorName, @NotNull final Folder folder,
+            @NotNull final GeneratedArtifact artifact) {
+        Contract.requireArgNotEmpty("generatorName", generatorName);
+        final ArtifactWriteResult result = write(folder, artifact);
+        final File file = new File(folder.getCanonicalDir(), artifact.getPathAndName());
+        outputs.computeIfAbsent(generatorName, name -> new ConcurrentLinkedQueue<>())
+                .add(new WrittenArtifact(folder, artifact.getName(), artifact.getPathAndName(), file, result));
+        return result;
+    }
+
+    /**
+     * Returns the artifacts written on behalf of a generator since the last reset.
+     * 
+     * @param generatorName
+     *            Name of the generator.
+     * 
+     * @return Copy of the list of artifacts.
+     */
+    @NotNull
+    final List<WrittenArtifact> getOutputs(@NotEmpty final String generatorName) {
+        final Queue<WrittenArtifact> queue = outputs.get(generatorName);
+        if (queue == null) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(queue);
+    }
+
+    /**
+     * Writes data to a file if the file does not exist or has a different content.
+     * 
+     * @param file
+     *            File to write. Parent directories are created if necessary.
+     * @param data
+     *            Content of the file.
+     * 
+     * @return Either {@link ArtifactWriteResult#WRITTEN} or {@link ArtifactWriteResult#UNCHANGED}.
+     */
+    @NotNull
+    public final ArtifactWriteResult write(@NotNull final File file, @NotNull final byte[] data) {
+        Contract.requireArgNotNull("file", file);
+        Contract.requireArgNotNull("data", data);
+
+        final Path path = file.toPath();
+        record(file);
+        try {
+            if (sameContent(path, data)) {
+                LOG.debug("Unchanged: {}", file);
+                unchanged.incrementAndGet();
+                return ArtifactWriteResult.UNCHANGED;
+            }
+            final Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Files.write(path, data);
+        } catch (final IOException ex) {
+            throw new RuntimeException("Failed to write artifact: " + file, ex);
+        }
+        LOG.debug("Written: {}", file);
+        written.incrementAndGet();
+        return ArtifactWriteResult.WRITTEN;
+    }
+
+    /**
+     * Records a file as produced by the current run without writing it. Generators that create files on their own should call this
+     * method, so the files are not considered to be orphans.
+     * 
+     * @param file
+     *            File that was produced.
+     */
+    public final void record(@NotNull final File file) {
+        Contract.requireArgNotNull("file", file);
+        recorded.add(normalize(file));
+    }
+
+    /**
+     * Determines if a file was written, left unchanged or skipped since the last reset.
+     * 
+     * @param file
+     *            File to check.
+     * 
+     * @return TRUE if the file was produced by the current run.
+     */
+    public final boolean isRecorded(@NotNull final File file) {
+        Contract.requireArgNotNull("file", file);
+        return recorded.contains(normalize(file));
+    }
+
+    /**
+     * Returns all files produced since the last reset.
+     * 
+     * @return Unmodifiable set of absolute and normalized paths.
+     */
+    @NotNull
+    public final Set<Path> getRecorded() {
+        return Collections.unmodifiableSet(recorded);
+    }
+
+    private static Path normalize(final File file) {
+        return file.toPath().toAbsolutePath().normalize();
+    }
+
+    /**
+     * Determines if a file exists and has exactly the given content.
+     * 
+     * @param path
+     *            File to compare.
+     * @param data
+     *            Expected content.
+     * 
+     * @return TRUE if the file content is equal to the data.
+     * 
+     * @throws IOException
+     *             Error reading the file.
+     */
+    static boolean sameContent(@NotNull final Path path, @NotNull final byte[] data) throws IOException {
+        if (!Files.isRegularFile(path) || Files.size(path) != data.length) {
+            return false;
+        }
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final ByteBuffer buf = ByteBuffer.allocate(Math.min(BUFFER_SIZE, Math.max(data.length, 1)));
+            int offset = 0;
+            while (offset < data.length) {
+                buf.clear();
+                final int count = channel.read(buf);
+                if (count < 0 || offset + count > data.length) {
+                    return false;
+                }
+                buf.flip();
+                if (!ByteBuffer.wrap(data, offset, count).equals(buf)) {
+                    return false;
+                }
+                offset += count;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Returns the number of files written since the last reset.
+     * 
+     * @return Number of new or changed files.
+     */
+    public final long getWrittenCount() {
+        return written.get();
+    }
+
+    /**
+     * Returns the number of files not written because they already had the same content since the last reset.
+     * 
+     * @return Number of unchanged files.
+     */
+    public final long getUnchangedCount() {
+        return unchanged.get();
+    }
+
+    /**
+     * Returns the number of files not written because overriding them was not allowed since the last reset.
+     * 
+     * @return Number of skipped files.
+     */
+    public final long getSkippedCount() {
+        return skipped.get();
+    }
+
+    /**
+     * Sets all counters to zero and forgets all recorded files.
+     */
+    public final void reset() {
+        written.set(0);
+        unchanged.set(0);
+        skipped.set(0);
+        recorded.clear();
+        outputs.clear();
+    }
+
+    @Override
+    public final String toString() {
+        return "written=" + written.get() + ", unchanged=" + unchanged.get() + ", skipped=" + skipped.get();
+    }
+
+}
@@ -0,0 +1,318 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.commons;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import jakarta.validation.constraints.NotNull;
+
+import org.fuin.objects4j.common.Contract;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Logs file markers in a background thread, so adding a marker only costs putting it into a queue. Markers with the same severity and
+ * message are only logged once per file and the number of markers logged per file is limited. A summary with the number of markers and
+ * the ones not logged is written on {@link #flush()}. Set an instance with {@link DefaultContext#setMarkerLogger(AsyncMarkerLogger)} to
+ * use it; {@link SrcGen4J} flushes it at the end of each build.
+ */
+public final class AsyncMarkerLogger implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AsyncMarkerLogger.class);
+
+    // Same category as the synchronous logging in the context, so existing logging configurations still apply
+    private static final Logger MARKER_LOG = LoggerFactory.getLogger(DefaultContext.class);
+
+    /** Default maximum number of markers logged per file between two flushes. */
+    public static final int DEFAULT_MAX_PER_FILE = 100;
+
+    private final int maxPerFile;
+
+    private final BlockingQueue<Entry> queue;
+
+    private final Map<File, FileStats> stats;
+
+    private final long[] counts;
+
+    private final AtomicLong loggedCount;
+
+    private final AtomicLong coalescedCount;
+
+    private final AtomicLong suppressedCount;
+
+    private final Thread thread;
+
+    /** Read lock held while checking the closed flag and queueing, write lock held while closing. */
+    private final ReadWriteLock lock;
+
+    private volatile boolean closed;
+
+    /**
+     * Constructor with default maximum of markers per file.
+     */
+    public AsyncMarkerLogger() {
+        this(DEFAULT_MAX_PER_FILE);
+    }
+
+    /**
+     * Constructor with maximum of markers per file.
+     * 
+     * @param maxPerFile
+     *            Maximum number of markers logged per file between two flushes.
+     */
+    public AsyncMarkerLogger(final int maxPerFile) {
+        super();
+        if (maxPerFile < 1) {
+            throw new IllegalArgumentException("The argument 'maxPerFile' must be greater than zero, but was: " + maxPerFile);
+        }
+        this.maxPerFile = maxPerFile;
+        this.queue = new LinkedBlockingQueue<>();
+        this.stats = new HashMap<>();
+        this.counts = new long[FileMarkerSeverity.values().length];
+        this.loggedCount = new AtomicLong();
+        this.coalescedCount = new AtomicLong();
+        this.suppressedCount = new AtomicLong();
+        this.lock = new ReentrantReadWriteLock();
+        this.thread = new Thread(this::run, "srcgen4j-marker-logger");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Returns the maximum number of markers logged per file between two flushes.
+     * 
+     * @return Maximum number of markers.
+     */
+    public final int getMaxPerFile() {
+        return maxPerFile;
+    }
+
+    /**
+     * Returns the number of markers logged so far.
+     * 
+     * @return Number of logged markers.
+     */
+    public final long getLoggedCount() {
+        return loggedCount.get();
+    }
+
+    /**
+     * Returns the number of markers not logged because a marker with the same severity and message was already logged for the file.
+     * 
+     * @return Number of duplicate markers.
+     */
+    public final long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    /**
+     * Returns the number of markers not logged because the maximum number of markers for the file was reached.
+     * 
+     * @return Number of suppressed markers.
+     */
+    public final long getSuppressedCount() {
+        return suppressedCount.get();
+    }
+
+    /**
+     * Queues a marker for logging. After the instance was closed, the marker is logged immediately.
+     * 
+     * @param file
+     *            File the marker belongs to.
+     * @param marker
+     *            Marker to log.
+     */
+    public final void log(@NotNull final File file, @NotNull final DefaultFileMarker marker) {
+        Contract.requireArgNotNull("file", file);
+        Contract.requireArgNotNull("marker", marker);
+        lock.readLock().lock();
+        try {
+            if (!closed) {
+                queue.add(new Entry(file, marker, null));
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        write(marker);
+    }
+
+    /**
+     * Waits until all queued markers are logged and writes a summary. The limits per file start again afterwards.
+     */
+    public final void flush() {
+        if (closed) {
+            return;
+        }
+        drain();
+    }
+
+    @Override
+    public final void close() {
+        lock.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            // Markers arriving from now on are logged directly, so nothing is added behind the final drain request
+            closed = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        drain();
+        thread.interrupt();
+        try {
+            thread.join();
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drain() {
+        final CountDownLatch latch = new CountDownLatch(1);
+        queue.add(new Entry(null, null, latch));
+        try {
+            while (!latch.await(1, TimeUnit.SECONDS)) {
+                if (!thread.isAlive()) {
+                    LOG.warn("Marker logger thread is not running - Not waiting for queued markers");
+                    return;
+                }
+            }
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                final Entry entry = queue.take();
+                try {
+                    if (entry.latch == null) {
+                        process(entry.file, entry.marker);
+                    } else {
+                        summarize();
+                    }
+                } catch (final RuntimeException ex) {
+                    LOG.error("Failed to log marker for: {}", entry.file, ex);
+                } finally {
+                    if (entry.latch != null) {
+                        entry.latch.countDown();
+                    }
+                }
+            }
+        } catch (final InterruptedException ex) { // NOSONAR Regular end
+            LOG.debug("Marker logger stopped");
+        }
+    }
+
+    private void process(final File file, final DefaultFileMarker marker) {
+        counts[marker.getSeverity().ordinal()]++;
+        final FileStats fileStats = stats.computeIfAbsent(file, key -> new FileStats());
+        if (fileStats.logged >= maxPerFile) {
+            fileStats.suppressed++;
+            suppressedCount.incrementAndGet();
+        } else if (fileStats.messages.add(marker.getSeverity().ordinal() + marker.getMessage())) {
+            fileStats.logged++;
+            loggedCount.incrementAndGet();
+            write(marker);
+        } else {
+            fileStats.coalesced++;
+            coalescedCount.incrementAndGet();
+        }
+    }
+
+    private void summarize() {
+        for (final Map.Entry<File, FileStats> entry : stats.entrySet()) {
+            final FileStats fileStats = entry.getValue();
+            if (fileStats.coalesced > 0 || fileStats.suppressed > 0) {
+                LOG.info("Not logged for {}: {} duplicate markers, {} markers above limit", entry.getKey(), fileStats.coalesced,
+                        fileStats.suppressed);
+            }
+        }
+        final long total = counts[FileMarkerSeverity.ERROR.ordinal()] + counts[FileMarkerSeverity.WARNING.ordinal()]
+                + counts[FileMarkerSeverity.INFO.ordinal()];
+        if (total > 0) {
+            LOG.info("Markers: {} errors, {} warnings, {} infos in {} files", counts[FileMarkerSeverity.ERROR.ordinal()],
+                    counts[FileMarkerSeverity.WARNING.ordinal()], counts[FileMarkerSeverity.INFO.ordinal()], stats.size());
+        }
+        stats.clear();
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = 0;
+        }
+    }
+
+    private static void write(final DefaultFileMarker marker) {
+        if (marker.getSeverity() == FileMarkerSeverity.ERROR) {
+            MARKER_LOG.error(marker.toString());
+        }
+        if (marker.getSeverity() == FileMarkerSeverity.WARNING) {
+            MARKER_LOG.warn(marker.toString());
+        }
+        if (marker.getSeverity() == FileMarkerSeverity.INFO) {
+            MARKER_LOG.info(marker.toString());
+        }
+    }
+
+    /**
+     * Queued marker or flush request.
+     */
+    private static final class Entry {
+
+        private final File file;
+
+        private final DefaultFileMarker marker;
+
+        private final CountDownLatch latch;
+
+        public Entry(final File file, final DefaultFileMarker marker, final CountDownLatch latch) {
+            super();
+            this.file = file;
+            this.marker = marker;
+            this.latch = latch;
+        }
+
+    }
+
+    /**
+     * Markers of a single file since the last flush.
+     */
+    private static final class FileStats {
+
+        private final Set<String> messages = new HashSet<>();
+
+        private int logged;
+
+        private int coalesced;
+
+        private int suppressed;
+
+    }
+
+}
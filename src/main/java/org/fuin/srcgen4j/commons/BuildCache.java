@@ -0,0 +1,636 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.commons;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.xml.bind.JAXBException;
+import jakarta.xml.bind.annotation.XmlRootElement;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.fuin.objects4j.common.Contract;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Node;
+
+/**
+ * Local content addressed cache for the output of generators. The key of a cache entry is a hash over the input files of the parser, the
+ * resolved parser and generator configuration including their variables and the JAR files or class directories the parser and generator
+ * classes were loaded from. Every entry is a manifest that
+ * lists the generated files by project, folder and relative path together with the hash of their content. The content is stored once
+ * per hash, so identical files of different entries share the same storage.<br>
+ * <br>
+ * Restored files are verified against their hash. Entries with missing or corrupt content are removed and treated as a cache miss. The
+ * cache is limited in size by evicting the least recently used entries.<br>
+ * <br>
+ * Only generators implementing {@link CacheableGenerator} are cached. The parser and generator specific configurations are part of the
+ * key. If one of them has no stable representation (see {@link CacheableGenerator}), the output of the generator is not cached. Helper
+ * classes or templates of a generator that are located in
+ * other JAR files than the generator class are not part of the key. The fingerprint store passed to the cache must not be used for
+ * anything else, because the cache scans it on every full build.
+ */
+public final class BuildCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BuildCache.class);
+
+    private static final String VERSION = "srcgen4j-build-cache-v2";
+
+    private static final String ENTRIES_DIR = "entries";
+
+    private static final String BLOBS_DIR = "blobs";
+
+    private final File cacheDir;
+
+    private final long maxBytes;
+
+    private final InputFingerprintStore store;
+
+    private final Map<File, String> codeSourceHashes;
+
+    private final Map<File, StampedHash> jarHashes;
+
+    private final AtomicLong hits;
+
+    private final AtomicLong misses;
+
+    /**
+     * Constructor with all mandatory data.
+     * 
+     * @param cacheDir
+     *            Directory where the cache is located. It's created if it does not exist.
+     * @param maxBytes
+     *            Maximum size of the cached content in bytes.
+     * @param store
+     *            Fingerprint store used exclusively by this cache to determine the hashes of the input files.
+     */
+    public BuildCache(@NotNull final File cacheDir, final long maxBytes, @NotNull final InputFingerprintStore store) {
+        super();
+        Contract.requireArgNotNull("cacheDir", cacheDir);
+        Contract.requireArgNotNull("store", store);
+        if (maxBytes < 1) {
+            throw new IllegalArgumentException("The argument 'maxBytes' must be greater than zero, but was: " + maxBytes);
+        }
+        this.cacheDir = cacheDir;
+        this.maxBytes = maxBytes;
+        this.store = store;
+        this.codeSourceHashes = new ConcurrentHashMap<>();
+        this.jarHashes = new ConcurrentHashMap<>();
+        this.hits = new AtomicLong();
+        this.misses = new AtomicLong();
+    }
+
+    /**
+     * Returns the cache directory.
+     * 
+     * @return Directory.
+     */
+    @NotNull
+    public final File getCacheDir() {
+        return cacheDir;
+    }
+
+    /**
+     * Returns the maximum size of the cached content.
+     * 
+     * @return Size in bytes.
+     */
+    public final long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Returns the number of generators restored from the cache.
+     * 
+     * @return Number of cache hits.
+     */
+    public final long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Returns the number of generators that were not found in the cache.
+     * 
+     * @return Number of cache misses.
+     */
+    public final long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * Updates the fingerprints of the input files and forgets the hashes of class directories and JAR files calculated during the last
+     * build. Must be called before keys are created.
+     * 
+     * @param filter
+     *            Filter that selects all input files.
+     */
+    final void prepare(@NotNull final FileFilter filter) {
+        codeSourceHashes.clear();
+        store.scan(filter);
+        store.save();
+    }
+
+    /**
+     * Determines if the output of a generator may be cached.
+     * 
+     * @param generatorConfig
+     *            Generator to check.
+     * 
+     * @return TRUE if the generator is a {@link CacheableGenerator}.
+     */
+    final boolean isCacheable(@NotNull final GeneratorConfig generatorConfig) {
+        return generatorConfig.getGenerator() instanceof CacheableGenerator;
+    }
+
+    /**
+     * Creates a hash over all input files of a parser.
+     * 
+     * @param parserConfig
+     *            Parser configuration.
+     * 
+     * @return Hash or <code>null</code> if the parser is not an {@link IncrementalParser} and the input files are unknown.
+     */
+    @Nullable
+    final String hashInputs(@NotNull final ParserConfig parserConfig) {
+        final Parser<Object> parser = parserConfig.getParser();
+        if (!(parser instanceof IncrementalParser)) {
+            return null;
+        }
+        final FileFilter filter = ((IncrementalParser<?>) parser).getFileFilter();
+        final List<String> lines = new ArrayList<>();
+        for (final InputFingerprint fp : store.getFingerprints().values()) {
+            if (filter.accept(fp.getFile())) {
+                lines.add(relativize(fp.getFile()) + "\t" + fp.getHash());
+            }
+        }
+        Collections.sort(lines);
+        return Hashes.hash(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Creates the cache key for a generator. Configurations without a stable representation are logged and no key is created.
+     * 
+     * @param inputsHash
+     *            Hash over the input files of the parser.
+     * @param parserConfig
+     *            Parser that creates the model for the generator.
+     * @param generatorConfig
+     *            Generator to create a key for.
+     * 
+     * @return Cache key or <code>null</code> if the output of the generator cannot be cached.
+     */
+    @Nullable
+    final String createKey(@NotNull final String inputsHash, @NotNull final ParserConfig parserConfig,
+            @NotNull final GeneratorConfig generatorConfig) {
+
+        final String parserPayload = payload(parserConfig.getConfig());
+        if (parserPayload == null) {
+            LOG.warn("Not caching generator '{}' - Configuration of parser '{}' has no stable representation: {}",
+                    generatorConfig.getName(), parserConfig.getName(), parserConfig.getConfig().getCfg().getClass().getName());
+            return null;
+        }
+        final Generator<Object> generator = generatorConfig.getGenerator();
+        final String cacheKey = (generator instanceof CacheableGenerator ? ((CacheableGenerator<?>) generator).getCacheKey() : null);
+        final String generatorPayload = (cacheKey == null ? payload(generatorConfig.getConfig()) : "key:" + cacheKey);
+        if (generatorPayload == null) {
+            LOG.warn("Not caching generator '{}' - Configuration has no stable representation and no cache key: {}",
+                    generatorConfig.getName(), generatorConfig.getConfig().getCfg().getClass().getName());
+            return null;
+        }
+
+        final StringBuilder sb = new StringBuilder(VERSION).append('\n');
+        sb.append("inputs=").append(inputsHash).append('\n');
+        sb.append("parser=").append(parserConfig.getName()).append(',').append(parserConfig.getClassName()).append('\n');
+        sb.append("parserClass=").append(hashClass(parserConfig.getClassName(), parserConfig.getContext())).append('\n');
+        sb.append("parserConfig=").append(parserPayload).append('\n');
+        for (final Map.Entry<String, String> entry : new TreeMap<>(parserConfig.getVarMap()).entrySet()) {
+            sb.append("parserVar=").append(entry.getKey()).append('=').append(entry.getValue()).append('\n');
+        }
+        sb.append("generator=").append(generatorConfig.getName()).append(',').append(generatorConfig.getClassName()).append('\n');
+        sb.append("generatorClass=").append(hashClass(generatorConfig.getClassName(), generatorConfig.getContext())).append('\n');
+        sb.append("generatorTarget=").append(generatorConfig.getDefProject()).append(',').append(generatorConfig.getDefFolder())
+                .append('\n');
+        for (final Map.Entry<String, String> entry : new TreeMap<>(generatorConfig.getVarMap()).entrySet()) {
+            sb.append("generatorVar=").append(entry.getKey()).append('=').append(entry.getValue()).append('\n');
+        }
+        final List<Artifact> artifacts = generatorConfig.getArtifacts();
+        if (artifacts != null) {
+            for (final Artifact artifact : artifacts) {
+                sb.append("artifact=").append(artifact.getName()).append(',').append(artifact.getDefProject()).append(',')
+                        .append(artifact.getDefFolder()).append('\n');
+                final List<Target> targets = artifact.getTargets();
+                if (targets != null) {
+                    for (final Target target : targets) {
+                        sb.append("target=").append(target.getPattern()).append(',').append(target.getDefProject()).append(',')
+                                .append(target.getDefFolder()).append('\n');
+                    }
+                }
+            }
+        }
+        sb.append("generatorConfig=").append(generatorPayload).append('\n');
+        return Hashes.hash(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Restores the output of a generator from the cache. All files are verified before the first one is written.
+     * 
+     * @param key
+     *            Cache key.
+     * @param generatorConfig
+     *            Generator to restore the output for.
+     * @param config
+     *            Configuration used to locate the target folders.
+     * @param writer
+     *            Writer used to write the restored files.
+     * 
+     * @return TRUE if the output was restored, FALSE if there was no valid cache entry.
+     */
+    final boolean restore(@NotNull final String key, @NotNull final GeneratorConfig generatorConfig, @NotNull final SrcGen4JConfig config,
+            @NotNull final ArtifactWriter writer) {
+
+        final Path manifest = entryFile(key);
+        if (!Files.isRegularFile(manifest)) {
+            misses.incrementAndGet();
+            return false;
+        }
+
+        final List<Folder> folders = new ArrayList<>();
+        final List<GeneratedArtifact> artifacts = new ArrayList<>();
+        try {
+            for (final String line : Files.readAllLines(manifest, StandardCharsets.UTF_8)) {
+                final String[] parts = line.split("\t", 6);
+                if (parts.length != 6) {
+                    return invalid(key, "Invalid manifest line: " + line);
+                }
+                final Folder folder = findFolder(config, parts[3], parts[4]);
+                if (folder == null) {
+                    return invalid(key, "Unknown folder: " + parts[3] + "/" + parts[4]);
+                }
+                final Path blob = blobFile(parts[0]);
+                if (!Files.isRegularFile(blob)) {
+                    return invalid(key, "Missing content: " + parts[0]);
+                }
+                final byte[] data = Files.readAllBytes(blob);
+                if (data.length != Long.parseLong(parts[1]) || !parts[0].equals(Hashes.hash(data))) {
+                    Files.deleteIfExists(blob);
+                    return invalid(key, "Corrupt content: " + parts[0]);
+                }
+                folders.add(folder);
+                artifacts.add(new GeneratedArtifact(parts[2], parts[5], data));
+            }
+        } catch (final IOException | NumberFormatException ex) {
+            LOG.warn("Failed to read cache entry: {}", key, ex);
+            return invalid(key, ex.getMessage());
+        }
+
+        for (int i = 0; i < artifacts.size(); i++) {
+            writer.write(generatorConfig.getName(), folders.get(i), artifacts.get(i));
+        }
+        try {
+            Files.setLastModifiedTime(manifest, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (final IOException ex) {
+            LOG.debug("Failed to update access time of cache entry: {}", key, ex);
+        }
+        hits.incrementAndGet();
+        LOG.debug("Restored {} files of generator '{}' from cache entry: {}", artifacts.size(), generatorConfig.getName(), key);
+        return true;
+    }
+
+    /**
+     * Adds the output of a generator to the cache. Nothing is stored if the generator did not write any file or if a file was skipped
+     * because it was not allowed to override it.
+     * 
+     * @param key
+     *            Cache key.
+     * @param outputs
+     *            Files written by the generator.
+     */
+    final void store(@NotNull final String key, @NotNull final List<WrittenArtifact> outputs) {
+        if (outputs.isEmpty()) {
+            LOG.debug("Nothing to cache: {}", key);
+            return;
+        }
+        final StringBuilder sb = new StringBuilder();
+        try {
+            for (final WrittenArtifact output : outputs) {
+                if (output.getResult() == ArtifactWriteResult.SKIPPED) {
+                    LOG.debug("Not caching output with skipped file: {}", output.getFile());
+                    return;
+                }
+                final Project project = output.getFolder().getParent();
+                if (project == null) {
+                    return;
+                }
+                final byte[] data = Files.readAllBytes(output.getFile().toPath());
+                final String hash = Hashes.hash(data);
+                final Path blob = blobFile(hash);
+                if (!Files.exists(blob)) {
+                    writeAtomic(blob, data);
+                }
+                sb.append(hash).append('\t').append(data.length).append('\t').append(output.getArtifactName()).append('\t')
+                        .append(project.getName()).append('\t').append(output.getFolder().getName()).append('\t')
+                        .append(output.getPathAndName()).append('\n');
+            }
+            writeAtomic(entryFile(key), sb.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (final IOException ex) {
+            LOG.warn("Failed to store cache entry: {}", key, ex);
+        }
+    }
+
+    /**
+     * Removes the least recently used entries until the content is below the maximum size. Content no longer referenced by any entry is
+     * deleted.
+     */
+    public final void evict() {
+        final Path entriesDir = cacheDir.toPath().resolve(ENTRIES_DIR);
+        final Path blobsDir = cacheDir.toPath().resolve(BLOBS_DIR);
+        if (!Files.isDirectory(entriesDir)) {
+            return;
+        }
+        try {
+            final List<Path> entries = new ArrayList<>();
+            try (final DirectoryStream<Path> stream = Files.newDirectoryStream(entriesDir)) {
+                for (final Path entry : stream) {
+                    entries.add(entry);
+                }
+            }
+            final Map<Path, FileTime> accessed = new HashMap<>();
+            for (final Path entry : entries) {
+                accessed.put(entry, Files.getLastModifiedTime(entry));
+            }
+            entries.sort(Comparator.comparing(accessed::get));
+
+            final Map<Path, Set<String>> entryBlobs = new HashMap<>();
+            final Map<String, Integer> refCount = new HashMap<>();
+            final Map<String, Long> blobSize = new HashMap<>();
+            long total = 0;
+            for (final Path entry : entries) {
+                final Set<String> blobs = new HashSet<>();
+                for (final String line : Files.readAllLines(entry, StandardCharsets.UTF_8)) {
+                    final String[] parts = line.split("\t", 3);
+                    if (parts.length == 3 && blobs.add(parts[0])) {
+                        if (refCount.merge(parts[0], 1, Integer::sum) == 1) {
+                            final long size = Long.parseLong(parts[1]);
+                            blobSize.put(parts[0], size);
+                            total += size;
+                        }
+                    }
+                }
+                entryBlobs.put(entry, blobs);
+            }
+
+            int evicted = 0;
+            for (final Path entry : entries) {
+                if (total <= maxBytes) {
+                    break;
+                }
+                Files.deleteIfExists(entry);
+                evicted++;
+                for (final String blob : entryBlobs.get(entry)) {
+                    if (refCount.merge(blob, -1, Integer::sum) == 0) {
+                        refCount.remove(blob);
+                        total -= blobSize.get(blob);
+                    }
+                }
+            }
+
+            if (Files.isDirectory(blobsDir)) {
+                try (final DirectoryStream<Path> shards = Files.newDirectoryStream(blobsDir)) {
+                    for (final Path shard : shards) {
+                        try (final DirectoryStream<Path> blobs = Files.newDirectoryStream(shard)) {
+                            for (final Path blob : blobs) {
+                                if (!refCount.containsKey(blob.getFileName().toString())) {
+                                    Files.deleteIfExists(blob);
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+            LOG.debug("Evicted {} cache entries - Cache size is now {} bytes", evicted, total);
+        } catch (final IOException | NumberFormatException ex) {
+            LOG.warn("Failed to evict cache entries in: {}", cacheDir, ex);
+        }
+    }
+
+    private boolean invalid(final String key, final String reason) {
+        LOG.warn("Removing invalid cache entry {}: {}", key, reason);
+        try {
+            Files.deleteIfExists(entryFile(key));
+        } catch (final IOException ex) {
+            LOG.warn("Failed to remove invalid cache entry: {}", key, ex);
+        }
+        misses.incrementAndGet();
+        return false;
+    }
+
+    private Path entryFile(final String key) {
+        return cacheDir.toPath().resolve(ENTRIES_DIR).resolve(key);
+    }
+
+    private Path blobFile(final String hash) {
+        return cacheDir.toPath().resolve(BLOBS_DIR).resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    private static void writeAtomic(final Path target, final byte[] data) throws IOException {
+        Files.createDirectories(target.getParent());
+        final Path tmp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            Files.write(tmp, data);
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private String relativize(final File file) {
+        final Path path = file.toPath().toAbsolutePath().normalize();
+        for (final File dir : store.getInputDirs()) {
+            final Path dirPath = dir.toPath().toAbsolutePath().normalize();
+            if (path.startsWith(dirPath)) {
+                return dirPath.relativize(path).toString().replace(File.separatorChar, '/');
+            }
+        }
+        return path.toString();
+    }
+
+    private static Folder findFolder(final SrcGen4JConfig config, final String projectName, final String folderName) {
+        final List<Project> projects = config.getProjects();
+        if (projects == null) {
+            return null;
+        }
+        for (final Project project : projects) {
+            if (project.getName().equals(projectName) && project.getFolders() != null) {
+                for (final Folder folder : project.getFolders()) {
+                    if (folder.getName().equals(folderName)) {
+                        return folder;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private String hashClass(final String className, final SrcGen4JContext context) {
+        if (context == null) {
+            return className;
+        }
+        try {
+            final Class<?> clasz = Class.forName(className, false, context.getClassLoader());
+            final CodeSource codeSource = clasz.getProtectionDomain().getCodeSource();
+            if (codeSource != null && codeSource.getLocation() != null && "file".equals(codeSource.getLocation().getProtocol())) {
+                final File location = new File(codeSource.getLocation().toURI());
+                if (location.isFile()) {
+                    return hashJar(location);
+                }
+                if (location.isDirectory()) {
+                    return codeSourceHashes.computeIfAbsent(location, BuildCache::hashDir);
+                }
+            }
+            final URL url = context.getClassLoader().getResource(className.replace('.', '/') + ".class");
+            if (url == null) {
+                return className;
+            }
+            try (final InputStream in = url.openStream()) {
+                return Hashes.hash(in.readAllBytes());
+            }
+        } catch (final ClassNotFoundException | URISyntaxException | IOException ex) {
+            throw new RuntimeException("Failed to create hash for class: " + className, ex);
+        }
+    }
+
+    private String hashJar(final File jar) {
+        return codeSourceHashes.computeIfAbsent(jar, file -> {
+            final long size = file.length();
+            final long lastModified = file.lastModified();
+            final StampedHash known = jarHashes.get(file);
+            if (known != null && known.size == size && known.lastModified == lastModified) {
+                return known.hash;
+            }
+            final String hash = Hashes.hash(file);
+            jarHashes.put(file, new StampedHash(size, lastModified, hash));
+            return hash;
+        });
+    }
+
+    private static String hashDir(final File dir) {
+        final Path root = dir.toPath();
+        final List<String> lines = new ArrayList<>();
+        try {
+            Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(final Path path, final BasicFileAttributes attrs) {
+                    if (attrs.isRegularFile()) {
+                        // Content hash, because a recompiled class may have the same size and modification time
+                        lines.add(root.relativize(path).toString().replace(File.separatorChar, '/') + "\t" + Hashes.hash(path.toFile()));
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (final IOException ex) {
+            throw new RuntimeException("Failed to create hash for directory: " + dir, ex);
+        }
+        Collections.sort(lines);
+        return Hashes.hash(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String payload(final Config<?> config) {
+        if (config == null || config.getCfg() == null) {
+            return "";
+        }
+        final Object cfg = config.getCfg();
+        if (cfg instanceof Node) {
+            try {
+                final Transformer transformer = TransformerFactory.newInstance().newTransformer();
+                transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
+                final StringWriter writer = new StringWriter();
+                transformer.transform(new DOMSource((Node) cfg), new StreamResult(writer));
+                return writer.toString();
+            } catch (final TransformerException ex) {
+                throw new RuntimeException("Failed to serialize configuration: " + cfg, ex);
+            }
+        }
+        if (cfg.getClass().getAnnotation(XmlRootElement.class) != null) {
+            try {
+                return new JaxbHelper(false).write(cfg, JaxbHelper.getContext(cfg.getClass()));
+            } catch (final MarshalObjectException | JAXBException ex) {
+                throw new RuntimeException("Failed to serialize configuration: " + cfg, ex);
+            }
+        }
+        if (cfg instanceof String || cfg instanceof Number || cfg instanceof Boolean || cfg instanceof Enum) {
+            return cfg.getClass().getName() + ":" + cfg;
+        }
+        // The string representation of other objects may contain identity hash codes that change with every run
+        return null;
+    }
+
+    /**
+     * Hash of a file that is valid as long as size and modification time did not change.
+     */
+    private static final class StampedHash {
+
+        private final long size;
+
+        private final long lastModified;
+
+        private final String hash;
+
+        StampedHash(final long size, final long lastModified, final String hash) {
+            super();
+            this.size = size;
+            this.lastModified = lastModified;
+            this.hash = hash;
+        }
+
+    }
+
+}
@@ -0,0 +1,48 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.commons;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Generator whose output may be restored from a {@link BuildCache}. Implementations must write all their files using
+ * {@link GeneratorConfig#write(GeneratedArtifact)} and the output must only depend on the model, the configuration, the variables and the
+ * content of the JAR file or directory the generator class was loaded from (including templates and other resources in there).<br>
+ * <br>
+ * The generator specific configuration is part of the cache key. DOM, JAXB and simple values (strings, numbers, booleans and enums) are
+ * serialized automatically. Other configuration objects have no stable representation, so the generator has to provide one with
+ * {@link #getCacheKey()}. Otherwise its output is not cached.
+ * 
+ * @param <MODEL>
+ *            Type of the model.
+ */
+public interface CacheableGenerator<MODEL> extends Generator<MODEL> {
+
+    /**
+     * Returns a representation of the generator specific configuration that is used as part of the cache key instead of the serialized
+     * configuration. It must be equal for equal configurations, also in different JVM runs. The default implementation returns
+     * <code>null</code>, so the configuration is serialized.
+     * 
+     * @return Stable key or <code>null</code> to use the serialized configuration.
+     */
+    @Nullable
+    public default String getCacheKey() {
+        return null;
+    }
+
+}
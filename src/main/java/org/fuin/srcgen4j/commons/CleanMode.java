@@ -0,0 +1,35 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.commons;
+
+/**
+ * Defines how the folders marked with <code>clean="true"</code> are cleaned during a full build.
+ */
+public enum CleanMode {
+
+    /** All files are deleted before parsing starts. */
+    FULL,
+
+    /**
+     * Nothing is deleted up front. After a successful run only files are deleted that the {@link ArtifactWriter} recorded during the
+     * previous run, but not during this one. The recorded files are listed in a manifest file inside each folder. Files that generators
+     * write on their own are never deleted.
+     */
+    SWEEP
+
+}
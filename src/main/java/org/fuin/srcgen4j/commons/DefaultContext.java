@@ -19,29 +19,48 @@ package org.fuin.srcgen4j.commons;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import jakarta.validation.constraints.NotNull;
 
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.fuin.objects4j.common.Contract;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Provides a context for the build process that just stores the markers and logs the add messages.
+ * Provides a context for the build process that just stores the markers and logs the add messages. The markers may be added and removed
+ * concurrently. Each file has it's own marker list, so threads working on different files don't block each other. The number of markers
+ * per severity is always available without iterating the markers.<br>
+ * <br>
+ * While a marker batch is active, new markers are collected separately. On commit they replace the markers of the batch's files and of all
+ * other files that received new markers during the batch (for example files referenced by a changed file). Registered
+ * {@link FileMarkerListener}s are informed about the changes with a single {@link FileMarkerDelta}. Batches started while another one is
+ * active (for example by two builds sharing this context) are joined and committed together when the last of them is committed. Staged
+ * markers are not visible to the marker iterators, counters and {@link #hasErrors()} before the commit.
  */
 public final class DefaultContext implements SrcGen4JContext, FileMarkerCapable {
 
     private static final Logger LOG = LoggerFactory.getLogger(DefaultContext.class);
 
     @NotNull
-    private final Map<File, Set<DefaultFileMarker>> markers;
+    private final ConcurrentHashMap<File, MarkerList> markers;
+
+    @NotNull
+    private final LongAdder[] counters;
 
     @NotNull
     private final ClassLoader classLoader;
@@ -52,6 +71,15 @@ public final class DefaultContext implements SrcGen4JContext, FileMarkerCapable
     @NotNull
     private final List<File> binDirs;
 
+    @NotNull
+    private final List<FileMarkerListener> listeners;
+
+    @Nullable
+    private volatile AsyncMarkerLogger markerLogger;
+
+    @Nullable
+    private volatile MarkerBatch batch;
+
     /**
      * Default constructor.
      */
@@ -68,7 +96,9 @@ public final class DefaultContext implements SrcGen4JContext, FileMarkerCapable
     public DefaultContext(@NotNull final ClassLoader classLoader) { // NOSONAR Ignore not initialized fields
         super();
         Contract.requireArgNotNull("classLoader", classLoader);
-        this.markers = new HashMap<>();
+        this.markers = new ConcurrentHashMap<>();
+        this.counters = createCounters();
+        this.listeners = new CopyOnWriteArrayList<>();
         this.classLoader = classLoader;
         this.jarFiles = Collections.unmodifiableList(new ArrayList<>());
         this.binDirs = Collections.unmodifiableList(new ArrayList<>());
@@ -87,7 +117,9 @@ public final class DefaultContext implements SrcGen4JContext, FileMarkerCapable
         Contract.requireArgNotNull("classLoader", classLoader);
         Contract.requireArgNotNull("cp", cp);
 
-        markers = new HashMap<>();
+        markers = new ConcurrentHashMap<>();
+        counters = createCounters();
+        listeners = new CopyOnWriteArrayList<>();
         this.classLoader = classLoader;
         final List<File> files = new ArrayList<>();
         final List<File> dirs = new ArrayList<>();
@@ -102,13 +134,39 @@ public final class DefaultContext implements SrcGen4JContext, FileMarkerCapable
         binDirs = Collections.unmodifiableList(dirs);
     }
 
+    private static LongAdder[] createCounters() {
+        final LongAdder[] counters = new LongAdder[FileMarkerSeverity.values().length];
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new LongAdder();
+        }
+        return counters;
+    }
+
+    private static void add(final Map<File, MarkerList> map, final File file, final DefaultFileMarker marker) {
+        map.compute(file, (key, list) -> {
+            final MarkerList result = (list == null ? new MarkerList() : list);
+            result.add(marker);
+            return result;
+        });
+    }
+
+    private void count(final MarkerList list, final int delta) {
+        final Iterator<DefaultFileMarker> it = list.iterator();
+        while (it.hasNext()) {
+            counters[it.next().getSeverity().ordinal()].add(delta);
+        }
+    }
+
     private DefaultFileMarker add(final File file, final DefaultFileMarker marker) {
-        Set<DefaultFileMarker> set = markers.get(file);
-        if (set == null) {
-            set = new HashSet<>();
-            markers.put(file, set);
+        if (!stage(file, marker)) {
+            add(markers, file, marker);
+            counters[marker.getSeverity().ordinal()].increment();
+        }
+        final AsyncMarkerLogger logger = markerLogger;
+        if (logger != null) {
+            logger.log(file, marker);
+            return marker;
         }
-        set.add(marker);
         if (marker.getSeverity() == FileMarkerSeverity.ERROR) {
             LOG.error(marker.toString());
         }
@@ -121,6 +179,182 @@ public final class DefaultContext implements SrcGen4JContext, FileMarkerCapable
         return marker;
     }
 
+    private boolean stage(final File file, final DefaultFileMarker marker) {
+        final MarkerBatch currentBatch = batch;
+        if (currentBatch == null) {
+            return false;
+        }
+        currentBatch.lock.readLock().lock();
+        try {
+            if (currentBatch.committed) {
+                return false;
+            }
+            add(currentBatch.staged, file, marker);
+            return true;
+        } finally {
+            currentBatch.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a listener that is informed about the changes of committed marker batches.
+     * 
+     * @param listener
+     *            Listener to add.
+     */
+    public final void addFileMarkerListener(@NotNull final FileMarkerListener listener) {
+        Contract.requireArgNotNull("listener", listener);
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener.
+     * 
+     * @param listener
+     *            Listener to remove.
+     */
+    public final void removeFileMarkerListener(@NotNull final FileMarkerListener listener) {
+        Contract.requireArgNotNull("listener", listener);
+        listeners.remove(listener);
+    }
+
+    /**
+     * Starts collecting new markers separately from the existing ones. The existing markers stay visible until
+     * {@link #commitMarkerBatch()} is called. If a batch is already active, the files are added to it and the batch is only committed
+     * after a matching number of {@link #commitMarkerBatch()} calls.
+     * 
+     * @param files
+     *            Files whose markers are replaced on commit, even if the batch adds no new markers for them. The markers of other files are
+     *            replaced only if the batch adds new markers for them.
+     */
+    public final synchronized void beginMarkerBatch(@NotNull final Set<File> files) {
+        Contract.requireArgNotNull("files", files);
+        final MarkerBatch currentBatch = batch;
+        if (currentBatch == null) {
+            final MarkerBatch newBatch = new MarkerBatch();
+            newBatch.files.addAll(files);
+            batch = newBatch;
+        } else {
+            currentBatch.files.addAll(files);
+            currentBatch.depth++;
+        }
+    }
+
+    /**
+     * Replaces the markers of the batch's files and of all files that received new markers with the ones added since
+     * {@link #beginMarkerBatch(Set)} and informs all listeners about the changes. Markers added concurrently without the batch wait
+     * until the staged markers are applied, so they are never removed by the commit. If the batch was joined by other {@link #beginMarkerBatch(Set)} calls, it stays active until the last of them is
+     * committed and an empty delta is returned.
+     * 
+     * @return Markers added and removed by the batch.
+     */
+    @NotNull
+    public final synchronized FileMarkerDelta commitMarkerBatch() {
+        final MarkerBatch currentBatch = batch;
+        if (currentBatch == null) {
+            throw new IllegalStateException("No marker batch active");
+        }
+        if (currentBatch.depth > 1) {
+            currentBatch.depth--;
+            return new FileMarkerDelta(new HashMap<>(), new HashMap<>());
+        }
+        final Map<File, List<FileMarker>> added = new HashMap<>();
+        final Map<File, List<FileMarker>> removed = new HashMap<>();
+        // Markers added meanwhile wait in 'stage()' until the staged ones are applied and then go directly to the context
+        currentBatch.lock.writeLock().lock();
+        try {
+            final Set<File> files = new HashSet<>(currentBatch.files);
+            files.addAll(currentBatch.staged.keySet());
+            for (final File file : files) {
+                final MarkerList newList = currentBatch.staged.get(file);
+                markers.compute(file, (key, oldList) -> {
+                    if (oldList != null) {
+                        if (oldList.size() > 0) {
+                            removed.put(file, oldList.toList());
+                        }
+                        count(oldList, -1);
+                    }
+                    if (newList != null) {
+                        added.put(file, newList.toList());
+                        count(newList, 1);
+                    }
+                    return newList;
+                });
+            }
+            currentBatch.committed = true;
+            batch = null;
+        } finally {
+            currentBatch.lock.writeLock().unlock();
+        }
+
+        final FileMarkerDelta delta = new FileMarkerDelta(added, removed);
+        if (!delta.isEmpty()) {
+            for (final FileMarkerListener listener : listeners) {
+                try {
+                    listener.markersChanged(delta);
+                } catch (final RuntimeException ex) {
+                    LOG.error("Marker listener failed: {}", listener, ex);
+                }
+            }
+        }
+        return delta;
+    }
+
+    /**
+     * Returns the logger for added markers.
+     * 
+     * @return Asynchronous logger or <code>null</code> if markers are logged immediately.
+     */
+    @Nullable
+    public final AsyncMarkerLogger getMarkerLogger() {
+        return markerLogger;
+    }
+
+    /**
+     * Sets the logger for added markers.
+     * 
+     * @param markerLogger
+     *            Asynchronous logger or <code>null</code> to log markers immediately.
+     */
+    public final void setMarkerLogger(@Nullable final AsyncMarkerLogger markerLogger) {
+        this.markerLogger = markerLogger;
+    }
+
+    /**
+     * Returns the number of markers with a given severity on all files.
+     * 
+     * @param severity
+     *            Severity to count.
+     * 
+     * @return Number of markers.
+     */
+    public final long getMarkerCount(@NotNull final FileMarkerSeverity severity) {
+        Contract.requireArgNotNull("severity", severity);
+        return counters[severity.ordinal()].sum();
+    }
+
+    /**
+     * Returns the number of markers on all files.
+     * 
+     * @return Number of markers.
+     */
+    public final long getMarkerCount() {
+        long count = 0;
+        for (final LongAdder counter : counters) {
+            count = count + counter.sum();
+        }
+        return count;
+    }
+
+    /**
+     * Returns if any file has an error marker. Markers staged by an active marker batch are not included before the batch is committed.
+     * 
+     * @return TRUE if there is at least one marker with severity {@link FileMarkerSeverity#ERROR}, else FALSE.
+     */
+    public final boolean hasErrors() {
+        return getMarkerCount(FileMarkerSeverity.ERROR) > 0;
+    }
+
     @Override
     public final FileMarker addMarker(final File file, final FileMarkerSeverity severity, final String message) {
         return add(file, new DefaultFileMarker(severity, message));
@@ -139,42 +373,66 @@ public final class DefaultContext implements SrcGen4JContext, FileMarkerCapable
 
     @Override
     public final Iterator<? extends FileMarker> getMarkerIterator() {
-        final Set<DefaultFileMarker> all = new HashSet<>();
-        final Iterator<File> fileIt = markers.keySet().iterator();
-        while (fileIt.hasNext()) {
-            final Set<DefaultFileMarker> set = markers.get(fileIt.next());
-            for (final DefaultFileMarker marker : set) {
-                all.add(marker);
+        final Iterator<MarkerList> lists = markers.values().iterator();
+        return new Iterator<DefaultFileMarker>() {
+
+            private Iterator<DefaultFileMarker> current = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext() && lists.hasNext()) {
+                    current = lists.next().iterator();
+                }
+                return current.hasNext();
             }
-        }
-        return all.iterator();
+
+            @Override
+            public DefaultFileMarker next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return current.next();
+            }
+
+        };
     }
 
     @Override
     public final Iterator<? extends FileMarker> getMarkerIterator(final File file) {
-        final Set<DefaultFileMarker> set = markers.get(file);
-        if (set == null) {
+        final MarkerList list = markers.get(file);
+        if (list == null) {
             return null;
         }
-        return set.iterator();
+        return list.iterator();
     }
 
     @Override
     public final void removeAllMarkers() {
-        markers.clear();
+        for (final File file : markers.keySet()) {
+            removeAllMarkers(file);
+        }
     }
 
     @Override
     public final void removeAllMarkers(final File file) {
-        markers.remove(file);
+        final MarkerList list = markers.remove(file);
+        if (list != null) {
+            final Iterator<DefaultFileMarker> it = list.iterator();
+            while (it.hasNext()) {
+                counters[it.next().getSeverity().ordinal()].decrement();
+            }
+        }
     }
 
     @Override
     public final void removeMarker(final File file, final FileMarker marker) {
-        final Set<DefaultFileMarker> set = markers.get(file);
-        if (set != null) {
-            set.remove(marker);
-        }
+        markers.computeIfPresent(file, (key, list) -> {
+            final DefaultFileMarker removed = list.remove(marker);
+            if (removed != null) {
+                counters[removed.getSeverity().ordinal()].decrement();
+            }
+            return list;
+        });
     }
 
     @Override
@@ -182,4 +440,102 @@ public final class DefaultContext implements SrcGen4JContext, FileMarkerCapable
         return classLoader;
     }
 
+    /**
+     * Markers of a single file. Markers are only appended to the array or the array is replaced, so an iterator can safely work on the
+     * array and size it saw when it was created.
+     */
+    private static final class MarkerList {
+
+        private DefaultFileMarker[] items = new DefaultFileMarker[2];
+
+        private int size;
+
+        public synchronized void add(final DefaultFileMarker marker) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+            }
+            items[size++] = marker;
+        }
+
+        public synchronized void addAll(final MarkerList other) {
+            final Iterator<DefaultFileMarker> it = other.iterator();
+            while (it.hasNext()) {
+                add(it.next());
+            }
+        }
+
+        public synchronized int size() {
+            return size;
+        }
+
+        public synchronized List<FileMarker> toList() {
+            return Collections.unmodifiableList(Arrays.asList(Arrays.copyOf(items, size)));
+        }
+
+        public synchronized DefaultFileMarker remove(final FileMarker marker) {
+            for (int i = 0; i < size; i++) {
+                final DefaultFileMarker item = items[i];
+                if (item == marker) {
+                    final DefaultFileMarker[] copy = new DefaultFileMarker[items.length];
+                    System.arraycopy(items, 0, copy, 0, i);
+                    System.arraycopy(items, i + 1, copy, i, size - i - 1);
+                    items = copy;
+                    size--;
+                    return item;
+                }
+            }
+            return null;
+        }
+
+        public synchronized Iterator<DefaultFileMarker> iterator() {
+            final DefaultFileMarker[] snapshot = items;
+            final int snapshotSize = size;
+            return new Iterator<DefaultFileMarker>() {
+
+                private int idx;
+
+                @Override
+                public boolean hasNext() {
+                    return idx < snapshotSize;
+                }
+
+                @Override
+                public DefaultFileMarker next() {
+                    if (idx >= snapshotSize) {
+                        throw new NoSuchElementException();
+                    }
+                    return snapshot[idx++];
+                }
+
+            };
+        }
+
+    }
+
+    /**
+     * Markers collected since the start of a batch.
+     */
+    private static final class MarkerBatch {
+
+        private final Set<File> files;
+
+        private final Map<File, MarkerList> staged;
+
+        private final ReadWriteLock lock;
+
+        private boolean committed;
+
+        /** Number of begin calls not yet committed - Guarded by the context. */
+        private int depth;
+
+        public MarkerBatch() {
+            super();
+            this.files = new HashSet<>();
+            this.staged = new ConcurrentHashMap<>();
+            this.lock = new ReentrantReadWriteLock();
+            this.depth = 1;
+        }
+
+    }
+
 }
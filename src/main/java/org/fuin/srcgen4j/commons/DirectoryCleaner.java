@@ -0,0 +1,361 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.commons;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jakarta.validation.constraints.NotNull;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.fuin.objects4j.common.Contract;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Cleans folders without blocking the caller for the actual deletion. The content of a folder is first moved atomically into a trash
+ * directory (<code>.&lt;name&gt;-&lt;folder id&gt;.srcgen4j-trash-&lt;id&gt;</code>) and the trash is then deleted in parallel in the
+ * background. The folder id is derived from the full path of the folder, so folders with the same name never share trash directories.
+ * The trash directories are created in a configured directory or, if there is none, next to the cleaned folder. Scanners and watchers of
+ * input files should skip them (see {@link #isTrash(Path)}). Files and directories excluded by {@link Folder#cleanAllowed(File)} stay
+ * where they are. If a move is not possible (for example because the trash directory is on another file system), the files are deleted
+ * in place. Trash directories left behind by an interrupted run are removed as well. Closing the cleaner waits until all deletions are
+ * finished.
+ */
+public final class DirectoryCleaner implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DirectoryCleaner.class);
+
+    private static final String TRASH_MARKER = ".srcgen4j-trash-";
+
+    private static final AtomicInteger TRASH_COUNTER = new AtomicInteger();
+
+    private final File trashDir;
+
+    private final ForkJoinPool pool;
+
+    private final List<ForkJoinTask<?>> tasks;
+
+    /** Trash directories scheduled by this cleaner - Never treated as stale. */
+    private final Set<Path> scheduled;
+
+    private final AtomicLong deleted;
+
+    /**
+     * Constructor that uses one thread for every available processor.
+     */
+    public DirectoryCleaner() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor with number of threads. The trash directories are created next to the cleaned folders.
+     * 
+     * @param parallelism
+     *            Number of threads used for deleting files.
+     */
+    public DirectoryCleaner(final int parallelism) {
+        this(parallelism, null);
+    }
+
+    /**
+     * Constructor with all data.
+     * 
+     * @param parallelism
+     *            Number of threads used for deleting files.
+     * @param trashDir
+     *            Directory for the trash directories or <code>null</code> to create them next to the cleaned folders. Should be on the
+     *            same file system as the folders.
+     */
+    public DirectoryCleaner(final int parallelism, @Nullable final File trashDir) {
+        super();
+        this.trashDir = trashDir;
+        this.pool = new ForkJoinPool(parallelism);
+        this.tasks = new ArrayList<>();
+        this.scheduled = ConcurrentHashMap.newKeySet();
+        this.deleted = new AtomicLong();
+    }
+
+    /**
+     * Cleans the directory of a folder. When the method returns, the directory only contains excluded files. Deleting the removed
+     * content may still be in progress.
+     * 
+     * @param folder
+     *            Folder to clean.
+     */
+    public final void clean(@NotNull final Folder folder) {
+        Contract.requireArgNotNull("folder", folder);
+        final File dir = folder.getCanonicalDir();
+        if (dir == null || !dir.isDirectory()) {
+            return;
+        }
+        final Path path = dir.toPath();
+        final Path trashParent = trashParent(path);
+        deleteStaleTrash(path, trashParent);
+        final Path trash = trashParent.resolve(trashPrefix(path) + System.currentTimeMillis() + "-" + TRASH_COUNTER.incrementAndGet());
+        try {
+            if (trashDir != null) {
+                Files.createDirectories(trashParent);
+            }
+            if (folder.getCleanExclude() == null) {
+                Files.move(path, trash, StandardCopyOption.ATOMIC_MOVE);
+                Files.createDirectory(path);
+            } else {
+                Files.createDirectory(trash);
+                moveToTrash(folder, path, trash, new AtomicInteger());
+            }
+        } catch (final IOException ex) {
+            LOG.debug("Moving to trash failed - Deleting in place: {}", path, ex);
+            if (!Files.exists(path)) {
+                // Moved, but directory could not be recreated
+                throw new RuntimeException("Failed to recreate directory: " + path, ex);
+            }
+            pool.invoke(new DeleteTask(folder, path, false));
+        }
+        if (Files.exists(trash)) {
+            scheduled.add(trash);
+            schedule(new DeleteTask(null, trash, true));
+        }
+    }
+
+    /**
+     * Waits until all scheduled deletions are finished.
+     */
+    public final void awaitCompletion() {
+        final List<ForkJoinTask<?>> copy;
+        synchronized (tasks) {
+            copy = new ArrayList<>(tasks);
+            tasks.clear();
+        }
+        for (final ForkJoinTask<?> task : copy) {
+            try {
+                task.join();
+            } catch (final RuntimeException ex) {
+                LOG.error("Failed to delete trash directory", ex);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of files and directories deleted so far.
+     * 
+     * @return Number of deleted entries.
+     */
+    public final long getDeletedCount() {
+        return deleted.get();
+    }
+
+    @Override
+    public final void close() {
+        try {
+            awaitCompletion();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private void schedule(final DeleteTask task) {
+        synchronized (tasks) {
+            tasks.add(pool.submit(task));
+        }
+    }
+
+    /**
+     * Determines if a path is a trash directory of a cleaner or inside of one.
+     * 
+     * @param path
+     *            Path to check.
+     * 
+     * @return TRUE if the path should be ignored when looking for input files.
+     */
+    public static boolean isTrash(@NotNull final Path path) {
+        Contract.requireArgNotNull("path", path);
+        for (final Path name : path) {
+            if (name.toString().contains(TRASH_MARKER)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the start of the names of all trash directories of a folder.
+     * 
+     * @param dir
+     *            Canonical directory of the folder.
+     * 
+     * @return Name prefix with folder name and folder id.
+     */
+    static String trashPrefix(final Path dir) {
+        final String id = Hashes.hash(dir.toAbsolutePath().toString()).substring(0, 12);
+        return "." + dir.getFileName() + "-" + id + TRASH_MARKER;
+    }
+
+    private Path trashParent(final Path path) {
+        if (trashDir == null) {
+            return path.toAbsolutePath().getParent();
+        }
+        return trashDir.toPath();
+    }
+
+    private void deleteStaleTrash(final Path path, final Path parent) {
+        if (parent == null || !Files.isDirectory(parent)) {
+            return;
+        }
+        final String prefix = trashPrefix(path);
+        final DirectoryStream.Filter<Path> filter = entry -> entry.getFileName().toString().startsWith(prefix)
+                && !scheduled.contains(entry);
+        try (final DirectoryStream<Path> stream = Files.newDirectoryStream(parent, filter)) {
+            for (final Path stale : stream) {
+                LOG.info("Removing stale trash directory: {}", stale);
+                scheduled.add(stale);
+                schedule(new DeleteTask(null, stale, true));
+            }
+        } catch (final IOException ex) {
+            LOG.warn("Failed to look for stale trash directories in: {}", parent, ex);
+        }
+    }
+
+    private static void moveToTrash(final Folder folder, final Path dir, final Path trash, final AtomicInteger counter) throws IOException {
+        try (final DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            for (final Path entry : stream) {
+                if (!folder.cleanAllowed(entry.toFile())) {
+                    LOG.info("Excluded from cleaning: {}", entry);
+                } else if (Files.isDirectory(entry, LinkOption.NOFOLLOW_LINKS) && containsExcluded(folder, entry)) {
+                    moveToTrash(folder, entry, trash, counter);
+                    try {
+                        Files.deleteIfExists(entry);
+                    } catch (final DirectoryNotEmptyException ex) { // NOSONAR Excluded files are kept
+                        LOG.debug("Directory still contains excluded files after cleaning: {}", entry);
+                    }
+                } else {
+                    Files.move(entry, trash.resolve(counter.incrementAndGet() + "-" + entry.getFileName()), StandardCopyOption.ATOMIC_MOVE);
+                }
+            }
+        }
+    }
+
+    private static boolean containsExcluded(final Folder folder, final Path dir) throws IOException {
+        final boolean[] excluded = new boolean[1];
+        Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(final Path path, final BasicFileAttributes attrs) {
+                return check(path);
+            }
+
+            @Override
+            public FileVisitResult visitFile(final Path path, final BasicFileAttributes attrs) {
+                return check(path);
+            }
+
+            private FileVisitResult check(final Path path) {
+                if (folder.cleanAllowed(path.toFile())) {
+                    return FileVisitResult.CONTINUE;
+                }
+                excluded[0] = true;
+                return FileVisitResult.TERMINATE;
+            }
+        });
+        return excluded[0];
+    }
+
+    /**
+     * Deletes a directory tree in parallel. Every sub directory is handled by it's own task.
+     */
+    private final class DeleteTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient Folder folder;
+
+        private final transient Path dir;
+
+        private final boolean deleteDir;
+
+        /**
+         * Constructor with all data.
+         * 
+         * @param folder
+         *            Folder used to check for excluded files or <code>null</code> if everything should be deleted.
+         * @param dir
+         *            Directory to clean.
+         * @param deleteDir
+         *            Delete the directory itself (TRUE) or only it's content (FALSE).
+         */
+        DeleteTask(final Folder folder, final Path dir, final boolean deleteDir) {
+            super();
+            this.folder = folder;
+            this.dir = dir;
+            this.deleteDir = deleteDir;
+        }
+
+        @Override
+        protected final void compute() {
+            final List<DeleteTask> subTasks = new ArrayList<>();
+            try (final DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+                for (final Path entry : stream) {
+                    if (folder != null && !folder.cleanAllowed(entry.toFile())) {
+                        LOG.info("Excluded from cleaning: {}", entry);
+                    } else if (Files.isDirectory(entry, LinkOption.NOFOLLOW_LINKS)) {
+                        subTasks.add(new DeleteTask(folder, entry, true));
+                    } else {
+                        delete(entry);
+                    }
+                }
+            } catch (final IOException ex) {
+                LOG.error("Couldn't read directory: {}", dir, ex);
+                return;
+            }
+            invokeAll(subTasks);
+            if (deleteDir) {
+                delete(dir);
+            }
+        }
+
+        private void delete(final Path path) {
+            try {
+                Files.delete(path);
+                deleted.incrementAndGet();
+            } catch (final DirectoryNotEmptyException ex) {
+                LOG.debug("Directory still contains files after cleaning: {}", path);
+            } catch (final IOException ex) {
+                LOG.error("Couldn't delete: {}", path, ex);
+            }
+        }
+
+    }
+
+}
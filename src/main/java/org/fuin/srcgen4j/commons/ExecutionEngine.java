@@ -0,0 +1,45 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.commons;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Decides in which order and on which threads the parse and generate steps of a build are executed. Every generator depends only on the
+ * model of it's parser, so each parser and it's generators form an independent branch of the build graph.
+ */
+public interface ExecutionEngine {
+
+    /**
+     * Executes the build for the given parsers. A generator is never started before the model of it's parser is available.
+     * 
+     * @param parserConfigs
+     *            Parsers to execute.
+     * @param steps
+     *            Steps to execute for parsers and generators.
+     * 
+     * @throws ParseException
+     *             Error during parse process.
+     * @throws GenerateException
+     *             Error during generation process.
+     */
+    public void execute(@NotNull List<ParserConfig> parserConfigs, @NotNull ExecutionSteps steps) throws ParseException, GenerateException;
+
+}
@@ -0,0 +1,68 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.commons;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * The single steps of a build that are scheduled by an {@link ExecutionEngine}. Implementations must be thread safe if they are used with
+ * an engine that executes steps concurrently.
+ */
+public interface ExecutionSteps {
+
+    /**
+     * Returns the generators that depend on the model of the given parser.
+     * 
+     * @param parserConfig
+     *            Parser to return the generators for.
+     * 
+     * @return List of generators.
+     */
+    @NotNull
+    public List<GeneratorConfig> findGenerators(@NotNull ParserConfig parserConfig);
+
+    /**
+     * Parses the model of a parser.
+     * 
+     * @param parserConfig
+     *            Parser to use.
+     * 
+     * @return Model.
+     * 
+     * @throws ParseException
+     *             Error during parse process.
+     */
+    @NotNull
+    public Object parse(@NotNull ParserConfig parserConfig) throws ParseException;
+
+    /**
+     * Generates something using a model created by the generator's parser.
+     * 
+     * @param generatorConfig
+     *            Generator to use.
+     * @param model
+     *            Model returned by the parser of the generator.
+     * 
+     * @throws GenerateException
+     *             Error during generation process.
+     */
+    public void generate(@NotNull GeneratorConfig generatorConfig, @NotNull Object model) throws GenerateException;
+
+}
@@ -0,0 +1,292 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.commons;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import jakarta.validation.constraints.NotNull;
+
+import org.apache.commons.io.filefilter.IOFileFilter;
+import org.fuin.objects4j.common.Contract;
+
+/**
+ * Combined file filter of all incremental parsers. Parsers are selected by file extension and input directory first (see
+ * {@link IncrementalParser#getFileExtensions()} and {@link IncrementalParser#getInputDirectories()}), so only the filters of the
+ * remaining candidates are called. Besides accepting files, the index returns the parsers that accept a file. Extensions are compared
+ * ignoring the case.
+ */
+public final class FileFilterIndex implements FileFilter {
+
+    private final Map<String, List<Entry>> byExtension;
+
+    private final List<Entry> anyExtension;
+
+    private final List<Entry> entries;
+
+    private final List<ParserConfig> parserConfigs;
+
+    /**
+     * Constructor with parsers. Parsers that are not incremental are ignored.
+     * 
+     * @param parserConfigs
+     *            Configurations of the parsers in the order they should be returned.
+     */
+    public FileFilterIndex(@NotNull final List<ParserConfig> parserConfigs) {
+        super();
+        Contract.requireArgNotNull("parserConfigs", parserConfigs);
+        this.byExtension = new HashMap<>();
+        this.anyExtension = new ArrayList<>();
+        this.entries = new ArrayList<>();
+        this.parserConfigs = new ArrayList<>(parserConfigs);
+        for (final ParserConfig pc : parserConfigs) {
+            final Parser<Object> pars = pc.getParser();
+            if (pars instanceof IncrementalParser) {
+                final IncrementalParser<?> parser = (IncrementalParser<?>) pars;
+                final Entry entry = new Entry(entries.size(), pc, parser.getFileFilter(), prefixes(parser.getInputDirectories()));
+                entries.add(entry);
+                final Set<String> extensions = parser.getFileExtensions();
+                if (extensions == null) {
+                    anyExtension.add(entry);
+                } else {
+                    for (final String extension : extensions) {
+                        // Only the last segment is compared, so "tar.gz" has to be registered as "gz"
+                        final String key = extension.substring(extension.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT);
+                        final List<Entry> list = byExtension.computeIfAbsent(key, k -> new ArrayList<>());
+                        if (!list.contains(entry)) {
+                            list.add(entry);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public final boolean accept(final File file) {
+        if (file == null) {
+            return false;
+        }
+        final List<Entry> candidates = byExtension.get(extension(file));
+        final String path = (needsPath(candidates) || needsPath(anyExtension) ? file.getAbsolutePath() : null);
+        return acceptsAny(candidates, file, path) || acceptsAny(anyExtension, file, path);
+    }
+
+    /**
+     * Determines if the index was created from the given parser configurations.
+     * 
+     * @param parserConfigs
+     *            Current parser configurations.
+     * 
+     * @return TRUE if the list contains the same configuration instances in the same order as when the index was created.
+     */
+    final boolean isCreatedFrom(@NotNull final List<ParserConfig> parserConfigs) {
+        if (parserConfigs.size() != this.parserConfigs.size()) {
+            return false;
+        }
+        for (int i = 0; i < parserConfigs.size(); i++) {
+            if (parserConfigs.get(i) != this.parserConfigs.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the incremental parsers known to the index.
+     * 
+     * @return Parser configurations in configuration order.
+     */
+    @NotNull
+    public final List<ParserConfig> getParserConfigs() {
+        final List<ParserConfig> result = new ArrayList<>(entries.size());
+        for (final Entry entry : entries) {
+            result.add(entry.parserConfig);
+        }
+        return result;
+    }
+
+    /**
+     * Returns all parsers that accept a file.
+     * 
+     * @param file
+     *            File to check.
+     * 
+     * @return Parsers in configuration order - Empty if no parser accepts the file.
+     */
+    @NotNull
+    public final List<ParserConfig> findParsers(@NotNull final File file) {
+        Contract.requireArgNotNull("file", file);
+        final List<Entry> accepted = findEntries(file);
+        if (accepted.isEmpty()) {
+            return Collections.emptyList();
+        }
+        final List<ParserConfig> result = new ArrayList<>(accepted.size());
+        for (final Entry entry : accepted) {
+            result.add(entry.parserConfig);
+        }
+        return result;
+    }
+
+    /**
+     * Distributes files to the parsers that accept them.
+     * 
+     * @param files
+     *            Files to distribute.
+     * 
+     * @return Parsers in configuration order with the files they accept. Parsers that accept none of the files are not included.
+     */
+    @NotNull
+    public final Map<ParserConfig, Set<File>> route(@NotNull final Set<File> files) {
+        Contract.requireArgNotNull("files", files);
+        final List<Set<File>> routed = new ArrayList<>(Collections.nCopies(entries.size(), (Set<File>) null));
+        for (final File file : files) {
+            for (final Entry entry : findEntries(file)) {
+                Set<File> accepted = routed.get(entry.order);
+                if (accepted == null) {
+                    accepted = new LinkedHashSet<>();
+                    routed.set(entry.order, accepted);
+                }
+                accepted.add(file);
+            }
+        }
+        final Map<ParserConfig, Set<File>> result = new LinkedHashMap<>();
+        for (final Entry entry : entries) {
+            final Set<File> accepted = routed.get(entry.order);
+            if (accepted != null) {
+                result.put(entry.parserConfig, Collections.unmodifiableSet(accepted));
+            }
+        }
+        return result;
+    }
+
+    private List<Entry> findEntries(final File file) {
+        final List<Entry> candidates = byExtension.get(extension(file));
+        final String path = (needsPath(candidates) || needsPath(anyExtension) ? file.getAbsolutePath() : null);
+        final List<Entry> accepted = new ArrayList<>();
+        addAccepted(candidates, file, path, accepted);
+        addAccepted(anyExtension, file, path, accepted);
+        if (accepted.size() > 1) {
+            accepted.sort((a, b) -> Integer.compare(a.order, b.order));
+        }
+        return accepted;
+    }
+
+    private static boolean acceptsAny(final List<Entry> entries, final File file, final String path) {
+        if (entries != null) {
+            for (final Entry entry : entries) {
+                if (entry.accept(file, path)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static void addAccepted(final List<Entry> entries, final File file, final String path, final List<Entry> accepted) {
+        if (entries != null) {
+            for (final Entry entry : entries) {
+                if (!accepted.contains(entry) && entry.accept(file, path)) {
+                    accepted.add(entry);
+                }
+            }
+        }
+    }
+
+    private static boolean needsPath(final List<Entry> entries) {
+        if (entries != null) {
+            for (final Entry entry : entries) {
+                if (entry.prefixes != null) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static String extension(final File file) {
+        final String name = file.getName();
+        final int idx = name.lastIndexOf('.');
+        if (idx < 0) {
+            return "";
+        }
+        return name.substring(idx + 1).toLowerCase(Locale.ROOT);
+    }
+
+    private static String[] prefixes(final Set<File> dirs) {
+        if (dirs == null) {
+            return null;
+        }
+        final String[] prefixes = new String[dirs.size()];
+        int i = 0;
+        for (final File dir : dirs) {
+            final String path = dir.getAbsolutePath();
+            prefixes[i++] = (path.endsWith(File.separator) ? path : path + File.separator);
+        }
+        return prefixes;
+    }
+
+    /**
+     * Filter of a single parser.
+     */
+    private static final class Entry {
+
+        private final int order;
+
+        private final ParserConfig parserConfig;
+
+        private final IOFileFilter filter;
+
+        private final String[] prefixes;
+
+        public Entry(final int order, final ParserConfig parserConfig, final IOFileFilter filter, final String[] prefixes) {
+            super();
+            this.order = order;
+            this.parserConfig = parserConfig;
+            this.filter = filter;
+            this.prefixes = prefixes;
+        }
+
+        public boolean accept(final File file, final String path) {
+            if (prefixes != null) {
+                boolean inside = false;
+                for (final String prefix : prefixes) {
+                    if (path.startsWith(prefix)) {
+                        inside = true;
+                        break;
+                    }
+                }
+                if (!inside) {
+                    return false;
+                }
+            }
+            return (filter == null) || filter.accept(file);
+        }
+
+    }
+
+}
@@ -0,0 +1,102 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.commons;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import jakarta.validation.constraints.NotNull;
+
+import org.fuin.objects4j.common.Contract;
+
+/**
+ * Markers added and removed per file by a single marker batch.
+ */
+public final class FileMarkerDelta {
+
+    private final Map<File, List<FileMarker>> added;
+
+    private final Map<File, List<FileMarker>> removed;
+
+    /**
+     * Constructor with all data.
+     * 
+     * @param added
+     *            New markers per file.
+     * @param removed
+     *            Markers per file that no longer exist.
+     */
+    public FileMarkerDelta(@NotNull final Map<File, List<FileMarker>> added, @NotNull final Map<File, List<FileMarker>> removed) {
+        super();
+        Contract.requireArgNotNull("added", added);
+        Contract.requireArgNotNull("removed", removed);
+        this.added = Collections.unmodifiableMap(added);
+        this.removed = Collections.unmodifiableMap(removed);
+    }
+
+    /**
+     * Returns the new markers.
+     * 
+     * @return Unmodifiable map with the new markers per file.
+     */
+    @NotNull
+    public final Map<File, List<FileMarker>> getAdded() {
+        return added;
+    }
+
+    /**
+     * Returns the markers that no longer exist.
+     * 
+     * @return Unmodifiable map with the removed markers per file.
+     */
+    @NotNull
+    public final Map<File, List<FileMarker>> getRemoved() {
+        return removed;
+    }
+
+    /**
+     * Returns all files with added or removed markers.
+     * 
+     * @return New set of files.
+     */
+    @NotNull
+    public final Set<File> getFiles() {
+        final Set<File> files = new HashSet<>(added.keySet());
+        files.addAll(removed.keySet());
+        return files;
+    }
+
+    /**
+     * Determines if no marker was added or removed.
+     * 
+     * @return TRUE if nothing changed.
+     */
+    public final boolean isEmpty() {
+        return added.isEmpty() && removed.isEmpty();
+    }
+
+    @Override
+    public final String toString() {
+        return "FileMarkerDelta [added=" + added.size() + " files, removed=" + removed.size() + " files]";
+    }
+
+}
@@ -0,0 +1,35 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.commons;
+
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Gets informed about markers that were replaced at once for a number of files.
+ */
+public interface FileMarkerListener {
+
+    /**
+     * The markers of some files changed.
+     * 
+     * @param delta
+     *            Markers added and removed per file.
+     */
+    public void markersChanged(@NotNull FileMarkerDelta delta);
+
+}
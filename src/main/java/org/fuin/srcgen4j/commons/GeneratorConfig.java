@@ -17,7 +17,7 @@
  */
 package org.fuin.srcgen4j.commons;
 
-import static org.fuin.utils4j.Utils4J.replaceVars;
+import static org.fuin.srcgen4j.commons.VariableTemplate.replaceVars;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -35,7 +35,6 @@ import jakarta.xml.bind.annotation.XmlTransient;
 
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.fuin.objects4j.common.Contract;
-import org.fuin.utils4j.Utils4J;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -76,7 +75,12 @@ public final class GeneratorConfig extends AbstractNamedTarget implements Initia
 
     @Nullable
     @XmlTransient
-    private Generator<Object> generator;
+    private volatile Generator<Object> generator;
+
+    // Generator that is currently initialized - Only accessed while holding the lock of this instance
+    @Nullable
+    @XmlTransient
+    private Generator<Object> creating;
 
     /**
      * Package visible default constructor for deserialization.
@@ -268,15 +272,31 @@ public final class GeneratorConfig extends AbstractNamedTarget implements Initia
     }
 
     /**
-     * Returns an existing generator instance or creates a new one if it's the first call to this method.
+     * Returns an existing generator instance or creates a new one if it's the first call to this method. The method is thread safe and
+     * the generator is initialized only once. Other threads wait until the initialization is finished. A call from within
+     * {@link Generator#initialize(GeneratorConfig)} on the creating thread returns the instance that is currently initialized.
      * 
      * @return Generator of type {@link #className}.
      */
-    @SuppressWarnings("unchecked")
     public final Generator<Object> getGenerator() {
-        if (generator != null) {
-            return generator;
+        Generator<Object> gen = generator;
+        if (gen == null) {
+            synchronized (this) {
+                gen = generator;
+                if (gen == null && creating != null) {
+                    return creating;
+                }
+                if (gen == null) {
+                    gen = createGenerator();
+                    generator = gen;
+                }
+            }
         }
+        return gen;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Generator<Object> createGenerator() {
         LOG.info("Creating generator: {}", className);
         if (className == null) {
             throw new IllegalStateException("Class name was not set: " + getName());
@@ -284,13 +304,18 @@ public final class GeneratorConfig extends AbstractNamedTarget implements Initia
         if (context == null) {
             throw new IllegalStateException("Context class loader was not set: " + getName() + " / " + className);
         }
-        final Object obj = Utils4J.createInstance(className, context.getClassLoader());
+        final Object obj = InstanceRegistry.createInstance(className, context.getClassLoader());
         if (!(obj instanceof Generator<?>)) {
             throw new IllegalStateException("Expected class to be of type '" + Generator.class.getName() + "', but was: " + className);
         }
-        generator = (Generator<Object>) obj;
-        generator.initialize(this);
-        return generator;
+        final Generator<Object> gen = (Generator<Object>) obj;
+        creating = gen;
+        try {
+            gen.initialize(this);
+        } finally {
+            creating = null;
+        }
+        return gen;
     }
 
     /**
@@ -308,6 +333,36 @@ public final class GeneratorConfig extends AbstractNamedTarget implements Initia
         return parent.findTargetFolder(getName(), artifactName);
     }
 
+    /**
+     * Writes a generated artifact into the target folder configured for it. The file is only written if the content changed.
+     * 
+     * @param artifact
+     *            Artifact to write.
+     * 
+     * @return Outcome of the operation.
+     */
+    @NotNull
+    public final ArtifactWriteResult write(@NotNull final GeneratedArtifact artifact) {
+        Contract.requireArgNotNull("artifact", artifact);
+        if (parent == null || parent.getParent() == null) {
+            throw new IllegalStateException("Parent for generator config is not set: " + getName());
+        }
+        final SrcGen4JConfig srcGen4JConfig = parent.getParent();
+        final ArtifactWriter writer = srcGen4JConfig.getArtifactWriter();
+        if (writer == null) {
+            throw new IllegalStateException("Configuration is not initialized: " + getName());
+        }
+        final Folder folder;
+        try {
+            folder = srcGen4JConfig.findTargetFolder(getName(), artifact.getName(), artifact.getPathAndName());
+        } catch (final ProjectNameNotDefinedException | ArtifactNotFoundException | FolderNameNotDefinedException
+                | GeneratorNotFoundException | ProjectNotFoundException | FolderNotFoundException ex) {
+            throw new RuntimeException(
+                    "Couldn't determine target folder for generator '" + getName() + "' and artifact '" + artifact.getName() + "'", ex);
+        }
+        return writer.write(getName(), folder, artifact);
+    }
+
     /**
      * Returns the context the configuration belongs to.
      * 
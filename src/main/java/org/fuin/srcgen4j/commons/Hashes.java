@@ -0,0 +1,127 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.commons;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * SHA-256 hashes of files, data and strings as lower case hex strings. Used for fingerprints, cache keys and cache file names.
+ */
+final class Hashes {
+
+    private static final String HASH_ALGORITHM = "SHA-256";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private Hashes() {
+        throw new UnsupportedOperationException("It's not allowed to create an instance of a utility class");
+    }
+
+    /**
+     * Calculates the hex encoded SHA-256 hash of a file's content.
+     * 
+     * @param file
+     *            File to read.
+     * 
+     * @return Hash.
+     */
+    @NotNull
+    static String hash(@NotNull final File file) {
+        final MessageDigest digest = newDigest();
+        final byte[] buf = new byte[BUFFER_SIZE];
+        try (final InputStream in = Files.newInputStream(file.toPath())) {
+            int count;
+            while ((count = in.read(buf)) != -1) {
+                digest.update(buf, 0, count);
+            }
+        } catch (final IOException ex) {
+            throw new RuntimeException("Failed to read file: " + file, ex);
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Calculates the hex encoded SHA-256 hash of some data.
+     * 
+     * @param data
+     *            Data to hash.
+     * 
+     * @return Hash.
+     */
+    @NotNull
+    static String hash(@NotNull final byte[] data) {
+        return toHex(newDigest().digest(data));
+    }
+
+    /**
+     * Calculates the hex encoded SHA-256 hash of the UTF-8 bytes of a string.
+     * 
+     * @param str
+     *            String to hash.
+     * 
+     * @return Hash.
+     */
+    @NotNull
+    static String hash(@NotNull final String str) {
+        return hash(str.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Creates a new digest for the hash algorithm used by this class.
+     * 
+     * @return SHA-256 digest.
+     */
+    @NotNull
+    static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(HASH_ALGORITHM);
+        } catch (final NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("Hash algorithm not available: " + HASH_ALGORITHM, ex);
+        }
+    }
+
+    /**
+     * Converts bytes into a lower case hex string.
+     * 
+     * @param bytes
+     *            Bytes to convert.
+     * 
+     * @return Hex string.
+     */
+    @NotNull
+    static String toHex(@NotNull final byte[] bytes) {
+        final char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            final int b = bytes[i] & 0xFF;
+            chars[i * 2] = HEX[b >>> 4];
+            chars[i * 2 + 1] = HEX[b & 0x0F];
+        }
+        return new String(chars);
+    }
+
+}
@@ -23,6 +23,7 @@ import java.util.Set;
 import jakarta.validation.constraints.NotNull;
 
 import org.apache.commons.io.filefilter.IOFileFilter;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 /**
  * Parses some kind of model in a full or an incremental mode.
@@ -40,6 +41,29 @@ public interface IncrementalParser<MODEL> extends Parser<MODEL> {
     @NotNull
     public IOFileFilter getFileFilter();
 
+    /**
+     * Returns the extensions of all files the filter may accept. Used to skip the filter for other files. Default is <code>null</code>.
+     * Only the part of the file name after the last dot is compared and the case is ignored. So "Model.XML" matches the extension "xml"
+     * and an extension with several segments like "tar.gz" is treated as "gz".
+     * 
+     * @return Extensions without dot (for example "xml") or <code>null</code> if files with any extension may be accepted.
+     */
+    @Nullable
+    public default Set<String> getFileExtensions() {
+        return null;
+    }
+
+    /**
+     * Returns the directories that contain all files the filter may accept. Used to skip the filter for other files. Default is
+     * <code>null</code>.
+     * 
+     * @return Directories or <code>null</code> if files in any directory may be accepted.
+     */
+    @Nullable
+    public default Set<File> getInputDirectories() {
+        return null;
+    }
+
     /**
      * Parses a model using the initially given configuration and a file list.
      * 
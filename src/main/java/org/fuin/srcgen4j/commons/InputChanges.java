@@ -0,0 +1,116 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.commons;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import jakarta.validation.constraints.NotNull;
+
+import org.fuin.objects4j.common.Contract;
+
+/**
+ * Difference between the stored input fingerprints and the current state of the input directories.
+ */
+public final class InputChanges {
+
+    private final Set<File> added;
+
+    private final Set<File> modified;
+
+    private final Set<File> removed;
+
+    /**
+     * Constructor with all data.
+     * 
+     * @param added
+     *            Files that did not exist before.
+     * @param modified
+     *            Files with a different content.
+     * @param removed
+     *            Files that no longer exist.
+     */
+    public InputChanges(@NotNull final Set<File> added, @NotNull final Set<File> modified, @NotNull final Set<File> removed) {
+        super();
+        Contract.requireArgNotNull("added", added);
+        Contract.requireArgNotNull("modified", modified);
+        Contract.requireArgNotNull("removed", removed);
+        this.added = Collections.unmodifiableSet(added);
+        this.modified = Collections.unmodifiableSet(modified);
+        this.removed = Collections.unmodifiableSet(removed);
+    }
+
+    /**
+     * Returns the new files.
+     * 
+     * @return Unmodifiable set of files that did not exist before.
+     */
+    @NotNull
+    public final Set<File> getAdded() {
+        return added;
+    }
+
+    /**
+     * Returns the modified files.
+     * 
+     * @return Unmodifiable set of files with a different content.
+     */
+    @NotNull
+    public final Set<File> getModified() {
+        return modified;
+    }
+
+    /**
+     * Returns the deleted files.
+     * 
+     * @return Unmodifiable set of files that no longer exist.
+     */
+    @NotNull
+    public final Set<File> getRemoved() {
+        return removed;
+    }
+
+    /**
+     * Returns all files that exist and have to be parsed again.
+     * 
+     * @return New set with the added and modified files.
+     */
+    @NotNull
+    public final Set<File> getChangedFiles() {
+        final Set<File> changed = new HashSet<>(added);
+        changed.addAll(modified);
+        return changed;
+    }
+
+    /**
+     * Determines if nothing changed at all.
+     * 
+     * @return TRUE if no file was added, modified or removed.
+     */
+    public final boolean isEmpty() {
+        return added.isEmpty() && modified.isEmpty() && removed.isEmpty();
+    }
+
+    @Override
+    public final String toString() {
+        return "InputChanges [added=" + added.size() + ", modified=" + modified.size() + ", removed=" + removed.size() + "]";
+    }
+
+}
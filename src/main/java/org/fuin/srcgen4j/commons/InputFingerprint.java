@@ -0,0 +1,119 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.commons;
+
+import java.io.File;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import org.fuin.objects4j.common.Contract;
+
+/**
+ * State of a single input file at the time it was last seen by the build.
+ */
+public final class InputFingerprint {
+
+    private final File file;
+
+    private final long size;
+
+    private final long lastModified;
+
+    private final String hash;
+
+    /**
+     * Constructor with all data.
+     * 
+     * @param file
+     *            Input file.
+     * @param size
+     *            Size of the file in bytes.
+     * @param lastModified
+     *            Last modification time in milliseconds since the epoch.
+     * @param hash
+     *            Hex encoded SHA-256 hash of the file content.
+     */
+    public InputFingerprint(@NotNull final File file, final long size, final long lastModified, @NotEmpty final String hash) {
+        super();
+        Contract.requireArgNotNull("file", file);
+        Contract.requireArgNotEmpty("hash", hash);
+        this.file = file;
+        this.size = size;
+        this.lastModified = lastModified;
+        this.hash = hash;
+    }
+
+    /**
+     * Returns the input file.
+     * 
+     * @return File.
+     */
+    @NotNull
+    public final File getFile() {
+        return file;
+    }
+
+    /**
+     * Returns the size of the file.
+     * 
+     * @return Size in bytes.
+     */
+    public final long getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the last modification time.
+     * 
+     * @return Milliseconds since the epoch.
+     */
+    public final long getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * Returns the content hash.
+     * 
+     * @return Hex encoded SHA-256 hash.
+     */
+    @NotEmpty
+    public final String getHash() {
+        return hash;
+    }
+
+    /**
+     * Determines if size and modification time are the same as the given values.
+     * 
+     * @param otherSize
+     *            Size to compare with.
+     * @param otherLastModified
+     *            Modification time to compare with.
+     * 
+     * @return TRUE if the file most likely did not change, else FALSE.
+     */
+    public final boolean sameMetadata(final long otherSize, final long otherLastModified) {
+        return (size == otherSize) && (lastModified == otherLastModified);
+    }
+
+    @Override
+    public final String toString() {
+        return file + " [size=" + size + ", lastModified=" + lastModified + ", hash=" + hash + "]";
+    }
+
+}
@@ -0,0 +1,319 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.commons;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import jakarta.validation.constraints.NotNull;
+
+import org.fuin.objects4j.common.Contract;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Persistent snapshot of all input files below a number of directories. Every entry stores path, size, modification time and a SHA-256
+ * hash of the content. A file is only hashed again if size or modification time changed, so scanning an unchanged tree only requires
+ * reading the file attributes. Files that were "touched" without changing the content are not reported as modified.<br>
+ * <br>
+ * The store file is a simple UTF-8 text file with one tab separated line per input: <code>hash size lastModified path</code>.
+ */
+public final class InputFingerprintStore {
+
+    private static final Logger LOG = LoggerFactory.getLogger(InputFingerprintStore.class);
+
+    private static final String HEADER = "# srcgen4j input fingerprints v1";
+
+    private final File storeFile;
+
+    private final List<File> inputDirs;
+
+    private Map<File, InputFingerprint> fingerprints;
+
+    private Map<File, InputFingerprint> pending;
+
+    /**
+     * Constructor with all mandatory data.
+     * 
+     * @param storeFile
+     *            File used to persist the fingerprints. It will be created on the first call to {@link #save()}.
+     * @param inputDirs
+     *            Directories to scan for input files.
+     */
+    public InputFingerprintStore(@NotNull final File storeFile, @NotNull final Collection<File> inputDirs) {
+        super();
+        Contract.requireArgNotNull("storeFile", storeFile);
+        Contract.requireArgNotNull("inputDirs", inputDirs);
+        this.storeFile = storeFile;
+        this.inputDirs = Collections.unmodifiableList(new ArrayList<>(inputDirs));
+    }
+
+    /**
+     * Returns the file used to persist the fingerprints.
+     * 
+     * @return Store file.
+     */
+    @NotNull
+    public final File getStoreFile() {
+        return storeFile;
+    }
+
+    /**
+     * Returns the directories to scan.
+     * 
+     * @return Unmodifiable list of input directories.
+     */
+    @NotNull
+    public final List<File> getInputDirs() {
+        return inputDirs;
+    }
+
+    /**
+     * Returns the fingerprints of the last saved snapshot. The store file is loaded if this was not done before.
+     * 
+     * @return Unmodifiable map of input files and their fingerprint.
+     */
+    @NotNull
+    public final Map<File, InputFingerprint> getFingerprints() {
+        ensureLoaded();
+        return Collections.unmodifiableMap(fingerprints);
+    }
+
+    /**
+     * Loads the fingerprints from the store file. A missing or unreadable store file results in an empty snapshot, so the next scan will
+     * report all files as added.
+     */
+    public final void load() {
+        final Map<File, InputFingerprint> loaded = new HashMap<>();
+        if (storeFile.exists()) {
+            try (final BufferedReader reader = Files.newBufferedReader(storeFile.toPath(), StandardCharsets.UTF_8)) {
+                final String header = reader.readLine();
+                if (HEADER.equals(header)) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        final InputFingerprint fp = parseLine(line);
+                        if (fp == null) {
+                            LOG.warn("Ignoring invalid line in {}: {}", storeFile, line);
+                        } else {
+                            loaded.put(fp.getFile(), fp);
+                        }
+                    }
+                } else {
+                    LOG.warn("Unknown fingerprint store format - Ignoring: {}", storeFile);
+                }
+            } catch (final IOException ex) {
+                LOG.warn("Failed to read fingerprint store - Ignoring: " + storeFile, ex);
+                loaded.clear();
+            }
+        }
+        fingerprints = loaded;
+        pending = null;
+        LOG.debug("Loaded {} fingerprints from: {}", fingerprints.size(), storeFile);
+    }
+
+    /**
+     * Scans the input directories and compares the result with the last saved snapshot. The scan result is kept as pending snapshot and
+     * only replaces the current one when {@link #save()} is called after the changes were processed successfully. Without a call to
+     * {@link #save()}, the next scan reports the same changes again (together with all changes made in the meantime).
+     * 
+     * @param filter
+     *            Filter that selects the input files.
+     * 
+     * @return Added, modified and removed files.
+     */
+    @NotNull
+    public final InputChanges scan(@NotNull final FileFilter filter) {
+        Contract.requireArgNotNull("filter", filter);
+        ensureLoaded();
+
+        final Map<File, BasicFileAttributes> current = new HashMap<>();
+        for (final File dir : inputDirs) {
+            collect(dir, filter, current);
+        }
+
+        final Map<File, InputFingerprint> next = new HashMap<>(current.size());
+        final List<File> toHash = new ArrayList<>();
+        for (final Map.Entry<File, BasicFileAttributes> entry : current.entrySet()) {
+            final File file = entry.getKey();
+            final BasicFileAttributes attrs = entry.getValue();
+            final InputFingerprint known = known(file, attrs);
+            if (known == null) {
+                toHash.add(file);
+            } else {
+                next.put(file, known);
+            }
+        }
+
+        // Hashing is the expensive part - Do it in parallel
+        final Map<File, InputFingerprint> hashed = new HashMap<>();
+        toHash.parallelStream().map(file -> fingerprint(file, current.get(file))).forEachOrdered(fp -> hashed.put(fp.getFile(), fp));
+
+        next.putAll(hashed);
+
+        final Set<File> added = new HashSet<>();
+        final Set<File> modified = new HashSet<>();
+        for (final InputFingerprint fp : next.values()) {
+            final InputFingerprint old = fingerprints.get(fp.getFile());
+            if (old == null) {
+                added.add(fp.getFile());
+            } else if (old != fp && !old.getHash().equals(fp.getHash())) {
+                modified.add(fp.getFile());
+            }
+        }
+        final Set<File> removed = new HashSet<>(fingerprints.keySet());
+        removed.removeAll(next.keySet());
+
+        pending = next;
+        final InputChanges changes = new InputChanges(added, modified, removed);
+        LOG.debug("Scanned {} files ({} hashed): {}", next.size(), toHash.size(), changes);
+        return changes;
+    }
+
+    /**
+     * Replaces the current snapshot with the result of the last {@link #scan(FileFilter)} and writes it to the store file. The file is
+     * replaced atomically, so an interrupted write never leaves a corrupt store behind.
+     */
+    public final void save() {
+        ensureLoaded();
+        if (pending != null) {
+            fingerprints = pending;
+            pending = null;
+        }
+        try {
+            final File parent = storeFile.getAbsoluteFile().getParentFile();
+            Files.createDirectories(parent.toPath());
+            final Path tmp = Files.createTempFile(parent.toPath(), storeFile.getName(), ".tmp");
+            try {
+                try (final BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                    writer.write(HEADER);
+                    writer.newLine();
+                    for (final InputFingerprint fp : fingerprints.values()) {
+                        writer.write(fp.getHash());
+                        writer.write('\t');
+                        writer.write(Long.toString(fp.getSize()));
+                        writer.write('\t');
+                        writer.write(Long.toString(fp.getLastModified()));
+                        writer.write('\t');
+                        writer.write(fp.getFile().getPath());
+                        writer.newLine();
+                    }
+                }
+                Files.move(tmp, storeFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        } catch (final IOException ex) {
+            throw new RuntimeException("Failed to write fingerprint store: " + storeFile, ex);
+        }
+        LOG.debug("Saved {} fingerprints to: {}", fingerprints.size(), storeFile);
+    }
+
+    private InputFingerprint known(final File file, final BasicFileAttributes attrs) {
+        final long size = attrs.size();
+        final long lastModified = attrs.lastModifiedTime().toMillis();
+        final InputFingerprint old = fingerprints.get(file);
+        if (old != null && old.sameMetadata(size, lastModified)) {
+            return old;
+        }
+        if (pending != null) {
+            final InputFingerprint scanned = pending.get(file);
+            if (scanned != null && scanned.sameMetadata(size, lastModified)) {
+                return scanned;
+            }
+        }
+        return null;
+    }
+
+    private void ensureLoaded() {
+        if (fingerprints == null) {
+            load();
+        }
+    }
+
+    private static InputFingerprint parseLine(final String line) {
+        final String[] parts = line.split("\t", 4);
+        if (parts.length != 4 || parts[0].isEmpty()) {
+            return null;
+        }
+        try {
+            return new InputFingerprint(new File(parts[3]), Long.parseLong(parts[1]), Long.parseLong(parts[2]), parts[0]);
+        } catch (final NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    private static void collect(final File dir, final FileFilter filter, final Map<File, BasicFileAttributes> result) {
+        if (!dir.isDirectory()) {
+            LOG.warn("Input directory does not exist: {}", dir);
+            return;
+        }
+        try {
+            Files.walkFileTree(dir.toPath(), new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(final Path path, final BasicFileAttributes attrs) {
+                    if (DirectoryCleaner.isTrash(path)) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(final Path path, final BasicFileAttributes attrs) {
+                    if (attrs.isRegularFile()) {
+                        final File file = path.toFile();
+                        if (filter.accept(file)) {
+                            result.put(file, attrs);
+                        }
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(final Path path, final IOException ex) {
+                    LOG.warn("Cannot access: " + path, ex);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (final IOException ex) {
+            throw new RuntimeException("Failed to scan input directory: " + dir, ex);
+        }
+    }
+
+    private static InputFingerprint fingerprint(final File file, final BasicFileAttributes attrs) {
+        return new InputFingerprint(file, attrs.size(), attrs.lastModifiedTime().toMillis(), Hashes.hash(file));
+    }
+
+}
@@ -0,0 +1,269 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.commons;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+import jakarta.validation.constraints.NotNull;
+
+import org.fuin.objects4j.common.Contract;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Collects the input files of incremental parsers from directory trees. Every directory is listed by its own task, so idle threads
+ * steal the sub trees of busy ones. Directories matching one of the ignore patterns are not entered at all. A pattern is a glob (see
+ * {@link FileSystems#getPathMatcher(String)}) that is matched against the name of a directory and against its path relative to the
+ * scanned root. Trash directories of a {@link DirectoryCleaner} are always ignored. Build output directories ("target" next to a
+ * "pom.xml", "build" next to a "build.gradle" or "build.gradle.kts") can be ignored as well, so equally named source directories are
+ * still scanned. Files are selected with a {@link FileFilterIndex} and grouped by the parsers that accept them.<br>
+ * <br>
+ * Symbolic links to files are included. Symbolic links to directories are not followed, so the same tree is never scanned twice and
+ * link cycles are no problem.
+ */
+public final class InputScanner implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(InputScanner.class);
+
+    /** Version control metadata and tool directories ignored by default. */
+    public static final List<String> DEFAULT_IGNORE_PATTERNS = Collections
+            .unmodifiableList(Arrays.asList(".git", ".svn", ".hg", ".bzr", "CVS", ".gradle", ".idea", "node_modules"));
+
+    /** Build output directories and the build files that must exist next to them. */
+    private static final Map<String, List<String>> BUILD_OUTPUT_DIRS = Map.of("target", List.of("pom.xml"), "build",
+            List.of("build.gradle", "build.gradle.kts"));
+
+    private final FileFilterIndex filter;
+
+    private final List<PathMatcher> ignore;
+
+    private final boolean ignoreBuildOutput;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructor that uses one thread for every available processor, the {@link #DEFAULT_IGNORE_PATTERNS} and ignores build output
+     * directories.
+     * 
+     * @param filter
+     *            Filter that selects the files and the parsers.
+     */
+    public InputScanner(@NotNull final FileFilterIndex filter) {
+        this(filter, Runtime.getRuntime().availableProcessors(), DEFAULT_IGNORE_PATTERNS, true);
+    }
+
+    /**
+     * Constructor with ignore patterns. Build output directories are only ignored if they match one of the patterns.
+     * 
+     * @param filter
+     *            Filter that selects the files and the parsers.
+     * @param parallelism
+     *            Number of threads used for scanning.
+     * @param ignorePatterns
+     *            Glob patterns of directories that should not be scanned.
+     */
+    public InputScanner(@NotNull final FileFilterIndex filter, final int parallelism, @NotNull final Collection<String> ignorePatterns) {
+        this(filter, parallelism, ignorePatterns, false);
+    }
+
+    /**
+     * Constructor with all data.
+     * 
+     * @param filter
+     *            Filter that selects the files and the parsers.
+     * @param parallelism
+     *            Number of threads used for scanning.
+     * @param ignorePatterns
+     *            Glob patterns of directories that should not be scanned.
+     * @param ignoreBuildOutput
+     *            TRUE to ignore "target" directories next to a "pom.xml" and "build" directories next to a Gradle build file.
+     */
+    public InputScanner(@NotNull final FileFilterIndex filter, final int parallelism, @NotNull final Collection<String> ignorePatterns,
+            final boolean ignoreBuildOutput) {
+        super();
+        Contract.requireArgNotNull("filter", filter);
+        Contract.requireArgNotNull("ignorePatterns", ignorePatterns);
+        this.filter = filter;
+        this.ignoreBuildOutput = ignoreBuildOutput;
+        this.ignore = new ArrayList<>(ignorePatterns.size());
+        for (final String pattern : ignorePatterns) {
+            ignore.add(FileSystems.getDefault().getPathMatcher("glob:" + pattern));
+        }
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Scans directory trees. Directories that don't exist are ignored.
+     * 
+     * @param dirs
+     *            Root directories to scan.
+     * 
+     * @return Parsers in configuration order with the files they accept. Parsers that accept none of the files are not included.
+     */
+    @NotNull
+    public final Map<ParserConfig, Set<File>> scan(@NotNull final Collection<File> dirs) {
+        Contract.requireArgNotNull("dirs", dirs);
+        final long start = System.currentTimeMillis();
+        final Map<ParserConfig, Queue<File>> found = new ConcurrentHashMap<>();
+        final List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (final File dir : dirs) {
+            if (dir.isDirectory()) {
+                final Path root = dir.toPath();
+                tasks.add(pool.submit(new ScanTask(root, root, found)));
+            } else {
+                LOG.warn("Input directory does not exist: {}", dir);
+            }
+        }
+        for (final ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+        final Map<ParserConfig, Set<File>> result = new LinkedHashMap<>();
+        for (final ParserConfig pc : filter.getParserConfigs()) {
+            final Queue<File> files = found.get(pc);
+            if (files != null) {
+                result.put(pc, Collections.unmodifiableSet(new HashSet<>(files)));
+            }
+        }
+        LOG.debug("Scanned {} directories in {} ms", dirs.size(), System.currentTimeMillis() - start);
+        return result;
+    }
+
+    @Override
+    public final void close() {
+        pool.shutdown();
+    }
+
+    private boolean ignored(final Path root, final Path dir) {
+        if (DirectoryCleaner.isTrash(dir.getFileName())) {
+            return true;
+        }
+        final Path name = dir.getFileName();
+        final Path relative = root.relativize(dir);
+        for (final PathMatcher matcher : ignore) {
+            if (matcher.matches(name) || matcher.matches(relative)) {
+                return true;
+            }
+        }
+        return ignoreBuildOutput && isBuildOutput(dir);
+    }
+
+    private static boolean isBuildOutput(final Path dir) {
+        final List<String> buildFiles = BUILD_OUTPUT_DIRS.get(dir.getFileName().toString());
+        if (buildFiles == null || dir.getParent() == null) {
+            return false;
+        }
+        for (final String buildFile : buildFiles) {
+            if (Files.isRegularFile(dir.getParent().resolve(buildFile))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Lists a single directory and forks a new task for every sub directory.
+     */
+    private final class ScanTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient Path root;
+
+        private final transient Path dir;
+
+        private final transient Map<ParserConfig, Queue<File>> found;
+
+        /**
+         * Constructor with all data.
+         * 
+         * @param root
+         *            Root directory of the scan.
+         * @param dir
+         *            Directory to list.
+         * @param found
+         *            Files found so far by parser.
+         */
+        ScanTask(final Path root, final Path dir, final Map<ParserConfig, Queue<File>> found) {
+            super();
+            this.root = root;
+            this.dir = dir;
+            this.found = found;
+        }
+
+        @Override
+        protected final void compute() {
+            final List<ScanTask> subTasks = new ArrayList<>();
+            try {
+                Files.walkFileTree(dir, EnumSet.noneOf(FileVisitOption.class), 1, new SimpleFileVisitor<Path>() {
+                    @Override
+                    public FileVisitResult visitFile(final Path path, final BasicFileAttributes attrs) {
+                        if (attrs.isDirectory()) {
+                            if (ignored(root, path)) {
+                                LOG.debug("Ignored directory: {}", path);
+                            } else {
+                                subTasks.add(new ScanTask(root, path, found));
+                            }
+                        } else if (attrs.isRegularFile() || (attrs.isSymbolicLink() && Files.isRegularFile(path))) {
+                            final File file = path.toFile();
+                            for (final ParserConfig pc : filter.findParsers(file)) {
+                                found.computeIfAbsent(pc, key -> new ConcurrentLinkedQueue<>()).add(file);
+                            }
+                        }
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFileFailed(final Path path, final IOException ex) {
+                        LOG.warn("Cannot access: {}", path, ex);
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+            } catch (final IOException ex) {
+                throw new RuntimeException("Failed to scan directory: " + dir, ex);
+            }
+            invokeAll(subTasks);
+        }
+
+    }
+
+}
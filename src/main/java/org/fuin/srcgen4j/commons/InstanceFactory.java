@@ -0,0 +1,41 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.commons;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Creates instances of generators, parsers and artifact factories without reflection. Implementations are found with the
+ * {@link java.util.ServiceLoader} of the context class loader and have to be listed in
+ * <code>META-INF/services/org.fuin.srcgen4j.commons.InstanceFactory</code>. Classes not known to any factory are still created by
+ * reflection.
+ */
+public interface InstanceFactory {
+
+    /**
+     * Returns the suppliers for new instances.
+     * 
+     * @return Fully qualified class name mapped to a supplier for new instances of that class.
+     */
+    @NotNull
+    public Map<String, Supplier<?>> getSuppliers();
+
+}
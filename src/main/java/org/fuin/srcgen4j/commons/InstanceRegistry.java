@@ -0,0 +1,146 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.commons;
+
+import java.lang.ref.SoftReference;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.WeakHashMap;
+import java.util.function.Supplier;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import org.fuin.objects4j.common.Contract;
+import org.fuin.utils4j.Utils4J;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creates instances by class name. Uses the {@link InstanceFactory} implementations registered for a class loader and falls back to
+ * reflection for all other classes. The factories are loaded only once per class loader.<br>
+ * <br>
+ * The suppliers reference classes of their class loader, so they are only softly referenced. This way a class loader that is no longer
+ * used elsewhere can still be garbage collected. Call {@link #clear(ClassLoader)} to release the suppliers of a class loader right away,
+ * for example when a plugin class loader is closed.
+ */
+public final class InstanceRegistry {
+
+    private static final Logger LOG = LoggerFactory.getLogger(InstanceRegistry.class);
+
+    private static final Map<ClassLoader, SoftReference<Map<String, Supplier<?>>>> SUPPLIERS = Collections
+            .synchronizedMap(new WeakHashMap<>());
+
+    private InstanceRegistry() {
+        throw new UnsupportedOperationException("It's not allowed to create an instance of a utility class");
+    }
+
+    /**
+     * Creates a new instance of a class.
+     * 
+     * @param className
+     *            Fully qualified name of the class.
+     * @param classLoader
+     *            Class loader to use.
+     * 
+     * @return New instance.
+     */
+    @NotNull
+    public static Object createInstance(@NotEmpty final String className, @NotNull final ClassLoader classLoader) {
+        Contract.requireArgNotEmpty("className", className);
+        Contract.requireArgNotNull("classLoader", classLoader);
+        final Supplier<?> supplier = suppliers(classLoader).get(className);
+        if (supplier == null) {
+            LOG.debug("No instance factory for '{}' - Using reflection", className);
+            return Utils4J.createInstance(className, classLoader);
+        }
+        final Object obj = supplier.get();
+        if (obj == null) {
+            throw new IllegalStateException("Instance factory returned null for: " + className);
+        }
+        return obj;
+    }
+
+    /**
+     * Determines if a class is known to one of the registered factories.
+     * 
+     * @param className
+     *            Fully qualified name of the class.
+     * @param classLoader
+     *            Class loader to use.
+     * 
+     * @return TRUE if an instance can be created without reflection.
+     */
+    public static boolean isRegistered(@NotEmpty final String className, @NotNull final ClassLoader classLoader) {
+        Contract.requireArgNotEmpty("className", className);
+        Contract.requireArgNotNull("classLoader", classLoader);
+        return suppliers(classLoader).containsKey(className);
+    }
+
+    /**
+     * Removes the suppliers loaded for a class loader. They are loaded again on the next use of the class loader.
+     * 
+     * @param classLoader
+     *            Class loader to release the suppliers for.
+     */
+    public static void clear(@NotNull final ClassLoader classLoader) {
+        Contract.requireArgNotNull("classLoader", classLoader);
+        SUPPLIERS.remove(classLoader);
+    }
+
+    private static Map<String, Supplier<?>> suppliers(final ClassLoader classLoader) {
+        synchronized (SUPPLIERS) {
+            final SoftReference<Map<String, Supplier<?>>> ref = SUPPLIERS.get(classLoader);
+            Map<String, Supplier<?>> suppliers = (ref == null ? null : ref.get());
+            if (suppliers == null) {
+                suppliers = load(classLoader);
+                SUPPLIERS.put(classLoader, new SoftReference<>(suppliers));
+            }
+            return suppliers;
+        }
+    }
+
+    private static Map<String, Supplier<?>> load(final ClassLoader classLoader) {
+        final Map<String, Supplier<?>> suppliers = new HashMap<>();
+        final Iterator<InstanceFactory> it = ServiceLoader.load(InstanceFactory.class, classLoader).iterator();
+        while (true) {
+            final InstanceFactory factory;
+            try {
+                if (!it.hasNext()) {
+                    break;
+                }
+                factory = it.next();
+            } catch (final ServiceConfigurationError ex) {
+                LOG.warn("Failed to load instance factory - Classes will be created by reflection", ex);
+                continue;
+            }
+            for (final Map.Entry<String, Supplier<?>> entry : factory.getSuppliers().entrySet()) {
+                if (suppliers.putIfAbsent(entry.getKey(), entry.getValue()) != null) {
+                    LOG.warn("Ignored duplicate supplier for '{}' from: {}", entry.getKey(), factory.getClass().getName());
+                }
+            }
+        }
+        LOG.debug("Loaded {} instance suppliers", suppliers.size());
+        return suppliers;
+    }
+
+}
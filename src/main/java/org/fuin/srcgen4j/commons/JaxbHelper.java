@@ -17,30 +17,108 @@
  */
 package org.fuin.srcgen4j.commons;
 
+import java.io.BufferedInputStream;
 import java.io.File;
-import java.io.FileReader;
+import java.io.FileFilter;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.Reader;
 import java.io.StringWriter;
 import java.io.Writer;
+import java.lang.ref.SoftReference;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.transform.Source;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
 
 import jakarta.validation.constraints.NotNull;
 import jakarta.xml.bind.JAXBContext;
 import jakarta.xml.bind.JAXBException;
 import jakarta.xml.bind.Marshaller;
+import jakarta.xml.bind.Unmarshaller;
 
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.fuin.objects4j.common.Contract;
 import org.fuin.objects4j.common.FileExists;
 import org.fuin.objects4j.common.FileExistsValidator;
+import org.fuin.objects4j.common.IsDirectory;
+import org.fuin.objects4j.common.IsDirectoryValidator;
 import org.fuin.objects4j.common.IsFile;
 import org.fuin.objects4j.common.IsFileValidator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
 
 /**
- * Helper to serialize and deserialize objects using JAXB.
+ * Helper to serialize and deserialize objects using JAXB. JAXB contexts and schemas are cached for the whole process. Marshallers and
+ * unmarshallers are created once per thread and context and are reused afterwards.<br>
+ * <br>
+ * The contexts reference the bound classes, so they are cached per class loader of the classes and only softly referenced. This way a
+ * class loader that is no longer used elsewhere can still be garbage collected. Call {@link #clear(ClassLoader)} to release the contexts
+ * of a class loader right away, for example when a plugin class loader is closed.
  */
 public final class JaxbHelper {
 
+    private static final Logger LOG = LoggerFactory.getLogger(JaxbHelper.class);
+
+    /** Maximum number of marshallers and unmarshallers kept per thread. */
+    private static final int MAX_POOLED_PER_THREAD = 16;
+
+    private static final Map<ClassLoader, SoftReference<Map<Set<Class<?>>, JAXBContext>>> CONTEXTS = Collections
+            .synchronizedMap(new WeakHashMap<>());
+
+    private static final Map<String, Schema> SCHEMAS = new ConcurrentHashMap<>();
+
+    private static final int FIRST_PART_LENGTH = 1024;
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = createXmlInputFactory();
+
+    private static final ThreadLocal<Map<JAXBContext, Marshaller>> MARSHALLERS = ThreadLocal.withInitial(JaxbHelper::createPool);
+
+    private static final ThreadLocal<Map<JAXBContext, Unmarshaller>> UNMARSHALLERS = ThreadLocal.withInitial(JaxbHelper::createPool);
+
     private boolean formattedOutput = true;
 
     /**
@@ -62,12 +140,19 @@ public final class JaxbHelper {
     }
 
     /**
-     * Checks if the given file contains a start tag within the first 1024 bytes.
+     * Checks if the given file contains a start tag within the first 1024 characters. The root element is always checked, even if it
+     * starts later because of long comments or a long prolog. Tags inside comments are ignored and the encoding declared in the file is
+     * used.<br>
+     * <br>
+     * <b>Incompatible change:</b> Up to version 0.4.x the first 1024 characters were searched for the text "&lt;" + tag name. Now the
+     * name must match exactly: Tag "abc" no longer matches an element "abcd". The file is parsed as XML, so the result is
+     * <code>false</code> if the file is not well-formed before a matching tag is found (for example non-XML files that contain the text
+     * "&lt;abc").
      * 
      * @param file
      *            File to check.
      * @param tagName
-     *            Name of the tag. A "&lt;" will be added to this name internally to locate the start tag.
+     *            Name of the tag. Either the local name or the name with the prefix used in the file ("prefix:name").
      * 
      * @return If the file contains the start tag TRUE else FALSE.
      */
@@ -77,20 +162,123 @@ public final class JaxbHelper {
         IsFileValidator.requireArgValid("file", file);
         Contract.requireArgNotNull("tagName", tagName);
 
-        final String xml = readFirstPartOfFile(file);
-        return xml.indexOf("<" + tagName) > -1;
+        try (final InputStream in = new BufferedInputStream(Files.newInputStream(file.toPath()), BUFFER_SIZE)) {
+            final XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(in);
+            try {
+                boolean root = true;
+                while (reader.hasNext()) {
+                    if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+                        if (!root && reader.getLocation().getCharacterOffset() > FIRST_PART_LENGTH) {
+                            return false;
+                        }
+                        if (matches(reader, tagName)) {
+                            return true;
+                        }
+                        root = false;
+                    }
+                }
+                return false;
+            } finally {
+                reader.close();
+            }
+        } catch (final XMLStreamException ex) {
+            // Not well-formed before a matching tag was found
+            return false;
+        } catch (final IOException ex) {
+            throw new RuntimeException("Could not read first part of file: " + file, ex);
+        }
     }
 
-    private String readFirstPartOfFile(final File file) {
-        try {
-            try (final Reader reader = new FileReader(file)) {
+    private static boolean matches(final XMLStreamReader reader, final String tagName) {
+        final String localName = reader.getLocalName();
+        if (tagName.equals(localName)) {
+            return true;
+        }
+        final String prefix = reader.getPrefix();
+        return prefix != null && !prefix.isEmpty() && tagName.equals(prefix + ":" + localName);
+    }
 
-                final char[] buf = new char[1024];
-                reader.read(buf);
-                return String.copyValueOf(buf);
+    /**
+     * Returns the name of the root element of an XML file. Only the prolog and the root start tag are read.
+     * 
+     * @param file
+     *            File to read.
+     * 
+     * @return Name with namespace of the root element or <code>null</code> if the file is not a well-formed XML document.
+     */
+    @Nullable
+    public static QName readRootElement(@NotNull @FileExists @IsFile final File file) {
+        Contract.requireArgNotNull("file", file);
+        try (final InputStream in = new BufferedInputStream(Files.newInputStream(file.toPath()), BUFFER_SIZE)) {
+            final XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(in);
+            try {
+                while (reader.hasNext()) {
+                    if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+                        return reader.getName();
+                    }
+                }
+                return null;
+            } finally {
+                reader.close();
             }
+        } catch (final XMLStreamException ex) {
+            return null;
         } catch (final IOException ex) {
-            throw new RuntimeException("Could not read first part of file: " + file, ex);
+            throw new RuntimeException("Could not read root element of file: " + file, ex);
+        }
+    }
+
+    /**
+     * Groups files by the name of their root element. The files are read in parallel. Files that are not well-formed XML documents are
+     * not contained in the result.
+     * 
+     * @param files
+     *            Files to classify.
+     * 
+     * @return Name of the root element mapped to the files with that root, in the order of the given collection.
+     */
+    @NotNull
+    public static Map<QName, List<File>> findRootElements(@NotNull final Collection<File> files) {
+        Contract.requireArgNotNull("files", files);
+        final Map<File, QName> roots = new ConcurrentHashMap<>();
+        files.parallelStream().forEach(file -> {
+            final QName root = readRootElement(file);
+            if (root != null) {
+                roots.put(file, root);
+            }
+        });
+        final Map<QName, List<File>> result = new LinkedHashMap<>();
+        for (final File file : files) {
+            final QName root = roots.get(file);
+            if (root != null) {
+                result.computeIfAbsent(root, key -> new ArrayList<>()).add(file);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Groups all files in a directory and its sub directories by the name of their root element.
+     * 
+     * @param dir
+     *            Directory to scan.
+     * @param filter
+     *            Filter for the files to classify or <code>null</code> for all files.
+     * 
+     * @return Name of the root element mapped to the files with that root.
+     */
+    @NotNull
+    public static Map<QName, List<File>> findRootElements(@NotNull @FileExists @IsDirectory final File dir,
+            @Nullable final FileFilter filter) {
+        Contract.requireArgNotNull("dir", dir);
+        FileExistsValidator.requireArgValid("dir", dir);
+        IsDirectoryValidator.requireArgValid("dir", dir);
+        try (final Stream<Path> paths = Files.walk(dir.toPath())) {
+            final List<File> files = paths.filter(Files::isRegularFile).map(Path::toFile)
+                    .filter(file -> filter == null || filter.accept(file)).collect(Collectors.toList());
+            return findRootElements(files);
+        } catch (final IOException ex) {
+            throw new RuntimeException("Could not scan directory: " + dir, ex);
         }
     }
 
@@ -176,14 +364,605 @@ public final class JaxbHelper {
         Contract.requireArgNotNull("jaxbContext", jaxbContext);
 
         try {
-            final Marshaller marshaller = jaxbContext.createMarshaller();
+            // Removed while in use, so a nested call on the same thread gets its own instance
+            Marshaller marshaller = MARSHALLERS.get().remove(jaxbContext);
+            if (marshaller == null) {
+                marshaller = jaxbContext.createMarshaller();
+            }
             marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, formattedOutput);
             marshaller.marshal(obj, writer);
+            MARSHALLERS.get().put(jaxbContext, marshaller);
         } catch (final JAXBException ex) {
             throw new MarshalObjectException("Unable to write XML to writer", ex);
         }
     }
 
+    /**
+     * Marshals the object as XML to a writer using a cached context for the object's class.
+     * 
+     * @param obj
+     *            Object to marshal.
+     * @param writer
+     *            Writer to write the object to.
+     * 
+     * @throws MarshalObjectException
+     *             Error writing the object.
+     * 
+     * @param <TYPE>
+     *            Type of the object.
+     */
+    public <TYPE> void write(@NotNull final TYPE obj, @NotNull final Writer writer) throws MarshalObjectException {
+        Contract.requireArgNotNull("obj", obj);
+        final JAXBContext jaxbContext;
+        try {
+            jaxbContext = getContext(obj.getClass());
+        } catch (final JAXBException ex) {
+            throw new MarshalObjectException("Unable to create JAXB context for: " + obj.getClass().getName(), ex);
+        }
+        write(obj, writer, jaxbContext);
+    }
+
+    /**
+     * Unmarshals an object from an XML file.
+     * 
+     * @param file
+     *            File to read.
+     * @param type
+     *            Type of the object.
+     * @param schemaUrl
+     *            URL of the XSD used to validate the XML or <code>null</code> to skip validation.
+     * 
+     * @return Object.
+     * 
+     * @throws UnmarshalObjectException
+     *             Error reading the object.
+     * 
+     * @param <TYPE>
+     *            Type of the object.
+     */
+    @NotNull
+    public <TYPE> TYPE read(@NotNull @FileExists @IsFile final File file, @NotNull final Class<TYPE> type, @Nullable final URL schemaUrl)
+            throws UnmarshalObjectException {
+
+        Contract.requireArgNotNull("file", file);
+        FileExistsValidator.requireArgValid("file", file);
+        IsFileValidator.requireArgValid("file", file);
+
+        try (final InputStream in = new BufferedInputStream(Files.newInputStream(file.toPath()), BUFFER_SIZE)) {
+            return read(new StreamSource(in, file.toURI().toString()), type, schemaUrl);
+        } catch (final IOException ex) {
+            throw new UnmarshalObjectException("Unable to read XML from file: " + file, ex);
+        }
+    }
+
+    /**
+     * Unmarshals an object from an XML stream. The stream is not closed.
+     * 
+     * @param in
+     *            Stream to read.
+     * @param type
+     *            Type of the object.
+     * @param schemaUrl
+     *            URL of the XSD used to validate the XML or <code>null</code> to skip validation.
+     * 
+     * @return Object.
+     * 
+     * @throws UnmarshalObjectException
+     *             Error reading the object.
+     * 
+     * @param <TYPE>
+     *            Type of the object.
+     */
+    @NotNull
+    public <TYPE> TYPE read(@NotNull final InputStream in, @NotNull final Class<TYPE> type, @Nullable final URL schemaUrl)
+            throws UnmarshalObjectException {
+        Contract.requireArgNotNull("in", in);
+        return read(new StreamSource(in), type, schemaUrl);
+    }
+
+    /**
+     * Unmarshals an object from an XML reader. The reader is not closed.
+     * 
+     * @param reader
+     *            Reader to read.
+     * @param type
+     *            Type of the object.
+     * @param schemaUrl
+     *            URL of the XSD used to validate the XML or <code>null</code> to skip validation.
+     * 
+     * @return Object.
+     * 
+     * @throws UnmarshalObjectException
+     *             Error reading the object.
+     * 
+     * @param <TYPE>
+     *            Type of the object.
+     */
+    @NotNull
+    public <TYPE> TYPE read(@NotNull final Reader reader, @NotNull final Class<TYPE> type, @Nullable final URL schemaUrl)
+            throws UnmarshalObjectException {
+        Contract.requireArgNotNull("reader", reader);
+        return read(new StreamSource(reader), type, schemaUrl);
+    }
+
+    private <TYPE> TYPE read(final Source source, final Class<TYPE> type, final URL schemaUrl) throws UnmarshalObjectException {
+        Contract.requireArgNotNull("type", type);
+        try {
+            final JAXBContext jaxbContext = getContext(type);
+            Unmarshaller unmarshaller = UNMARSHALLERS.get().remove(jaxbContext);
+            if (unmarshaller == null) {
+                unmarshaller = jaxbContext.createUnmarshaller();
+            }
+            unmarshaller.setSchema(schemaUrl == null ? null : getSchema(schemaUrl));
+            final TYPE obj = unmarshaller.unmarshal(source, type).getValue();
+            UNMARSHALLERS.get().put(jaxbContext, unmarshaller);
+            return obj;
+        } catch (final JAXBException | SAXException ex) {
+            throw new UnmarshalObjectException("Unable to read XML as: " + type.getName(), ex);
+        }
+    }
+
+    /**
+     * Unmarshals all elements with a given name one after the other without reading the whole document into memory. Only one element
+     * exists at a time, unless the consumer keeps it. Elements with the same name that are nested inside a matching element are part of
+     * the outer element and are not passed separately.
+     * 
+     * @param file
+     *            File to read.
+     * @param elementName
+     *            Name with namespace of the elements to unmarshal.
+     * @param type
+     *            Type of the elements.
+     * @param consumer
+     *            Receives the elements in document order.
+     * 
+     * @return Number of elements read.
+     * 
+     * @throws UnmarshalObjectException
+     *             Error reading the file.
+     * 
+     * @param <TYPE>
+     *            Type of the elements.
+     */
+    public <TYPE> long readElements(@NotNull @FileExists @IsFile final File file, @NotNull final QName elementName,
+            @NotNull final Class<TYPE> type, @NotNull final Consumer<? super TYPE> consumer) throws UnmarshalObjectException {
+
+        Contract.requireArgNotNull("consumer", consumer);
+        try (final ElementIterator<TYPE> it = new ElementIterator<>(file, elementName, type)) {
+            long count = 0;
+            while (it.hasNextElement()) {
+                consumer.accept(it.nextElement());
+                count++;
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Returns a lazy stream of all elements with a given name. Works like {@link #readElements(File, QName, Class, Consumer)}, but the
+     * caller pulls the elements. The stream must be closed to release the file. Errors while reading the elements are thrown as
+     * {@link IllegalStateException} with an {@link UnmarshalObjectException} as cause.
+     * 
+     * @param file
+     *            File to read.
+     * @param elementName
+     *            Name with namespace of the elements to unmarshal.
+     * @param type
+     *            Type of the elements.
+     * 
+     * @return Sequential stream of elements in document order.
+     * 
+     * @throws UnmarshalObjectException
+     *             Error opening the file.
+     * 
+     * @param <TYPE>
+     *            Type of the elements.
+     */
+    @NotNull
+    public <TYPE> Stream<TYPE> streamElements(@NotNull @FileExists @IsFile final File file, @NotNull final QName elementName,
+            @NotNull final Class<TYPE> type) throws UnmarshalObjectException {
+
+        final ElementIterator<TYPE> it = new ElementIterator<>(file, elementName, type);
+        final Iterator<TYPE> iterator = new Iterator<TYPE>() {
+            @Override
+            public boolean hasNext() {
+                try {
+                    return it.hasNextElement();
+                } catch (final UnmarshalObjectException ex) {
+                    throw new IllegalStateException(ex.getMessage(), ex);
+                }
+            }
+
+            @Override
+            public TYPE next() {
+                try {
+                    if (!it.hasNextElement()) {
+                        throw new NoSuchElementException();
+                    }
+                    return it.nextElement();
+                } catch (final UnmarshalObjectException ex) {
+                    throw new IllegalStateException(ex.getMessage(), ex);
+                }
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(it::close);
+    }
+
+    /**
+     * Unmarshals a number of XML files in parallel. Each file is passed to the consumer on the calling thread, either in the order of the
+     * collection or in the order the files were read. A file that cannot be read is reported as error marker on that file and the
+     * remaining files are read anyway. The threads are only created for this call, so the unmarshallers pooled per thread are not reused
+     * by later calls. Use {@link #readAll(Collection, Class, URL, ExecutorService, boolean, FileMarkerCapable, BiConsumer)} with a long
+     * living executor for repeated calls.
+     * 
+     * @param files
+     *            Files to read.
+     * @param type
+     *            Type of the objects.
+     * @param schemaUrl
+     *            URL of the XSD used to validate the XML or <code>null</code> to skip validation.
+     * @param threads
+     *            Maximum number of threads used for reading.
+     * @param inputOrder
+     *            TRUE to pass the results in the order of the collection, FALSE to pass each result as soon as it's available.
+     * @param markers
+     *            Receives the markers for files that failed.
+     * @param consumer
+     *            Receives the file and the object read from it.
+     * 
+     * @return Number of files read successfully.
+     * 
+     * @param <TYPE>
+     *            Type of the objects.
+     */
+    public <TYPE> int readAll(@NotNull final Collection<File> files, @NotNull final Class<TYPE> type, @Nullable final URL schemaUrl,
+            final int threads, final boolean inputOrder, @NotNull final FileMarkerCapable markers,
+            @NotNull final BiConsumer<File, TYPE> consumer) {
+
+        Contract.requireArgNotNull("files", files);
+        Contract.requireArgNotNull("type", type);
+        Contract.requireArgNotNull("markers", markers);
+        Contract.requireArgNotNull("consumer", consumer);
+        if (threads < 1) {
+            throw new IllegalArgumentException("The argument 'threads' must be greater than zero, but was: " + threads);
+        }
+        if (files.isEmpty()) {
+            return 0;
+        }
+
+        final AtomicInteger threadNumber = new AtomicInteger();
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, files.size()), runnable -> {
+            final Thread thread = new Thread(runnable, "srcgen4j-xml-reader-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            return readAll(files, type, schemaUrl, executor, inputOrder, markers, consumer);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Unmarshals a number of XML files in parallel using the threads of an executor. Each file is passed to the consumer on the calling
+     * thread, either in the order of the collection or in the order the files were read. A file that cannot be read is reported as error
+     * marker on that file and the remaining files are read anyway. The executor is not shut down, so the unmarshallers pooled per thread
+     * are reused by later calls with the same executor. Reads that are still pending when the method fails are cancelled.
+     * 
+     * @param files
+     *            Files to read.
+     * @param type
+     *            Type of the objects.
+     * @param schemaUrl
+     *            URL of the XSD used to validate the XML or <code>null</code> to skip validation.
+     * @param executor
+     *            Executor that reads the files.
+     * @param inputOrder
+     *            TRUE to pass the results in the order of the collection, FALSE to pass each result as soon as it's available.
+     * @param markers
+     *            Receives the markers for files that failed.
+     * @param consumer
+     *            Receives the file and the object read from it.
+     * 
+     * @return Number of files read successfully.
+     * 
+     * @param <TYPE>
+     *            Type of the objects.
+     */
+    public <TYPE> int readAll(@NotNull final Collection<File> files, @NotNull final Class<TYPE> type, @Nullable final URL schemaUrl,
+            @NotNull final ExecutorService executor, final boolean inputOrder, @NotNull final FileMarkerCapable markers,
+            @NotNull final BiConsumer<File, TYPE> consumer) {
+
+        Contract.requireArgNotNull("files", files);
+        Contract.requireArgNotNull("type", type);
+        Contract.requireArgNotNull("executor", executor);
+        Contract.requireArgNotNull("markers", markers);
+        Contract.requireArgNotNull("consumer", consumer);
+
+        // Only used for completion order, else it would keep all results until the end
+        final CompletionService<ReadResult<TYPE>> completion = (inputOrder ? null : new ExecutorCompletionService<>(executor));
+        // Only used for input order - Consumed entries are replaced with null
+        final List<Future<ReadResult<TYPE>>> futures = (inputOrder ? new ArrayList<>(files.size()) : null);
+        // Only used for completion order - Consumed entries are removed
+        final Set<Future<ReadResult<TYPE>>> pending = (inputOrder ? null : new HashSet<>());
+        try {
+            int submitted = 0;
+            for (final File file : files) {
+                final Callable<ReadResult<TYPE>> task = () -> readResult(file, type, schemaUrl);
+                if (completion == null) {
+                    futures.add(executor.submit(task));
+                } else {
+                    pending.add(completion.submit(task));
+                }
+                submitted++;
+            }
+            int count = 0;
+            for (int i = 0; i < submitted; i++) {
+                final Future<ReadResult<TYPE>> future;
+                if (completion == null) {
+                    future = futures.set(i, null);
+                } else {
+                    future = completion.take();
+                    pending.remove(future);
+                }
+                final ReadResult<TYPE> result = future.get();
+                if (result.error == null) {
+                    consumer.accept(result.file, result.obj);
+                    count++;
+                } else {
+                    addMarker(markers, result.file, result.error);
+                }
+            }
+            return count;
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while reading files", ex);
+        } catch (final ExecutionException ex) {
+            // Tasks catch all exceptions, so this is an error
+            throw new IllegalStateException("Unexpected failure while reading files", ex.getCause());
+        } finally {
+            // The executor is not shut down, so reads that were not consumed would keep running
+            for (final Future<ReadResult<TYPE>> future : (completion == null ? futures : pending)) {
+                if (future != null) {
+                    future.cancel(true);
+                }
+            }
+        }
+    }
+
+    private <TYPE> ReadResult<TYPE> readResult(final File file, final Class<TYPE> type, final URL schemaUrl) {
+        try {
+            return new ReadResult<>(file, read(file, type, schemaUrl), null);
+        } catch (final UnmarshalObjectException | RuntimeException ex) {
+            return new ReadResult<>(file, null, ex);
+        }
+    }
+
+    private static void addMarker(final FileMarkerCapable markers, final File file, final Exception error) {
+        Throwable cause = error;
+        while (cause.getCause() != null && cause.getCause() != cause) {
+            cause = cause.getCause();
+            if (cause instanceof SAXParseException) {
+                final SAXParseException spe = (SAXParseException) cause;
+                markers.addMarker(file, FileMarkerSeverity.ERROR, spe.getMessage(), spe.getLineNumber());
+                return;
+            }
+        }
+        final String message = (cause.getMessage() == null ? cause.getClass().getSimpleName() : cause.getMessage());
+        markers.addMarker(file, FileMarkerSeverity.ERROR, message);
+    }
+
+    /**
+     * Returns a JAXB context for a set of classes. Contexts are created only once per distinct set of classes as long as the class loader
+     * of the first class is in use.
+     * 
+     * @param classes
+     *            Classes to be bound.
+     * 
+     * @return Shared context.
+     * 
+     * @throws JAXBException
+     *             Error creating the context.
+     */
+    @NotNull
+    public static JAXBContext getContext(@NotNull final Class<?>... classes) throws JAXBException {
+        Contract.requireArgNotNull("classes", classes);
+        final Set<Class<?>> key = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(classes)));
+        final Map<Set<Class<?>>, JAXBContext> contexts = contexts(classes.length == 0 ? null : classes[0].getClassLoader());
+        JAXBContext jaxbContext = contexts.get(key);
+        if (jaxbContext == null) {
+            // Not computeIfAbsent: Creating a context is slow and must not block other keys
+            jaxbContext = JAXBContext.newInstance(classes);
+            final JAXBContext existing = contexts.putIfAbsent(key, jaxbContext);
+            if (existing != null) {
+                jaxbContext = existing;
+            }
+        }
+        return jaxbContext;
+    }
+
+    /**
+     * Removes the JAXB contexts cached for a class loader. They are created again on the next use of the class loader.
+     * 
+     * @param classLoader
+     *            Class loader to release the contexts for.
+     */
+    public static void clear(@NotNull final ClassLoader classLoader) {
+        Contract.requireArgNotNull("classLoader", classLoader);
+        CONTEXTS.remove(classLoader);
+    }
+
+    private static Map<Set<Class<?>>, JAXBContext> contexts(final ClassLoader classLoader) {
+        synchronized (CONTEXTS) {
+            final SoftReference<Map<Set<Class<?>>, JAXBContext>> ref = CONTEXTS.get(classLoader);
+            Map<Set<Class<?>>, JAXBContext> contexts = (ref == null ? null : ref.get());
+            if (contexts == null) {
+                contexts = new ConcurrentHashMap<>();
+                CONTEXTS.put(classLoader, new SoftReference<>(contexts));
+            }
+            return contexts;
+        }
+    }
+
+    /**
+     * Returns a schema for an XSD. Schemas are created only once per URL.
+     * 
+     * @param schemaUrl
+     *            URL of the XSD.
+     * 
+     * @return Shared schema.
+     * 
+     * @throws SAXException
+     *             Error parsing the XSD.
+     */
+    @NotNull
+    public static Schema getSchema(@NotNull final URL schemaUrl) throws SAXException {
+        Contract.requireArgNotNull("schemaUrl", schemaUrl);
+        final String key = schemaUrl.toExternalForm();
+        Schema schema = SCHEMAS.get(key);
+        if (schema == null) {
+            schema = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI).newSchema(schemaUrl);
+            final Schema existing = SCHEMAS.putIfAbsent(key, schema);
+            if (existing != null) {
+                schema = existing;
+            }
+        }
+        return schema;
+    }
+
+    /**
+     * Positions a StAX reader on each matching element and unmarshals it.
+     * 
+     * @param <TYPE>
+     *            Type of the elements.
+     */
+    private static final class ElementIterator<TYPE> implements AutoCloseable {
+
+        private final File file;
+
+        private final QName elementName;
+
+        private final Class<TYPE> type;
+
+        private final InputStream in;
+
+        private final XMLStreamReader reader;
+
+        private final Unmarshaller unmarshaller;
+
+        public ElementIterator(final File file, final QName elementName, final Class<TYPE> type) throws UnmarshalObjectException {
+            super();
+            Contract.requireArgNotNull("file", file);
+            FileExistsValidator.requireArgValid("file", file);
+            IsFileValidator.requireArgValid("file", file);
+            Contract.requireArgNotNull("elementName", elementName);
+            Contract.requireArgNotNull("type", type);
+            this.file = file;
+            this.elementName = elementName;
+            this.type = type;
+            try {
+                this.in = new BufferedInputStream(Files.newInputStream(file.toPath()), BUFFER_SIZE);
+            } catch (final IOException ex) {
+                throw new UnmarshalObjectException("Unable to read XML from file: " + file, ex);
+            }
+            try {
+                this.reader = XML_INPUT_FACTORY.createXMLStreamReader(in, null);
+                this.unmarshaller = getContext(type).createUnmarshaller();
+            } catch (final XMLStreamException | JAXBException ex) {
+                closeQuietly();
+                throw new UnmarshalObjectException("Unable to read XML from file: " + file, ex);
+            }
+        }
+
+        public boolean hasNextElement() throws UnmarshalObjectException {
+            try {
+                while (true) {
+                    if (reader.getEventType() == XMLStreamConstants.START_ELEMENT && elementName.equals(reader.getName())) {
+                        return true;
+                    }
+                    if (!reader.hasNext()) {
+                        return false;
+                    }
+                    reader.next();
+                }
+            } catch (final XMLStreamException ex) {
+                throw new UnmarshalObjectException("Unable to read XML from file: " + file, ex);
+            }
+        }
+
+        public TYPE nextElement() throws UnmarshalObjectException {
+            try {
+                // Leaves the reader on the event after the end tag of the element
+                return unmarshaller.unmarshal(reader, type).getValue();
+            } catch (final JAXBException ex) {
+                throw new UnmarshalObjectException("Unable to read element '" + elementName + "' from file: " + file, ex);
+            }
+        }
+
+        @Override
+        public void close() {
+            closeQuietly();
+        }
+
+        private void closeQuietly() {
+            try {
+                if (reader != null) {
+                    reader.close();
+                }
+            } catch (final XMLStreamException ex) {
+                LOG.debug("Failed to close XML reader: {}", file, ex);
+            }
+            try {
+                in.close();
+            } catch (final IOException ex) {
+                LOG.debug("Failed to close file: {}", file, ex);
+            }
+        }
+
+    }
+
+    /**
+     * Result of reading a single file.
+     * 
+     * @param <TYPE>
+     *            Type of the object.
+     */
+    private static final class ReadResult<TYPE> {
+
+        private final File file;
+
+        private final TYPE obj;
+
+        private final Exception error;
+
+        public ReadResult(final File file, final TYPE obj, final Exception error) {
+            super();
+            this.file = file;
+            this.obj = obj;
+            this.error = error;
+        }
+
+    }
+
+    private static XMLInputFactory createXmlInputFactory() {
+        final XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+        return factory;
+    }
+
+    private static <T> Map<JAXBContext, T> createPool() {
+        return new LinkedHashMap<JAXBContext, T>(MAX_POOLED_PER_THREAD, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<JAXBContext, T> eldest) {
+                return size() > MAX_POOLED_PER_THREAD;
+            }
+        };
+    }
+
     /**
      * Returns the information if XML should be formatted.
      * 
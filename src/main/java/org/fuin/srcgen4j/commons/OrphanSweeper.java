@@ -0,0 +1,165 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.commons;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import jakarta.validation.constraints.NotNull;
+
+import org.fuin.objects4j.common.Contract;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Deletes files of a folder that were recorded by an {@link ArtifactWriter} during the previous run, but not during the current one.
+ * The recorded files of a run are stored in a manifest file ({@value #MANIFEST}) inside the folder. Files that were never recorded (for
+ * example written by generators on their own) are never deleted. Files excluded by {@link Folder#cleanAllowed(File)} are kept.
+ * Directories that become empty are removed as well.
+ */
+final class OrphanSweeper {
+
+    /** Name of the file inside a folder that lists the files recorded during the last run. */
+    static final String MANIFEST = ".srcgen4j-manifest";
+
+    private static final Logger LOG = LoggerFactory.getLogger(OrphanSweeper.class);
+
+    private static final String HEADER = "# srcgen4j generated files v1";
+
+    private final ArtifactWriter writer;
+
+    /**
+     * Constructor with writer.
+     * 
+     * @param writer
+     *            Writer that recorded the files of the current run.
+     */
+    OrphanSweeper(@NotNull final ArtifactWriter writer) {
+        super();
+        Contract.requireArgNotNull("writer", writer);
+        this.writer = writer;
+    }
+
+    /**
+     * Deletes the orphaned files of a folder and replaces the manifest with the files recorded during the current run. If there is no
+     * manifest yet, nothing is deleted.
+     * 
+     * @param folder
+     *            Folder to clean.
+     * 
+     * @return Number of deleted files and directories.
+     */
+    final int sweep(@NotNull final Folder folder) {
+        Contract.requireArgNotNull("folder", folder);
+        final File dir = folder.getCanonicalDir();
+        if (dir == null || !dir.isDirectory()) {
+            return 0;
+        }
+        final Path root = dir.toPath().toAbsolutePath().normalize();
+        final Path manifest = root.resolve(MANIFEST);
+        int deleted = 0;
+        try {
+            for (final String name : readManifest(manifest)) {
+                final Path path = root.resolve(name).normalize();
+                if (!path.startsWith(root) || path.equals(root)) {
+                    LOG.warn("Ignored invalid path in {}: {}", manifest, name);
+                } else if (!writer.isRecorded(path.toFile()) && folder.cleanAllowed(path.toFile()) && Files.deleteIfExists(path)) {
+                    LOG.debug("Deleted orphan: {}", path);
+                    deleted = deleted + 1 + deleteEmptyDirs(folder, root, path.getParent());
+                }
+            }
+            writeManifest(root, manifest);
+        } catch (final IOException ex) {
+            throw new RuntimeException("Failed to remove orphaned files from: " + dir, ex);
+        }
+        return deleted;
+    }
+
+    private static int deleteEmptyDirs(final Folder folder, final Path root, final Path start) throws IOException {
+        int deleted = 0;
+        Path dir = start;
+        while (dir != null && !dir.equals(root) && folder.cleanAllowed(dir.toFile())) {
+            try {
+                if (!Files.deleteIfExists(dir)) {
+                    break;
+                }
+            } catch (final DirectoryNotEmptyException ex) { // NOSONAR Directory is still in use
+                break;
+            }
+            deleted++;
+            dir = dir.getParent();
+        }
+        return deleted;
+    }
+
+    private static List<String> readManifest(final Path manifest) throws IOException {
+        final List<String> names = new ArrayList<>();
+        if (!Files.exists(manifest)) {
+            LOG.info("No manifest of the previous run - Nothing to sweep: {}", manifest);
+            return names;
+        }
+        try (final BufferedReader reader = Files.newBufferedReader(manifest, StandardCharsets.UTF_8)) {
+            final String header = reader.readLine();
+            if (!HEADER.equals(header)) {
+                LOG.warn("Unknown manifest format - Nothing to sweep: {}", manifest);
+                return names;
+            }
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    names.add(line);
+                }
+            }
+        }
+        return names;
+    }
+
+    private void writeManifest(final Path root, final Path manifest) throws IOException {
+        final List<String> names = new ArrayList<>();
+        for (final Path path : writer.getRecorded()) {
+            if (path.startsWith(root) && !path.equals(manifest)) {
+                names.add(root.relativize(path).toString().replace(File.separatorChar, '/'));
+            }
+        }
+        names.sort(null);
+        final Path tmp = Files.createTempFile(root, MANIFEST, ".tmp");
+        try {
+            try (final BufferedWriter out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                out.write(HEADER);
+                out.newLine();
+                for (final String name : names) {
+                    out.write(name);
+                    out.newLine();
+                }
+            }
+            Files.move(tmp, manifest, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+}
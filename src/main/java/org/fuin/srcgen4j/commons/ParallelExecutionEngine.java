@@ -0,0 +1,177 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.commons;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jakarta.validation.constraints.Min;
+
+import org.fuin.objects4j.common.Contract;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Executes independent parsers concurrently using a fixed number of worker threads. Every generator is started as soon as the model of
+ * it's parser is available, so generators of different parsers (and generators of the same parser) also run in parallel. The first
+ * failure cancels all outstanding work and is re-thrown to the caller.<br>
+ * <br>
+ * <b>CAUTION:</b> Parsers, generators and the context used by them must be thread safe if this engine is used.
+ */
+public final class ParallelExecutionEngine implements ExecutionEngine {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ParallelExecutionEngine.class);
+
+    private final int workerCount;
+
+    /**
+     * Constructor that uses one worker for every available processor.
+     */
+    public ParallelExecutionEngine() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor with number of workers.
+     * 
+     * @param workerCount
+     *            Maximum number of parsers and generators that run at the same time.
+     */
+    public ParallelExecutionEngine(@Min(1) final int workerCount) {
+        super();
+        if (workerCount < 1) {
+            throw new IllegalArgumentException("The argument 'workerCount' must be greater than zero, but was: " + workerCount);
+        }
+        this.workerCount = workerCount;
+    }
+
+    /**
+     * Returns the number of worker threads.
+     * 
+     * @return Maximum number of parsers and generators that run at the same time.
+     */
+    public final int getWorkerCount() {
+        return workerCount;
+    }
+
+    @Override
+    public final void execute(final List<ParserConfig> parserConfigs, final ExecutionSteps steps) throws ParseException, GenerateException {
+        Contract.requireArgNotNull("parserConfigs", parserConfigs);
+        Contract.requireArgNotNull("steps", steps);
+
+        if (parserConfigs.isEmpty()) {
+            return;
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(workerCount, new WorkerThreadFactory());
+        try {
+            final CompletableFuture<Void> firstFailure = new CompletableFuture<>();
+            final List<CompletableFuture<?>> all = new ArrayList<>();
+            for (final ParserConfig pc : parserConfigs) {
+                final CompletableFuture<Object> model = CompletableFuture.supplyAsync(() -> parse(steps, pc), executor);
+                all.add(model);
+                for (final GeneratorConfig gc : steps.findGenerators(pc)) {
+                    all.add(model.thenAcceptAsync(m -> generate(steps, gc, m), executor));
+                }
+            }
+            for (final CompletableFuture<?> future : all) {
+                future.whenComplete((result, ex) -> {
+                    if (ex != null) {
+                        firstFailure.completeExceptionally(ex);
+                    }
+                });
+            }
+            CompletableFuture.allOf(all.toArray(new CompletableFuture<?>[all.size()])).whenComplete((result, ex) -> {
+                firstFailure.complete(null);
+            });
+            try {
+                firstFailure.join();
+            } catch (final CompletionException ex) {
+                rethrow(ex);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+    }
+
+    private static Object parse(final ExecutionSteps steps, final ParserConfig pc) {
+        LOG.debug("Parsing: {}", pc.getName());
+        try {
+            return steps.parse(pc);
+        } catch (final ParseException ex) {
+            throw new CompletionException(ex);
+        }
+    }
+
+    private static void generate(final ExecutionSteps steps, final GeneratorConfig gc, final Object model) {
+        LOG.debug("Generating: {}", gc.getName());
+        try {
+            steps.generate(gc, model);
+        } catch (final GenerateException ex) {
+            throw new CompletionException(ex);
+        }
+    }
+
+    private static void rethrow(final CompletionException ex) throws ParseException, GenerateException {
+        Throwable cause = ex;
+        while ((cause instanceof CompletionException) && (cause.getCause() != null)) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof ParseException) {
+            throw (ParseException) cause;
+        }
+        if (cause instanceof GenerateException) {
+            throw (GenerateException) cause;
+        }
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        throw new IllegalStateException("Unexpected failure during parallel execution", cause);
+    }
+
+    /**
+     * Creates named daemon threads for the workers.
+     */
+    private static final class WorkerThreadFactory implements ThreadFactory {
+
+        private static final AtomicInteger POOL_NUMBER = new AtomicInteger();
+
+        private final int poolNumber = POOL_NUMBER.incrementAndGet();
+
+        private final AtomicInteger threadNumber = new AtomicInteger();
+
+        @Override
+        public final Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(runnable, "srcgen4j-" + poolNumber + "-worker-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+
+    }
+
+}
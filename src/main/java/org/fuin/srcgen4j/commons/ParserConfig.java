@@ -17,7 +17,7 @@
  */
 package org.fuin.srcgen4j.commons;
 
-import static org.fuin.utils4j.Utils4J.replaceVars;
+import static org.fuin.srcgen4j.commons.VariableTemplate.replaceVars;
 
 import java.util.Map;
 
@@ -32,7 +32,6 @@ import jakarta.xml.bind.annotation.XmlRootElement;
 
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.fuin.objects4j.common.Contract;
-import org.fuin.utils4j.Utils4J;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -61,7 +60,11 @@ public class ParserConfig extends AbstractNamedElement implements InitializableE
     private transient Parsers parent;
 
     @Nullable
-    private transient Parser<Object> parser;
+    private transient volatile Parser<Object> parser;
+
+    // Parser that is currently initialized - Only accessed while holding the lock of this instance
+    @Nullable
+    private transient Parser<Object> creating;
 
     /**
      * Package visible default constructor for deserialization.
@@ -138,16 +141,32 @@ public class ParserConfig extends AbstractNamedElement implements InitializableE
     }
 
     /**
-     * Returns an existing parser instance or creates a new one if it's the first call to this method.
+     * Returns an existing parser instance or creates a new one if it's the first call to this method. The method is thread safe and the
+     * parser is initialized only once. Other threads wait until the initialization is finished. A call from within
+     * {@link Parser#initialize(SrcGen4JContext, ParserConfig)} on the creating thread returns the instance that is currently initialized.
      * 
      * @return Parser of type {@link #className}.
      */
-    @SuppressWarnings("unchecked")
     @NotNull
     public final Parser<Object> getParser() {
-        if (parser != null) {
-            return parser;
+        Parser<Object> p = parser;
+        if (p == null) {
+            synchronized (this) {
+                p = parser;
+                if (p == null && creating != null) {
+                    return creating;
+                }
+                if (p == null) {
+                    p = createParser();
+                    parser = p;
+                }
+            }
         }
+        return p;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Parser<Object> createParser() {
         LOG.info("Creating parser: {}", className);
         if (className == null) {
             throw new IllegalStateException("Class name was not set: " + getName());
@@ -155,13 +174,18 @@ public class ParserConfig extends AbstractNamedElement implements InitializableE
         if (context == null) {
             throw new IllegalStateException("Context class loader was not set: " + getName() + " / " + className);
         }
-        final Object obj = Utils4J.createInstance(className, context.getClassLoader());
+        final Object obj = InstanceRegistry.createInstance(className, context.getClassLoader());
         if (!(obj instanceof Parser<?>)) {
             throw new IllegalStateException("Expected class to be of type '" + Parser.class.getName() + "', but was: " + className);
         }
-        parser = (Parser<Object>) obj;
-        parser.initialize(context, this);
-        return parser;
+        final Parser<Object> p = (Parser<Object>) obj;
+        creating = p;
+        try {
+            p.initialize(context, this);
+        } finally {
+            creating = null;
+        }
+        return p;
     }
 
     /**
@@ -17,7 +17,7 @@
  */
 package org.fuin.srcgen4j.commons;
 
-import static org.fuin.utils4j.Utils4J.replaceVars;
+import static org.fuin.srcgen4j.commons.VariableTemplate.replaceVars;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -0,0 +1,49 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.commons;
+
+import java.util.List;
+
+import org.fuin.objects4j.common.Contract;
+
+/**
+ * Executes all parsers and generators one after another on the calling thread. This is the default engine.
+ */
+public final class SequentialExecutionEngine implements ExecutionEngine {
+
+    /**
+     * Default constructor.
+     */
+    public SequentialExecutionEngine() {
+        super();
+    }
+
+    @Override
+    public final void execute(final List<ParserConfig> parserConfigs, final ExecutionSteps steps) throws ParseException, GenerateException {
+        Contract.requireArgNotNull("parserConfigs", parserConfigs);
+        Contract.requireArgNotNull("steps", steps);
+
+        for (final ParserConfig pc : parserConfigs) {
+            final Object model = steps.parse(pc);
+            for (final GeneratorConfig gc : steps.findGenerators(pc)) {
+                steps.generate(gc, model);
+            }
+        }
+    }
+
+}
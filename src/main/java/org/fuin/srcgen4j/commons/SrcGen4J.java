@@ -20,20 +20,24 @@ package org.fuin.srcgen4j.commons;
 import java.io.File;
 import java.io.FileFilter;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import jakarta.validation.constraints.NotNull;
 
-import org.apache.commons.io.filefilter.IOFileFilter;
-import org.apache.commons.io.filefilter.OrFileFilter;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.fuin.objects4j.common.Contract;
 import org.fuin.utils4j.classpath.Handler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Parses models based on a configuration and generates something with it.
+ * Parses models based on a configuration and generates something with it. Builds that use the same configuration (and so the same
+ * {@link ArtifactWriter}) are executed one after another, even if they are started with different instances of this class.
  */
 public final class SrcGen4J {
 
@@ -41,10 +45,20 @@ public final class SrcGen4J {
 
     private final SrcGen4JConfig config;
 
-    private FileFilter fileFilter;
+    private final SrcGen4JContext context;
+
+    private final ExecutionEngine engine;
+
+    private volatile FileFilterIndex fileFilter;
+
+    private CleanMode cleanMode = CleanMode.FULL;
+
+    private BuildCache buildCache;
+
+    private File trashDir;
 
     /**
-     * Constructor with configuration.
+     * Constructor with configuration. Parsers and generators are executed sequentially.
      * 
      * @param config
      *            Initialized configuration (Method {@link SrcGen4JConfig#init(SrcGen4JContext, File)} was at least called once before).
@@ -52,17 +66,118 @@ public final class SrcGen4J {
      *            Build context.
      */
     public SrcGen4J(@NotNull final SrcGen4JConfig config, @NotNull final SrcGen4JContext context) {
+        this(config, context, new SequentialExecutionEngine());
+    }
+
+    /**
+     * Constructor with configuration and execution engine.
+     * 
+     * @param config
+     *            Initialized configuration (Method {@link SrcGen4JConfig#init(SrcGen4JContext, File)} was at least called once before).
+     * @param context
+     *            Build context.
+     * @param engine
+     *            Engine that executes the parsers and generators.
+     */
+    public SrcGen4J(@NotNull final SrcGen4JConfig config, @NotNull final SrcGen4JContext context, @NotNull final ExecutionEngine engine) {
         super();
         Contract.requireArgNotNull("config", config);
         Contract.requireArgNotNull("context", context);
+        Contract.requireArgNotNull("engine", engine);
         if (!config.isInitialized()) {
             throw new IllegalArgumentException("The configuration is not initialized");
         }
         this.config = config;
+        this.context = context;
+        this.engine = engine;
         Handler.add();
     }
 
-    private void cleanFolders() {
+    /**
+     * Returns the configuration.
+     * 
+     * @return Initialized configuration.
+     */
+    @NotNull
+    public final SrcGen4JConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Returns the engine that executes the parsers and generators.
+     * 
+     * @return Execution engine.
+     */
+    @NotNull
+    public final ExecutionEngine getExecutionEngine() {
+        return engine;
+    }
+
+    /**
+     * Returns the mode used for cleaning folders during a full build.
+     * 
+     * @return Clean mode - Defaults to {@link CleanMode#FULL}.
+     */
+    @NotNull
+    public final CleanMode getCleanMode() {
+        return cleanMode;
+    }
+
+    /**
+     * Sets the mode used for cleaning folders during a full build.
+     * 
+     * @param cleanMode
+     *            Clean mode to set.
+     */
+    public final void setCleanMode(@NotNull final CleanMode cleanMode) {
+        Contract.requireArgNotNull("cleanMode", cleanMode);
+        this.cleanMode = cleanMode;
+    }
+
+    /**
+     * Returns the cache used for restoring the output of generators during a full build.
+     * 
+     * @return Build cache or <code>null</code> if no cache is used.
+     */
+    @Nullable
+    public final BuildCache getBuildCache() {
+        return buildCache;
+    }
+
+    /**
+     * Sets the cache used for restoring the output of generators during a full build. Generators with unchanged input, configuration and
+     * binaries are not executed, but their output is copied from the cache. Parsers are skipped if all their generators were restored.
+     * 
+     * @param buildCache
+     *            Build cache or <code>null</code> to disable caching.
+     */
+    public final void setBuildCache(@Nullable final BuildCache buildCache) {
+        this.buildCache = buildCache;
+    }
+
+    /**
+     * Returns the directory used for the content of cleaned folders until it is deleted.
+     * 
+     * @return Trash directory or <code>null</code> if the content is moved next to the cleaned folders.
+     */
+    @Nullable
+    public final File getTrashDir() {
+        return trashDir;
+    }
+
+    /**
+     * Sets the directory used for the content of cleaned folders until it is deleted (see {@link DirectoryCleaner}). It should be outside
+     * of any input directory, but on the same file system as the cleaned folders.
+     * 
+     * @param trashDir
+     *            Trash directory or <code>null</code> to move the content next to the cleaned folders.
+     */
+    public final void setTrashDir(@Nullable final File trashDir) {
+        this.trashDir = trashDir;
+    }
+
+    private List<Folder> findCleanFolders() {
+        final List<Folder> cleanFolders = new ArrayList<>();
         final List<Project> projects = config.getProjects();
         if ((projects == null) || (projects.isEmpty())) {
             LOG.warn("No projects configured!");
@@ -75,8 +190,7 @@ public final class SrcGen4J {
                     for (final Folder folder : folders) {
                         final File dir = folder.getCanonicalDir();
                         if (folder.isClean() && dir.exists()) {
-                            LOG.info("Cleaning: {}", dir);
-                            cleanDirectory(dir, folder);
+                            cleanFolders.add(folder);
                         } else {
                             LOG.debug("Nothing to to [clean= {}, exists={}]: {}", folder.isClean(), dir.exists(), dir);
                         }
@@ -84,47 +198,67 @@ public final class SrcGen4J {
                 }
             }
         }
+        return cleanFolders;
     }
 
-    private boolean cleanDirectory(final File dir, final Folder folder) {
+    private void cleanFolders(final DirectoryCleaner cleaner) {
+        for (final Folder folder : findCleanFolders()) {
+            LOG.info("Cleaning: {}", folder.getCanonicalDir());
+            cleaner.clean(folder);
+        }
+    }
 
-        File[] files = dir.listFiles();
-        if (files == null) {
-            return true;
+    private void sweepFolders() {
+        final ArtifactWriter writer = config.getArtifactWriter();
+        if (writer == null) {
+            throw new IllegalStateException("The configuration has no artifact writer");
         }
-        for (final File file : files) {
-            if (folder.cleanAllowed(file)) {
-                if (file.isDirectory()) {
-                    if (cleanDirectory(file, folder)) {
-                        delete(file);
-                    }
-                } else {
-                    delete(file);
-                }
-            } else {
-                LOG.info("Excluded from cleaning: {}", file);
-            }
+        final OrphanSweeper sweeper = new OrphanSweeper(writer);
+        for (final Folder folder : findCleanFolders()) {
+            final int count = sweeper.sweep(folder);
+            LOG.info("Removed {} orphaned files and directories from: {}", count, folder.getCanonicalDir());
+        }
+    }
+
+    private void resetArtifactWriter() {
+        final ArtifactWriter writer = config.getArtifactWriter();
+        if (writer != null) {
+            writer.reset();
         }
-        files = dir.listFiles();
-        final boolean empty = (files == null || files.length == 0);
-        if (!empty) {
-            LOG.debug("Directory still contains {} files after cleaning", files.length);
+    }
+
+    private void beginMarkerBatch(final Set<File> files) {
+        if (context instanceof DefaultContext) {
+            ((DefaultContext) context).beginMarkerBatch(files);
         }
-        return empty;
     }
 
-    private void delete(final File file) {
-        if (!file.delete()) {
-            if (file.isDirectory()) {
-                LOG.error("Couldn't delete directory: {}", file);
-            } else {
-                LOG.error("Couldn't delete file: {}", file);
+    private void commitMarkerBatch() {
+        if (context instanceof DefaultContext) {
+            final FileMarkerDelta delta = ((DefaultContext) context).commitMarkerBatch();
+            LOG.debug("Markers changed: {}", delta);
+        }
+    }
+
+    private void flushMarkers() {
+        if (context instanceof DefaultContext) {
+            final AsyncMarkerLogger markerLogger = ((DefaultContext) context).getMarkerLogger();
+            if (markerLogger != null) {
+                markerLogger.flush();
             }
         }
     }
 
+    private void logArtifactWriter() {
+        final ArtifactWriter writer = config.getArtifactWriter();
+        if (writer != null) {
+            LOG.info("Artifacts: {}", writer);
+        }
+    }
+
     /**
-     * Parse and generate.
+     * Parse and generate. Depending on the {@link #getCleanMode()} the folders are either cleaned before parsing starts or orphaned files
+     * are removed after all generators finished successfully.
      * 
      * @throws ParseException
      *             Error during parse process.
@@ -132,31 +266,55 @@ public final class SrcGen4J {
      *             Error during generation process.
      */
     public final void execute() throws ParseException, GenerateException {
+        synchronized (config) {
+            executeFull();
+        }
+    }
 
-        LOG.info("Executing full build");
+    private void executeFull() throws ParseException, GenerateException {
 
-        cleanFolders();
+        LOG.info("Executing full build");
 
-        // Parse models & generate
-        final Parsers parsers = config.getParsers();
-        if (parsers == null) {
-            LOG.warn("No parsers element");
+        final DirectoryCleaner cleaner;
+        if (cleanMode == CleanMode.FULL) {
+            cleaner = new DirectoryCleaner(Runtime.getRuntime().availableProcessors(), trashDir);
         } else {
-            final List<ParserConfig> parserConfigs = parsers.getList();
-            if (parserConfigs == null) {
-                LOG.warn("No parsers configured");
+            cleaner = null;
+        }
+        try (cleaner) {
+            if (cleaner != null) {
+                cleanFolders(cleaner);
+            }
+            resetArtifactWriter();
+
+            // Parse models & generate while the old files are deleted in the background
+            final Parsers parsers = config.getParsers();
+            if (parsers == null) {
+                LOG.warn("No parsers element");
             } else {
-                for (final ParserConfig pc : parserConfigs) {
-                    final Parser<Object> parser = pc.getParser();
-                    final Object model = parser.parse();
-                    final List<GeneratorConfig> generatorConfigs = config.findGeneratorsForParser(pc.getName());
-                    for (final GeneratorConfig gc : generatorConfigs) {
-                        final Generator<Object> generator = gc.getGenerator();
-                        generator.generate(model, false);
-                    }
+                final List<ParserConfig> parserConfigs = parsers.getList();
+                if (parserConfigs == null) {
+                    LOG.warn("No parsers configured");
+                } else if (buildCache == null) {
+                    engine.execute(parserConfigs, new FullBuildSteps(null));
+                } else if (config.getArtifactWriter() == null) {
+                    LOG.warn("The configuration has no artifact writer - Build cache is not used");
+                    engine.execute(parserConfigs, new FullBuildSteps(null));
+                } else {
+                    buildCache.prepare(getFileFilter());
+                    final FullBuildSteps steps = new FullBuildSteps(buildCache);
+                    engine.execute(steps.restore(parserConfigs), steps);
+                    LOG.info("Build cache: {} hits, {} misses", buildCache.getHitCount(), buildCache.getMissCount());
+                    buildCache.evict();
                 }
             }
+            if (cleanMode == CleanMode.SWEEP) {
+                sweepFolders();
+            }
+        } finally {
+            flushMarkers();
         }
+        logArtifactWriter();
 
     }
 
@@ -167,28 +325,37 @@ public final class SrcGen4J {
      */
     @NotNull
     public FileFilter getFileFilter() {
-        if (fileFilter == null) {
-            final List<IOFileFilter> filters = new ArrayList<>();
-            final Parsers parsers = config.getParsers();
-            if (parsers != null) {
-                final List<ParserConfig> parserConfigs = parsers.getList();
-                if (parserConfigs != null) {
-                    for (final ParserConfig pc : parserConfigs) {
-                        final Parser<Object> pars = pc.getParser();
-                        if (pars instanceof IncrementalParser) {
-                            final IncrementalParser<?> parser = (IncrementalParser<?>) pars;
-                            filters.add(parser.getFileFilter());
-                        }
-                    }
-                }
-            }
-            fileFilter = new OrFileFilter(filters);
+        return getFileFilterIndex();
+    }
+
+    /**
+     * Returns the combined filter of all incremental parsers that also knows which parsers accept a file. The index is created again if
+     * parser configurations were added, removed or replaced since it was created.
+     * 
+     * @return File filter index.
+     */
+    @NotNull
+    public final FileFilterIndex getFileFilterIndex() {
+        final Parsers parsers = config.getParsers();
+        final List<ParserConfig> parserConfigs;
+        if ((parsers == null) || (parsers.getList() == null)) {
+            parserConfigs = Collections.emptyList();
+        } else {
+            parserConfigs = parsers.getList();
+        }
+        FileFilterIndex index = fileFilter;
+        if (index == null || !index.isCreatedFrom(parserConfigs)) {
+            index = new FileFilterIndex(parserConfigs);
+            fileFilter = index;
         }
-        return fileFilter;
+        return index;
     }
 
     /**
-     * Incremental parse and generate. The class loader of this class will be used.
+     * Incremental parse and generate. The class loader of this class will be used. Each incremental parser only receives the files accepted
+     * by its {@link IncrementalParser#getFileFilter()}; parsers that accept none of the files and their generators are skipped. If the
+     * context is a {@link DefaultContext}, the markers of the given files are replaced with the ones added during this build in a single
+     * marker batch.
      * 
      * @param files
      *            Set of files to parse for the model.
@@ -199,8 +366,13 @@ public final class SrcGen4J {
      *             Error during generation process.
      */
     public final void execute(@NotNull final Set<File> files) throws ParseException, GenerateException {
-
         Contract.requireArgNotNull("files", files);
+        synchronized (config) {
+            executeIncremental(files);
+        }
+    }
+
+    private void executeIncremental(final Set<File> files) throws ParseException, GenerateException {
 
         LOG.info("Executing incremental build ({} files)", files.size());
         if (LOG.isDebugEnabled()) {
@@ -214,30 +386,199 @@ public final class SrcGen4J {
             return;
         }
 
-        // Parse models & generate
-        final Parsers parsers = config.getParsers();
-        if (parsers == null) {
-            LOG.warn("No parsers element");
-        } else {
-            final List<ParserConfig> parserConfigs = parsers.getList();
-            if (parserConfigs == null) {
-                LOG.warn("No parsers configured");
+        beginMarkerBatch(files);
+        try {
+            // Parse models & generate
+            final Parsers parsers = config.getParsers();
+            if (parsers == null) {
+                LOG.warn("No parsers element");
+            } else {
+                final List<ParserConfig> parserConfigs = parsers.getList();
+                if (parserConfigs == null) {
+                    LOG.warn("No parsers configured");
+                } else {
+                    final List<ParserConfig> incrementalParserConfigs = new ArrayList<>();
+                    final Map<String, Set<File>> parserFiles = new HashMap<>();
+                    for (final Map.Entry<ParserConfig, Set<File>> entry : getFileFilterIndex().route(files).entrySet()) {
+                        incrementalParserConfigs.add(entry.getKey());
+                        parserFiles.put(entry.getKey().getName(), entry.getValue());
+                    }
+                    if (incrementalParserConfigs.isEmpty()) {
+                        LOG.info("No parser accepts the changed files");
+                    } else {
+                        resetArtifactWriter();
+                        engine.execute(incrementalParserConfigs, new IncrementalBuildSteps(parserFiles));
+                        logArtifactWriter();
+                    }
+                }
+            }
+        } finally {
+            commitMarkerBatch();
+            flushMarkers();
+        }
+
+    }
+
+    /**
+     * Parse and generate only what changed since the last successful call. The input directories of the store are scanned with the
+     * {@link #getFileFilter()} and only added or modified files are passed to the incremental parsers. If input files were removed, a full
+     * build is executed because the output derived from those files cannot be removed incrementally. The store is only saved if the build
+     * succeeded, so a failed build will be repeated with the same changes next time.
+     * 
+     * @param store
+     *            Snapshot of the input files from the last successful build.
+     * 
+     * @return Changes that were processed.
+     * 
+     * @throws ParseException
+     *             Error during parse process.
+     * @throws GenerateException
+     *             Error during generation process.
+     */
+    @NotNull
+    public final InputChanges execute(@NotNull final InputFingerprintStore store) throws ParseException, GenerateException {
+
+        Contract.requireArgNotNull("store", store);
+
+        synchronized (config) {
+            final InputChanges changes = store.scan(getFileFilter());
+            LOG.info("Input changes since last build: {}", changes);
+            if (changes.isEmpty()) {
+                return changes;
+            }
+            if (changes.getRemoved().isEmpty()) {
+                executeIncremental(changes.getChangedFiles());
             } else {
-                for (final ParserConfig pc : parserConfigs) {
-                    final Parser<Object> pars = pc.getParser();
-                    if (pars instanceof IncrementalParser) {
-                        final IncrementalParser<?> parser = (IncrementalParser<?>) pars;
-                        final Object model = parser.parse(files);
-                        final List<GeneratorConfig> generatorConfigs = config.findGeneratorsForParser(pc.getName());
-                        for (final GeneratorConfig gc : generatorConfigs) {
-                            final Generator<Object> generator = gc.getGenerator();
-                            generator.generate(model, true);
+                LOG.info("Input files were removed - Executing full build instead of incremental one");
+                executeFull();
+            }
+            store.save();
+            return changes;
+        }
+
+    }
+
+    /**
+     * Steps for a full build.
+     */
+    private final class FullBuildSteps implements ExecutionSteps {
+
+        private final BuildCache cache;
+
+        private final Map<String, String> keys;
+
+        private final Set<String> restored;
+
+        public FullBuildSteps(final BuildCache cache) {
+            super();
+            this.cache = cache;
+            this.keys = new HashMap<>();
+            this.restored = new HashSet<>();
+        }
+
+        /**
+         * Restores the output of all generators found in the cache.
+         * 
+         * @param parserConfigs
+         *            All parsers.
+         * 
+         * @return Parsers that still have to be executed.
+         */
+        public final List<ParserConfig> restore(final List<ParserConfig> parserConfigs) {
+            final ArtifactWriter writer = config.getArtifactWriter();
+            final List<ParserConfig> remaining = new ArrayList<>();
+            for (final ParserConfig pc : parserConfigs) {
+                final List<GeneratorConfig> generators = config.findGeneratorsForParser(pc.getName());
+                final String inputsHash = cache.hashInputs(pc);
+                if (inputsHash == null || generators.isEmpty()) {
+                    remaining.add(pc);
+                } else {
+                    boolean allRestored = true;
+                    for (final GeneratorConfig gc : generators) {
+                        if (!cache.isCacheable(gc)) {
+                            LOG.debug("Generator is not cacheable: {}", gc.getName());
+                            allRestored = false;
+                        } else {
+                            final String key = cache.createKey(inputsHash, pc, gc);
+                            if (key == null) {
+                                allRestored = false;
+                            } else if (cache.restore(key, gc, config, writer)) {
+                                restored.add(gc.getName());
+                            } else {
+                                keys.put(gc.getName(), key);
+                                allRestored = false;
+                            }
                         }
+                    }
+                    if (allRestored) {
+                        LOG.info("Output of all generators restored from cache - Skipping parser: {}", pc.getName());
                     } else {
-                        LOG.debug("No incremental parser: {}", pars.getClass().getName());
+                        remaining.add(pc);
                     }
                 }
             }
+            return remaining;
+        }
+
+        @Override
+        public final List<GeneratorConfig> findGenerators(final ParserConfig parserConfig) {
+            final List<GeneratorConfig> generators = config.findGeneratorsForParser(parserConfig.getName());
+            if (restored.isEmpty()) {
+                return generators;
+            }
+            final List<GeneratorConfig> remaining = new ArrayList<>();
+            for (final GeneratorConfig gc : generators) {
+                if (!restored.contains(gc.getName())) {
+                    remaining.add(gc);
+                }
+            }
+            return remaining;
+        }
+
+        @Override
+        public final Object parse(final ParserConfig parserConfig) throws ParseException {
+            return parserConfig.getParser().parse();
+        }
+
+        @Override
+        public final void generate(final GeneratorConfig generatorConfig, final Object model) throws GenerateException {
+            final Generator<Object> generator = generatorConfig.getGenerator();
+            generator.generate(model, false);
+            final String key = keys.get(generatorConfig.getName());
+            if (key != null) {
+                cache.store(key, config.getArtifactWriter().getOutputs(generatorConfig.getName()));
+            }
+        }
+
+    }
+
+    /**
+     * Steps for an incremental build.
+     */
+    private final class IncrementalBuildSteps implements ExecutionSteps {
+
+        private final Map<String, Set<File>> parserFiles;
+
+        public IncrementalBuildSteps(final Map<String, Set<File>> parserFiles) {
+            super();
+            this.parserFiles = parserFiles;
+        }
+
+        @Override
+        public final List<GeneratorConfig> findGenerators(final ParserConfig parserConfig) {
+            return config.findGeneratorsForParser(parserConfig.getName());
+        }
+
+        @Override
+        public final Object parse(final ParserConfig parserConfig) throws ParseException {
+            final IncrementalParser<?> parser = (IncrementalParser<?>) parserConfig.getParser();
+            return parser.parse(parserFiles.get(parserConfig.getName()));
+        }
+
+        @Override
+        public final void generate(final GeneratorConfig generatorConfig, final Object model) throws GenerateException {
+            final Generator<Object> generator = generatorConfig.getGenerator();
+            generator.generate(model, true);
         }
 
     }
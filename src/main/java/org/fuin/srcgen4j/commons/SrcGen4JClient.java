@@ -0,0 +1,180 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.commons;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import org.fuin.objects4j.common.Contract;
+
+/**
+ * Sends build requests to a {@link SrcGen4JServer}. The connection is opened on the first request and reused for all following
+ * requests. Instances are not thread safe.
+ */
+public final class SrcGen4JClient implements AutoCloseable {
+
+    private final Path socketFile;
+
+    private SocketChannel channel;
+
+    private BufferedReader reader;
+
+    private Writer writer;
+
+    /**
+     * Constructor with socket file.
+     * 
+     * @param socketFile
+     *            File used by the server for the Unix domain socket.
+     */
+    public SrcGen4JClient(@NotNull final Path socketFile) {
+        super();
+        Contract.requireArgNotNull("socketFile", socketFile);
+        this.socketFile = socketFile;
+    }
+
+    /**
+     * Requests a full build.
+     * 
+     * @param id
+     *            Identifier of the configuration on the server.
+     * 
+     * @throws ParseException
+     *             Error during parse process.
+     * @throws GenerateException
+     *             Error during generation process.
+     * @throws IOException
+     *             Communication error, unknown configuration or any other failure on the server.
+     */
+    public final void execute(@NotEmpty final String id) throws ParseException, GenerateException, IOException {
+        Contract.requireArgNotEmpty("id", id);
+        send(SrcGen4JServer.FULL, id, Collections.emptySet());
+    }
+
+    /**
+     * Requests an incremental build.
+     * 
+     * @param id
+     *            Identifier of the configuration on the server.
+     * @param files
+     *            Set of files to parse for the model. Relative files are resolved against the working directory of the client. File names
+     *            must not contain line breaks.
+     * 
+     * @throws ParseException
+     *             Error during parse process.
+     * @throws GenerateException
+     *             Error during generation process.
+     * @throws IOException
+     *             Communication error, unknown configuration or any other failure on the server.
+     */
+    public final void execute(@NotEmpty final String id, @NotNull final Set<File> files)
+            throws ParseException, GenerateException, IOException {
+        Contract.requireArgNotEmpty("id", id);
+        Contract.requireArgNotNull("files", files);
+        send(SrcGen4JServer.INCREMENTAL, id, files);
+    }
+
+    @Override
+    public final void close() throws IOException {
+        if (channel != null) {
+            try {
+                channel.close();
+            } finally {
+                channel = null;
+                reader = null;
+                writer = null;
+            }
+        }
+    }
+
+    private void send(final String command, final String id, final Set<File> files)
+            throws ParseException, GenerateException, IOException {
+        final List<String> paths = new ArrayList<>(files.size());
+        for (final File file : files) {
+            final String path = file.getAbsolutePath();
+            if (path.indexOf('\n') >= 0 || path.indexOf('\r') >= 0) {
+                throw new IllegalArgumentException("File names with line breaks are not supported: '" + path + "'");
+            }
+            paths.add(path);
+        }
+        connect();
+        final String response;
+        try {
+            writer.write(command + " " + id + "\n");
+            for (final String path : paths) {
+                writer.write(path);
+                writer.write('\n');
+            }
+            writer.write('\n');
+            writer.flush();
+            response = reader.readLine();
+        } catch (final IOException ex) {
+            close();
+            throw ex;
+        }
+        if (response == null) {
+            close();
+            throw new IOException("Server closed the connection: " + socketFile);
+        }
+        if (response.equals(SrcGen4JServer.OK)) {
+            return;
+        }
+        final String[] parts = response.split(" ", 3);
+        final String message = parts.length > 2 ? parts[2] : response;
+        if (parts.length > 1 && parts[0].equals(SrcGen4JServer.ERROR)) {
+            if (parts[1].equals(SrcGen4JServer.PARSE)) {
+                throw new ParseException(message);
+            }
+            if (parts[1].equals(SrcGen4JServer.GENERATE)) {
+                throw new GenerateException(message);
+            }
+        }
+        throw new IOException("Build request failed: " + message);
+    }
+
+    private void connect() throws IOException {
+        if (channel == null) {
+            channel = SocketChannel.open(StandardProtocolFamily.UNIX);
+            try {
+                channel.connect(UnixDomainSocketAddress.of(socketFile));
+            } catch (final IOException ex) {
+                channel.close();
+                channel = null;
+                throw ex;
+            }
+            reader = new BufferedReader(Channels.newReader(channel, StandardCharsets.UTF_8));
+            writer = Channels.newWriter(channel, StandardCharsets.UTF_8);
+        }
+    }
+
+}
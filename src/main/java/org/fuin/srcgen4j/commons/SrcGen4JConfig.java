@@ -20,8 +20,16 @@ package org.fuin.srcgen4j.commons;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
@@ -81,6 +89,22 @@ public class SrcGen4JConfig {
     @XmlTransient
     private boolean initialized = false;
 
+    @Nullable
+    @XmlTransient
+    private ArtifactWriter artifactWriter;
+
+    @Nullable
+    @XmlTransient
+    private Map<String, Map<String, ArtifactRoute>> routeIndex;
+
+    @Nullable
+    @XmlTransient
+    private Map<String, List<GeneratorConfig>> parserIndex;
+
+    @Nullable
+    @XmlTransient
+    private Map<String, Map<String, Folder>> folderIndex;
+
     /**
      * Default constructor.
      */
@@ -136,6 +160,8 @@ public class SrcGen4JConfig {
      */
     public final void setProjects(@Nullable final List<Project> projects) {
         this.projects = projects;
+        this.folderIndex = null;
+        this.routeIndex = null;
     }
 
     /**
@@ -190,6 +216,8 @@ public class SrcGen4JConfig {
      */
     public final void setGenerators(@Nullable final Generators generators) {
         this.generators = generators;
+        this.routeIndex = null;
+        this.parserIndex = null;
     }
 
     /**
@@ -201,6 +229,16 @@ public class SrcGen4JConfig {
         return initialized;
     }
 
+    /**
+     * Returns the writer shared by all generators of this configuration.
+     * 
+     * @return Artifact writer or <code>null</code> if {@link #init(SrcGen4JContext, File)} was not called yet.
+     */
+    @Nullable
+    public final ArtifactWriter getArtifactWriter() {
+        return artifactWriter;
+    }
+
     private void initVarMap(final File rootDir) {
         varMap = new HashMap<>();
         varMap.put(ROOT_DIR_VAR, rootDir.toString());
@@ -215,6 +253,41 @@ public class SrcGen4JConfig {
             }
             varMap = new VariableResolver(varMap).getResolved();
         }
+        varMap = VariableScope.of(varMap);
+    }
+
+    private void initIndexes() {
+        final Map<String, Map<String, Folder>> folders = new HashMap<>();
+        if (projects != null) {
+            for (final Project project : projects) {
+                final Map<String, Folder> projectFolders = new HashMap<>();
+                if (project.getFolders() != null) {
+                    for (final Folder folder : project.getFolders()) {
+                        projectFolders.putIfAbsent(folder.getName(), folder);
+                    }
+                }
+                folders.putIfAbsent(project.getName(), projectFolders);
+            }
+        }
+        final Map<String, Map<String, ArtifactRoute>> routes = new HashMap<>();
+        final Map<String, List<GeneratorConfig>> byParser = new HashMap<>();
+        if (generators != null && generators.getList() != null) {
+            for (final GeneratorConfig gc : generators.getList()) {
+                byParser.computeIfAbsent(gc.getParser(), name -> new ArrayList<>()).add(gc);
+                if (!routes.containsKey(gc.getName())) {
+                    final Map<String, ArtifactRoute> artifactRoutes = new HashMap<>();
+                    if (gc.getArtifacts() != null) {
+                        for (final Artifact artifact : gc.getArtifacts()) {
+                            artifactRoutes.putIfAbsent(artifact.getName(), new ArtifactRoute(artifact));
+                        }
+                    }
+                    routes.put(gc.getName(), artifactRoutes);
+                }
+            }
+        }
+        folderIndex = folders;
+        routeIndex = routes;
+        parserIndex = byParser;
     }
 
     /**
@@ -238,6 +311,9 @@ public class SrcGen4JConfig {
         IsDirectoryValidator.requireArgValid(ROOT_DIR_VAR, rootDir);
 
         initVarMap(rootDir);
+        if (artifactWriter == null) {
+            artifactWriter = new ArtifactWriter();
+        }
         if (variables != null) {
             variables.init(varMap);
         }
@@ -252,10 +328,83 @@ public class SrcGen4JConfig {
         if (parsers != null) {
             parsers.init(context, this, varMap);
         }
+        initIndexes();
         initialized = true;
         return this;
     }
 
+    /**
+     * Creates and initializes all parsers, generators and artifact factories concurrently, so this work is not done on the first build.
+     * Artifact factories are only found if the generator specific configuration implements {@link ArtifactFactoryConfigProvider}.
+     * Elements that failed are created again on first use.
+     * 
+     * @param threads
+     *            Number of threads to use.
+     * 
+     * @return Failures by element (for example "generator 'abc'") in configuration order - Empty if all elements were created.
+     */
+    @NotNull
+    public final Map<String, Exception> warmUp(final int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("The argument 'threads' must be greater than zero, but was: " + threads);
+        }
+        if (!initialized) {
+            throw new IllegalStateException("The configuration was not initialized");
+        }
+
+        final Map<String, Callable<Object>> tasks = new LinkedHashMap<>();
+        if (parsers != null && parsers.getList() != null) {
+            for (final ParserConfig pc : parsers.getList()) {
+                tasks.put("parser '" + pc.getName() + "'", pc::getParser);
+            }
+        }
+        if (generators != null && generators.getList() != null) {
+            for (final GeneratorConfig gc : generators.getList()) {
+                tasks.put("generator '" + gc.getName() + "'", gc::getGenerator);
+                if (gc.getConfig() != null && gc.getConfig().getCfg() instanceof ArtifactFactoryConfigProvider) {
+                    final ArtifactFactoryConfigProvider provider = (ArtifactFactoryConfigProvider) gc.getConfig().getCfg();
+                    for (final ArtifactFactoryConfig afc : provider.getArtifactFactoryConfigs()) {
+                        tasks.put("artifact factory '" + afc.getArtifact() + "' of generator '" + gc.getName() + "'", afc::getFactory);
+                    }
+                }
+            }
+        }
+
+        final Map<String, Exception> failures = new LinkedHashMap<>();
+        if (tasks.isEmpty()) {
+            return failures;
+        }
+        final AtomicInteger threadNumber = new AtomicInteger();
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, tasks.size()), runnable -> {
+            final Thread thread = new Thread(runnable, "srcgen4j-warm-up-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            final Map<String, Future<Object>> futures = new LinkedHashMap<>();
+            for (final Map.Entry<String, Callable<Object>> task : tasks.entrySet()) {
+                futures.put(task.getKey(), executor.submit(task.getValue()));
+            }
+            for (final Map.Entry<String, Future<Object>> future : futures.entrySet()) {
+                try {
+                    future.getValue().get();
+                } catch (final ExecutionException ex) {
+                    final Exception cause = (ex.getCause() instanceof Exception ? (Exception) ex.getCause() : ex);
+                    LOG.error("Warm-up failed for {}", future.getKey(), cause);
+                    failures.put(future.getKey(), cause);
+                } catch (final InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    failures.put(future.getKey(), ex);
+                    break;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        LOG.info("Warm-up created {} elements with {} failures", tasks.size() - failures.size(), failures.size());
+        return failures;
+    }
+
     /**
      * Returns a target directory for a given combination of generator name and artifact name.
      * 
@@ -291,7 +440,9 @@ public class SrcGen4JConfig {
     }
 
     /**
-     * Returns a target directory for a given combination of generator name, artifact name and target sub path.
+     * Returns a target directory for a given combination of generator name, artifact name and target sub path. After
+     * {@link #init(SrcGen4JContext, File)} was called, generators, artifacts and folders are looked up using indexes and successfully
+     * resolved folders are cached per generator, artifact and target.
      * 
      * @param generatorName
      *            Name of the generator.
@@ -322,21 +473,60 @@ public class SrcGen4JConfig {
         Contract.requireArgNotNull("generatorName", generatorName);
         Contract.requireArgNotNull("artifactName", artifactName);
 
-        final GeneratorConfig generator = generators.findByName(generatorName);
-        if (generator == null) {
-            throw new GeneratorNotFoundException(generatorName);
+        final Map<String, Map<String, ArtifactRoute>> routes = routeIndex;
+        if (routes == null) {
+            // Not initialized or changed after initialization
+            final GeneratorConfig generator = generators.findByName(generatorName);
+            if (generator == null) {
+                throw new GeneratorNotFoundException(generatorName);
+            }
+            final Artifact artifact = findArtifact(generator, artifactName);
+            if (artifact == null) {
+                throw new ArtifactNotFoundException(generatorName, artifactName);
+            }
+            return resolveFolder(generatorName, artifactName, artifact.findTargetFor(targetPath), artifact);
         }
 
-        int idx = generator.getArtifacts().indexOf(new Artifact(artifactName));
-        if (idx < 0) {
+        final Map<String, ArtifactRoute> artifactRoutes = routes.get(generatorName);
+        if (artifactRoutes == null) {
+            throw new GeneratorNotFoundException(generatorName);
+        }
+        final ArtifactRoute route = artifactRoutes.get(artifactName);
+        if (route == null) {
             throw new ArtifactNotFoundException(generatorName, artifactName);
         }
-        final Artifact artifact = generator.getArtifacts().get(idx);
+        final Target target = route.artifact.findTargetFor(targetPath);
+        final Folder cached = (target == null ? route.defaultFolder : route.targetFolders.get(target));
+        if (cached != null) {
+            return cached;
+        }
+        final Folder folder = resolveFolder(generatorName, artifactName, target, route.artifact);
+        if (target == null) {
+            route.defaultFolder = folder;
+        } else {
+            route.targetFolders.put(target, folder);
+        }
+        return folder;
+
+    }
+
+    private static Artifact findArtifact(final GeneratorConfig generator, final String artifactName) {
+        if (generator.getArtifacts() != null) {
+            for (final Artifact artifact : generator.getArtifacts()) {
+                if (artifactName.equals(artifact.getName())) {
+                    return artifact;
+                }
+            }
+        }
+        return null;
+    }
+
+    private Folder resolveFolder(final String generatorName, final String artifactName, final Target target, final Artifact artifact)
+            throws ProjectNameNotDefinedException, FolderNameNotDefinedException, ProjectNotFoundException, FolderNotFoundException {
 
         final String projectName;
         final String folderName;
         final String targetPattern;
-        final Target target = artifact.findTargetFor(targetPath);
         if (target == null) {
             projectName = artifact.getDefProject();
             folderName = artifact.getDefFolder();
@@ -354,7 +544,20 @@ public class SrcGen4JConfig {
             throw new FolderNameNotDefinedException(generatorName, artifactName, targetPattern);
         }
 
-        idx = projects.indexOf(new Project(projectName, "dummy"));
+        final Map<String, Map<String, Folder>> folders = folderIndex;
+        if (folders != null) {
+            final Map<String, Folder> projectFolders = folders.get(projectName);
+            if (projectFolders == null) {
+                throw new ProjectNotFoundException(generatorName, artifactName, targetPattern, projectName);
+            }
+            final Folder folder = projectFolders.get(folderName);
+            if (folder == null) {
+                throw new FolderNotFoundException(generatorName, artifactName, targetPattern, projectName, folderName);
+            }
+            return folder;
+        }
+
+        int idx = projects.indexOf(new Project(projectName, "dummy"));
         if (idx < 0) {
             throw new ProjectNotFoundException(generatorName, artifactName, targetPattern, projectName);
         }
@@ -380,6 +583,15 @@ public class SrcGen4JConfig {
     public final List<GeneratorConfig> findGeneratorsForParser(@NotNull final String parserName) {
         Contract.requireArgNotNull("parserName", parserName);
 
+        final Map<String, List<GeneratorConfig>> index = parserIndex;
+        if (index != null) {
+            final List<GeneratorConfig> list = index.get(parserName);
+            if (list == null) {
+                return new ArrayList<>();
+            }
+            return new ArrayList<>(list);
+        }
+
         final List<GeneratorConfig> list = new ArrayList<>();
         final List<GeneratorConfig> gcList = generators.getList();
         for (final GeneratorConfig gc : gcList) {
@@ -422,4 +634,23 @@ public class SrcGen4JConfig {
         return config;
     }
 
+    /**
+     * Artifact of a generator together with the folders already resolved for it.
+     */
+    private static final class ArtifactRoute {
+
+        private final Artifact artifact;
+
+        private final Map<Target, Folder> targetFolders;
+
+        private volatile Folder defaultFolder;
+
+        public ArtifactRoute(final Artifact artifact) {
+            super();
+            this.artifact = artifact;
+            this.targetFolders = new ConcurrentHashMap<>();
+        }
+
+    }
+
 }
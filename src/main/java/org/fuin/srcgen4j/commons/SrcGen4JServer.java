@@ -0,0 +1,362 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.commons;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import org.fuin.objects4j.common.Contract;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps a number of initialized {@link SrcGen4J} instances resident and executes build requests received over a local Unix domain socket.
+ * Configuration, class loaders, parsers and generators are created only once, so repeated builds don't pay for the initialization again.
+ * Requests for the same configuration are executed one after another (also with builds started elsewhere, for example by a
+ * {@link SrcGen4JWatcher}), requests for different configurations run concurrently. Closing the server waits for running builds.<br>
+ * <br>
+ * The protocol is line based (UTF-8). A request consists of a command line (<code>FULL &lt;id&gt;</code> or
+ * <code>INCREMENTAL &lt;id&gt;</code>), one line per file (incremental only) and an empty line. The response is a single line: either
+ * <code>OK</code> or <code>ERROR &lt;type&gt; &lt;message&gt;</code> with type being one of <code>PARSE</code>, <code>GENERATE</code>,
+ * <code>REQUEST</code> or <code>INTERNAL</code>. A connection may be used for any number of requests. A build that fails with an
+ * {@link Error} (for example an {@link OutOfMemoryError}) is answered with an <code>INTERNAL</code> error, then the connection is closed
+ * and the error is rethrown on the connection thread. Use {@link SrcGen4JClient} to send requests.
+ */
+public final class SrcGen4JServer implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SrcGen4JServer.class);
+
+    /** Command for a full build. */
+    static final String FULL = "FULL";
+
+    /** Command for an incremental build. */
+    static final String INCREMENTAL = "INCREMENTAL";
+
+    /** Response for a successful build. */
+    static final String OK = "OK";
+
+    /** Response prefix for a failed build. */
+    static final String ERROR = "ERROR";
+
+    /** Error type for a {@link ParseException}. */
+    static final String PARSE = "PARSE";
+
+    /** Error type for a {@link GenerateException}. */
+    static final String GENERATE = "GENERATE";
+
+    /** Error type for an invalid request. */
+    static final String REQUEST = "REQUEST";
+
+    /** Error type for any other failure. */
+    static final String INTERNAL = "INTERNAL";
+
+    private final Path socketFile;
+
+    private final Map<String, SrcGen4J> instances;
+
+    private final Set<SocketChannel> connections;
+
+    private final Set<SocketChannel> busy;
+
+    private volatile boolean closing;
+
+    private ServerSocketChannel serverChannel;
+
+    private ExecutorService executor;
+
+    private Thread acceptor;
+
+    /**
+     * Constructor with socket file.
+     * 
+     * @param socketFile
+     *            File used for the Unix domain socket. An existing file is replaced on start.
+     */
+    public SrcGen4JServer(@NotNull final Path socketFile) {
+        super();
+        Contract.requireArgNotNull("socketFile", socketFile);
+        this.socketFile = socketFile;
+        this.instances = new ConcurrentHashMap<>();
+        this.connections = new HashSet<>();
+        this.busy = new HashSet<>();
+    }
+
+    /**
+     * Returns the file used for the Unix domain socket.
+     * 
+     * @return Socket file.
+     */
+    @NotNull
+    public final Path getSocketFile() {
+        return socketFile;
+    }
+
+    /**
+     * Makes an instance available for build requests. An existing instance with the same identifier is replaced.
+     * 
+     * @param id
+     *            Unique identifier used by clients to select the instance.
+     * @param srcGen4J
+     *            Instance with initialized configuration.
+     */
+    public final void register(@NotEmpty final String id, @NotNull final SrcGen4J srcGen4J) {
+        Contract.requireArgNotEmpty("id", id);
+        Contract.requireArgNotNull("srcGen4J", srcGen4J);
+        if (id.chars().anyMatch(Character::isWhitespace)) {
+            throw new IllegalArgumentException("The argument 'id' must not contain white space: '" + id + "'");
+        }
+        instances.put(id, srcGen4J);
+    }
+
+    /**
+     * Removes an instance.
+     * 
+     * @param id
+     *            Unique identifier of the instance.
+     */
+    public final void unregister(@NotEmpty final String id) {
+        Contract.requireArgNotEmpty("id", id);
+        instances.remove(id);
+    }
+
+    /**
+     * Binds the socket and starts accepting connections in the background.
+     * 
+     * @throws IOException
+     *             Error binding the socket.
+     */
+    public final synchronized void start() throws IOException {
+        if (serverChannel != null) {
+            throw new IllegalStateException("Server was already started: " + socketFile);
+        }
+        Files.deleteIfExists(socketFile);
+        closing = false;
+        serverChannel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        serverChannel.bind(UnixDomainSocketAddress.of(socketFile));
+        final AtomicInteger threadNumber = new AtomicInteger();
+        executor = Executors.newCachedThreadPool(runnable -> {
+            final Thread thread = new Thread(runnable, "srcgen4j-server-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        final ServerSocketChannel channel = serverChannel;
+        acceptor = new Thread(() -> accept(channel), "srcgen4j-server-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        LOG.info("Listening on: {}", socketFile);
+    }
+
+    @Override
+    public final synchronized void close() {
+        if (serverChannel == null) {
+            return;
+        }
+        closing = true;
+        try {
+            serverChannel.close();
+        } catch (final IOException ex) {
+            LOG.warn("Failed to close server socket: {}", socketFile, ex);
+        }
+        try {
+            acceptor.join();
+            closeIdleConnections();
+            executor.shutdown();
+            while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                LOG.info("Waiting for running builds to finish");
+            }
+            Files.deleteIfExists(socketFile);
+        } catch (final InterruptedException ex) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        } catch (final IOException ex) {
+            LOG.warn("Failed to delete socket file: {}", socketFile, ex);
+        }
+        serverChannel = null;
+        executor = null;
+        acceptor = null;
+    }
+
+    private void accept(final ServerSocketChannel channel) {
+        try {
+            while (true) {
+                final SocketChannel client = channel.accept();
+                executor.execute(() -> serve(client));
+            }
+        } catch (final AsynchronousCloseException ex) { // NOSONAR Regular end
+            LOG.debug("Server socket closed: {}", socketFile);
+        } catch (final IOException ex) {
+            LOG.error("Failed to accept connection: {}", socketFile, ex);
+        }
+    }
+
+    private void closeIdleConnections() {
+        synchronized (connections) {
+            for (final SocketChannel connection : connections) {
+                if (!busy.contains(connection)) {
+                    close(connection);
+                }
+            }
+        }
+    }
+
+    private boolean begin(final SocketChannel channel) {
+        synchronized (connections) {
+            if (closing) {
+                return false;
+            }
+            busy.add(channel);
+            return true;
+        }
+    }
+
+    private void end(final SocketChannel channel) {
+        synchronized (connections) {
+            busy.remove(channel);
+        }
+    }
+
+    private void serve(final SocketChannel client) {
+        synchronized (connections) {
+            if (closing) {
+                close(client);
+                return;
+            }
+            connections.add(client);
+        }
+        try (final SocketChannel channel = client;
+                final BufferedReader reader = new BufferedReader(Channels.newReader(channel, StandardCharsets.UTF_8));
+                final Writer writer = Channels.newWriter(channel, StandardCharsets.UTF_8)) {
+            String command;
+            while (!closing && (command = reader.readLine()) != null) {
+                final Set<File> files = new HashSet<>();
+                String line;
+                while ((line = reader.readLine()) != null && !line.isEmpty()) {
+                    files.add(new File(line));
+                }
+                if (!begin(channel)) {
+                    break;
+                }
+                String response;
+                Error fatal = null;
+                try {
+                    response = handle(command, files);
+                } catch (final Error ex) { // NOSONAR Rethrown after the client got a response
+                    LOG.error("Build failed with fatal error: {}", command, ex);
+                    response = error(INTERNAL, ex.toString());
+                    fatal = ex;
+                } finally {
+                    end(channel);
+                }
+                if (fatal != null) {
+                    try {
+                        reply(writer, response);
+                    } catch (final IOException ex) {
+                        fatal.addSuppressed(ex);
+                    }
+                    throw fatal;
+                }
+                reply(writer, response);
+            }
+        } catch (final IOException ex) {
+            if (closing) {
+                LOG.debug("Connection closed by shutdown", ex);
+            } else {
+                LOG.warn("Connection failed", ex);
+            }
+        } finally {
+            synchronized (connections) {
+                connections.remove(client);
+            }
+        }
+    }
+
+    private static void reply(final Writer writer, final String response) throws IOException {
+        writer.write(response);
+        writer.write('\n');
+        writer.flush();
+    }
+
+    private static void close(final SocketChannel channel) {
+        try {
+            channel.close();
+        } catch (final IOException ex) {
+            LOG.debug("Failed to close connection", ex);
+        }
+    }
+
+    private String handle(final String command, final Set<File> files) {
+        final int idx = command.indexOf(' ');
+        if (idx < 0) {
+            return error(REQUEST, "Invalid command: " + command);
+        }
+        final String type = command.substring(0, idx);
+        final String id = command.substring(idx + 1);
+        final SrcGen4J srcGen4J = instances.get(id);
+        if (srcGen4J == null) {
+            return error(REQUEST, "Unknown configuration: " + id);
+        }
+        try {
+            // Builds with the same configuration are serialized by SrcGen4J
+            if (FULL.equals(type)) {
+                srcGen4J.execute();
+            } else if (INCREMENTAL.equals(type)) {
+                srcGen4J.execute(files);
+            } else {
+                return error(REQUEST, "Unknown command: " + type);
+            }
+            return OK;
+        } catch (final ParseException ex) {
+            LOG.error("Parse error: {}", id, ex);
+            return error(PARSE, ex.getMessage());
+        } catch (final GenerateException ex) {
+            LOG.error("Generate error: {}", id, ex);
+            return error(GENERATE, ex.getMessage());
+        } catch (final RuntimeException ex) {
+            LOG.error("Build failed: {}", id, ex);
+            return error(INTERNAL, ex.toString());
+        }
+    }
+
+    private static String error(final String type, final String message) {
+        final String msg = (message == null ? "" : message.replace('\r', ' ').replace('\n', ' '));
+        return ERROR + " " + type + " " + msg;
+    }
+
+}
@@ -0,0 +1,377 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.commons;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import jakarta.validation.constraints.NotNull;
+
+import org.fuin.objects4j.common.Contract;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Watches input directories and executes an incremental build whenever files accepted by {@link SrcGen4J#getFileFilter()} change. Events
+ * are collected until no new event arrived for the debounce period, so saving many files at once results in a single build. A build is
+ * started at the latest when the maximum wait time is over, even if events keep coming. Deleted files and lost events (overflow) result
+ * in a full build. New sub directories are watched automatically. The folders of the configured projects (where the generators write
+ * to) and trash directories of the {@link DirectoryCleaner} are not watched, so builds don't trigger themselves.<br>
+ * <br>
+ * The same {@link SrcGen4J} instance is used for all builds, so the configuration, parsers and generators stay initialized between runs.
+ * Failed builds are logged and watching continues.
+ */
+public final class SrcGen4JWatcher implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SrcGen4JWatcher.class);
+
+    /** Default time without new events before a build is started. */
+    public static final long DEFAULT_DEBOUNCE_MILLIS = 300;
+
+    /** Default maximum time between the first event and the start of a build. */
+    public static final long DEFAULT_MAX_WAIT_MILLIS = 5000;
+
+    private final SrcGen4J srcGen4J;
+
+    private final List<File> dirs;
+
+    private final long debounceMillis;
+
+    private final long maxWaitMillis;
+
+    private final Map<WatchKey, Path> keys;
+
+    private final Map<Path, WatchKey> watched;
+
+    private final Set<Path> outputDirs;
+
+    private final AtomicLong buildCount;
+
+    private WatchService watchService;
+
+    private Thread thread;
+
+    /**
+     * Constructor with default debounce time.
+     * 
+     * @param srcGen4J
+     *            Instance used to execute the builds.
+     * @param dirs
+     *            Input directories to watch including all their sub directories.
+     */
+    public SrcGen4JWatcher(@NotNull final SrcGen4J srcGen4J, @NotNull final Collection<File> dirs) {
+        this(srcGen4J, dirs, DEFAULT_DEBOUNCE_MILLIS);
+    }
+
+    /**
+     * Constructor with debounce time and default maximum wait time.
+     * 
+     * @param srcGen4J
+     *            Instance used to execute the builds.
+     * @param dirs
+     *            Input directories to watch including all their sub directories.
+     * @param debounceMillis
+     *            Time without new events in milliseconds before a build is started.
+     */
+    public SrcGen4JWatcher(@NotNull final SrcGen4J srcGen4J, @NotNull final Collection<File> dirs, final long debounceMillis) {
+        this(srcGen4J, dirs, debounceMillis, Math.max(debounceMillis, DEFAULT_MAX_WAIT_MILLIS));
+    }
+
+    /**
+     * Constructor with all data.
+     * 
+     * @param srcGen4J
+     *            Instance used to execute the builds.
+     * @param dirs
+     *            Input directories to watch including all their sub directories.
+     * @param debounceMillis
+     *            Time without new events in milliseconds before a build is started.
+     * @param maxWaitMillis
+     *            Maximum time in milliseconds between the first event and the start of a build.
+     */
+    public SrcGen4JWatcher(@NotNull final SrcGen4J srcGen4J, @NotNull final Collection<File> dirs, final long debounceMillis,
+            final long maxWaitMillis) {
+        super();
+        Contract.requireArgNotNull("srcGen4J", srcGen4J);
+        Contract.requireArgNotNull("dirs", dirs);
+        if (debounceMillis < 0) {
+            throw new IllegalArgumentException("The argument 'debounceMillis' must not be negative, but was: " + debounceMillis);
+        }
+        if (maxWaitMillis < debounceMillis) {
+            throw new IllegalArgumentException("The argument 'maxWaitMillis' must not be less than 'debounceMillis' (" + debounceMillis
+                    + "), but was: " + maxWaitMillis);
+        }
+        this.srcGen4J = srcGen4J;
+        this.dirs = Collections.unmodifiableList(new ArrayList<>(dirs));
+        this.debounceMillis = debounceMillis;
+        this.maxWaitMillis = maxWaitMillis;
+        this.keys = new ConcurrentHashMap<>();
+        this.watched = new ConcurrentHashMap<>();
+        this.outputDirs = outputDirs(srcGen4J.getConfig());
+        this.buildCount = new AtomicLong();
+    }
+
+    /**
+     * Returns the watched input directories.
+     * 
+     * @return Unmodifiable list of directories.
+     */
+    @NotNull
+    public final List<File> getDirs() {
+        return dirs;
+    }
+
+    /**
+     * Returns the number of builds executed so far.
+     * 
+     * @return Number of full and incremental builds.
+     */
+    public final long getBuildCount() {
+        return buildCount.get();
+    }
+
+    /**
+     * Registers all directories and starts watching in a background thread.
+     * 
+     * @throws IOException
+     *             Error registering the directories.
+     */
+    public final synchronized void start() throws IOException {
+        if (thread != null) {
+            throw new IllegalStateException("Watcher was already started");
+        }
+        watchService = FileSystems.getDefault().newWatchService();
+        for (final File dir : dirs) {
+            registerAll(normalize(dir.toPath()), null);
+        }
+        thread = new Thread(this::run, "srcgen4j-watcher");
+        thread.setDaemon(true);
+        thread.start();
+        LOG.info("Watching {} directories", keys.size());
+    }
+
+    @Override
+    public final synchronized void close() {
+        if (watchService == null) {
+            return;
+        }
+        try {
+            watchService.close();
+        } catch (final IOException ex) {
+            LOG.warn("Failed to close watch service", ex);
+        }
+        if (thread != null && thread != Thread.currentThread()) {
+            try {
+                thread.join();
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        watchService = null;
+        thread = null;
+        keys.clear();
+        watched.clear();
+    }
+
+    private void run() {
+        final FileFilter filter = srcGen4J.getFileFilter();
+        try {
+            while (true) {
+                final Set<File> changed = new HashSet<>();
+                final boolean[] fullBuild = new boolean[1];
+                WatchKey key = watchService.take();
+                final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+                while (key != null) {
+                    try {
+                        process(key, filter, changed, fullBuild);
+                    } catch (final RuntimeException ex) {
+                        LOG.error("Failed to process file system events - Executing full build", ex);
+                        fullBuild[0] = true;
+                    }
+                    final long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        LOG.debug("Maximum wait time reached - Starting build while events are still coming");
+                        key = null;
+                    } else {
+                        key = watchService.poll(Math.min(TimeUnit.MILLISECONDS.toNanos(debounceMillis), remaining), TimeUnit.NANOSECONDS);
+                    }
+                }
+                build(changed, fullBuild[0]);
+            }
+        } catch (final ClosedWatchServiceException ex) { // NOSONAR Regular end
+            LOG.debug("Watch service closed");
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void process(final WatchKey key, final FileFilter filter, final Set<File> changed, final boolean[] fullBuild) {
+        try {
+            processEvents(key, filter, changed, fullBuild);
+        } finally {
+            if (!key.reset()) {
+                final Path dir = keys.remove(key);
+                if (dir != null) {
+                    watched.remove(dir);
+                }
+            }
+        }
+    }
+
+    private void processEvents(final WatchKey key, final FileFilter filter, final Set<File> changed, final boolean[] fullBuild) {
+        final Path dir = keys.get(key);
+        for (final WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW) {
+                LOG.debug("Events were lost");
+                fullBuild[0] = true;
+            } else if (dir != null) {
+                final Path path = dir.resolve((Path) event.context());
+                if (DirectoryCleaner.isTrash(path) || outputDirs.contains(path)) {
+                    LOG.trace("Ignored: {}", path);
+                } else if (event.kind() == ENTRY_CREATE && Files.isDirectory(path)) {
+                    try {
+                        registerAll(path, file -> {
+                            if (filter.accept(file)) {
+                                changed.add(file);
+                            }
+                        });
+                    } catch (final IOException ex) {
+                        LOG.warn("Failed to watch new directory: {}", path, ex);
+                        fullBuild[0] = true;
+                    }
+                } else if (event.kind() == ENTRY_DELETE) {
+                    // Deleted input file or watched directory that may have contained input files
+                    if (filter.accept(path.toFile()) || watched.containsKey(path)) {
+                        fullBuild[0] = true;
+                    }
+                } else if (Files.isRegularFile(path) && filter.accept(path.toFile())) {
+                    changed.add(path.toFile());
+                }
+            }
+        }
+    }
+
+    private void build(final Set<File> changed, final boolean fullBuild) {
+        if (!fullBuild && changed.isEmpty()) {
+            return;
+        }
+        try {
+            if (fullBuild) {
+                srcGen4J.execute();
+            } else {
+                srcGen4J.execute(changed);
+            }
+        } catch (final ParseException | GenerateException | RuntimeException ex) {
+            LOG.error("Build failed", ex);
+        } finally {
+            buildCount.incrementAndGet();
+        }
+    }
+
+    private static Set<Path> outputDirs(final SrcGen4JConfig config) {
+        final Set<Path> result = new HashSet<>();
+        final List<Project> projects = config.getProjects();
+        if (projects != null) {
+            for (final Project project : projects) {
+                final List<Folder> folders = project.getFolders();
+                if (folders != null) {
+                    for (final Folder folder : folders) {
+                        final File dir = folder.getCanonicalDir();
+                        if (dir != null) {
+                            result.add(normalize(dir.toPath()));
+                        }
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the real path of an existing file or the absolute and normalized path of a missing one. Watched directories and output
+     * folders are compared in this form, so relative paths, ".." or symbolic links in the configuration don't prevent a match.
+     * 
+     * @param path
+     *            Path to normalize.
+     * 
+     * @return Normalized path.
+     */
+    private static Path normalize(final Path path) {
+        try {
+            return path.toRealPath();
+        } catch (final IOException ex) { // NOSONAR Not existing yet
+            return path.toAbsolutePath().normalize();
+        }
+    }
+
+    private void registerAll(final Path start, final Consumer<File> existing) throws IOException {
+        if (!Files.isDirectory(start)) {
+            LOG.warn("Not a directory - Ignored: {}", start);
+            return;
+        }
+        Files.walkFileTree(start, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(final Path dir, final BasicFileAttributes attrs) throws IOException {
+                if (DirectoryCleaner.isTrash(dir) || (!dir.equals(start) && outputDirs.contains(dir))) {
+                    LOG.debug("Not watching: {}", dir);
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                final WatchKey key = dir.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+                keys.put(key, dir);
+                watched.put(dir, key);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) {
+                if (existing != null && attrs.isRegularFile()) {
+                    existing.accept(file.toFile());
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+}
@@ -17,7 +17,7 @@
  */
 package org.fuin.srcgen4j.commons;
 
-import static org.fuin.utils4j.Utils4J.replaceVars;
+import static org.fuin.srcgen4j.commons.VariableTemplate.replaceVars;
 
 import java.util.Map;
 import java.util.regex.Pattern;
@@ -139,6 +139,16 @@ public class Target extends AbstractTarget implements InitializableElement<Targe
         return this;
     }
 
+    /**
+     * Returns the compiled pattern.
+     * 
+     * @return Regular expression or <code>null</code> if the target was not initialized.
+     */
+    @Nullable
+    final Pattern getRegExpr() {
+        return regExpr;
+    }
+
     /**
      * Returns if the pattern matches the given path.
      * 
@@ -0,0 +1,227 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.commons;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import jakarta.validation.constraints.NotNull;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.fuin.objects4j.common.Contract;
+
+/**
+ * Finds the first of a list of initialized targets that matches a path. The patterns are prepared once: A literal that every match must
+ * contain is extracted from each pattern, so most paths are rejected with a simple {@link String#indexOf(String)}. Matchers are reused
+ * per thread and the last results are kept in a bounded cache.
+ */
+final class TargetRouter {
+
+    /** Default number of paths to cache. */
+    static final int DEFAULT_CACHE_SIZE = 1024;
+
+    /** Cached result for paths without matching target. */
+    private static final Integer NO_MATCH = -1;
+
+    private final Target[] targets;
+
+    private final Pattern[] patterns;
+
+    private final String[] literals;
+
+    private final ThreadLocal<Matcher[]> matchers;
+
+    private final Map<String, Integer> cache;
+
+    /**
+     * Constructor with targets and default cache size.
+     * 
+     * @param targets
+     *            Initialized targets in the order they are evaluated.
+     */
+    public TargetRouter(@NotNull final List<Target> targets) {
+        this(targets, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * Constructor with all data.
+     * 
+     * @param targets
+     *            Initialized targets in the order they are evaluated.
+     * @param cacheSize
+     *            Maximum number of paths to cache.
+     */
+    public TargetRouter(@NotNull final List<Target> targets, final int cacheSize) {
+        super();
+        Contract.requireArgNotNull("targets", targets);
+        if (cacheSize < 0) {
+            throw new IllegalArgumentException("The argument 'cacheSize' must not be negative, but was: " + cacheSize);
+        }
+        this.targets = targets.toArray(new Target[0]);
+        this.patterns = new Pattern[this.targets.length];
+        this.literals = new String[this.targets.length];
+        for (int i = 0; i < this.targets.length; i++) {
+            patterns[i] = this.targets[i].getRegExpr();
+            if (patterns[i] != null) {
+                literals[i] = requiredLiteral(patterns[i].pattern());
+            }
+        }
+        this.matchers = ThreadLocal.withInitial(() -> new Matcher[patterns.length]);
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, Integer> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the first target that matches the given path.
+     * 
+     * @param targetPath
+     *            Path to find.
+     * 
+     * @return Target or <code>null</code> if no target matches.
+     */
+    @Nullable
+    public final Target find(@NotNull final String targetPath) {
+        Contract.requireArgNotNull("targetPath", targetPath);
+        Integer idx;
+        synchronized (cache) {
+            idx = cache.get(targetPath);
+        }
+        if (idx == null) {
+            idx = NO_MATCH;
+            final Matcher[] threadMatchers = matchers.get();
+            for (int i = 0; i < patterns.length; i++) {
+                if (matches(threadMatchers, i, targetPath)) {
+                    idx = i;
+                    break;
+                }
+            }
+            synchronized (cache) {
+                cache.put(targetPath, idx);
+            }
+        }
+        if (idx < 0) {
+            return null;
+        }
+        return targets[idx];
+    }
+
+    private boolean matches(final Matcher[] threadMatchers, final int i, final String targetPath) {
+        final Pattern pattern = patterns[i];
+        if (pattern == null) {
+            return true;
+        }
+        if (literals[i] != null && targetPath.indexOf(literals[i]) < 0) {
+            return false;
+        }
+        Matcher matcher = threadMatchers[i];
+        if (matcher == null) {
+            matcher = pattern.matcher(targetPath);
+            threadMatchers[i] = matcher;
+        } else {
+            matcher.reset(targetPath);
+        }
+        return matcher.find();
+    }
+
+    /**
+     * Returns the longest literal that every match of the regular expression must contain. Only the top level sequence of the expression
+     * is analyzed. Expressions with alternatives, embedded flags, escapes followed by a letter or digit (like <code>\x41</code>,
+     * <code>\0101</code> or <code>\k&lt;name&gt;</code>) or nested character classes have no required literal.
+     * 
+     * @param regExpr
+     *            Regular expression.
+     * 
+     * @return Literal with at least two characters or <code>null</code> if there is none.
+     */
+    @Nullable
+    static String requiredLiteral(@NotNull final String regExpr) {
+        if (regExpr.indexOf('|') >= 0 || regExpr.contains("(?") || regExpr.contains("\\Q")) {
+            return null;
+        }
+        final List<String> runs = new ArrayList<>();
+        StringBuilder run = new StringBuilder();
+        int depth = 0;
+        boolean inClass = false;
+        int i = 0;
+        while (i < regExpr.length()) {
+            final char ch = regExpr.charAt(i);
+            final boolean literal;
+            char value = ch;
+            int next = i + 1;
+            if (ch == '\\' && next < regExpr.length()) {
+                value = regExpr.charAt(next);
+                if (Character.isLetterOrDigit(value)) {
+                    // Character classes, hex/octal/unicode values, back references and so on
+                    return null;
+                }
+                next++;
+                literal = !inClass && depth == 0;
+            } else if (inClass) {
+                if (ch == '[') {
+                    // Union or intersection like '[a-z&&[^b]]'
+                    return null;
+                }
+                inClass = (ch != ']');
+                literal = false;
+            } else if (ch == '[') {
+                inClass = true;
+                literal = false;
+            } else if (ch == '{') {
+                // Skip quantifier like '{2,3}'
+                final int end = regExpr.indexOf('}', next);
+                next = (end < 0 ? regExpr.length() : end + 1);
+                literal = false;
+            } else if (ch == '(') {
+                depth++;
+                literal = false;
+            } else if (ch == ')') {
+                depth--;
+                literal = false;
+            } else {
+                literal = depth == 0 && ".^$?*+{}".indexOf(ch) < 0;
+            }
+            final boolean optional = next < regExpr.length() && "?*{".indexOf(regExpr.charAt(next)) >= 0;
+            if (literal && !optional) {
+                run.append(value);
+            } else {
+                runs.add(run.toString());
+                run = new StringBuilder();
+            }
+            i = next;
+        }
+        runs.add(run.toString());
+        String longest = null;
+        for (final String str : runs) {
+            if (str.length() > 1 && (longest == null || str.length() > longest.length())) {
+                longest = str;
+            }
+        }
+        return longest;
+    }
+
+}
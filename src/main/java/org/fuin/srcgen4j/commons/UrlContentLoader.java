@@ -0,0 +1,251 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.commons;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Loads the content of URL variables. Contents are read in background threads, so all variables of a configuration are loaded
+ * concurrently. Contents of local files (<code>file:</code> URLs and entries of local JAR files) are cached in a directory and are only
+ * read again when size or last modification time of the file changed. By default the cache is located in the user's home directory
+ * (<code>.srcgen4j/url-cache</code>), so other users of the machine cannot change the cached contents. A different directory can be set
+ * with the system property {@value #CACHE_DIR_PROPERTY}; an empty value disables the cache. Directories created for the cache are only
+ * accessible by the owner on file systems that support POSIX permissions.
+ */
+final class UrlContentLoader {
+
+    private static final Logger LOG = LoggerFactory.getLogger(UrlContentLoader.class);
+
+    /** System property with the directory used to cache the contents. */
+    static final String CACHE_DIR_PROPERTY = "srcgen4j.url-cache-dir";
+
+    private static final String DEFAULT_CACHE_DIR = ".srcgen4j" + File.separator + "url-cache";
+
+    /** Maximum number of URLs loaded concurrently. */
+    private static final int MAX_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+    private static final ThreadPoolExecutor EXECUTOR = createExecutor();
+
+    private UrlContentLoader() {
+        throw new UnsupportedOperationException("It's not allowed to create an instance of a utility class");
+    }
+
+    private static ThreadPoolExecutor createExecutor() {
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(MAX_THREADS, MAX_THREADS, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    final Thread thread = new Thread(runnable, "srcgen4j-url-loader");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        // Don't keep idle threads between builds
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Starts loading the content of an URL in the background.
+     * 
+     * @param url
+     *            URL to read.
+     * @param encoding
+     *            Encoding of the content.
+     * 
+     * @return Content that will be available later.
+     */
+    static CompletableFuture<String> loadAsync(final URL url, final String encoding) {
+        return CompletableFuture.supplyAsync(() -> load(url, encoding), EXECUTOR);
+    }
+
+    /**
+     * Waits for a content loaded in the background.
+     * 
+     * @param content
+     *            Content to wait for.
+     * 
+     * @return Loaded content.
+     */
+    static String await(final CompletableFuture<String> content) {
+        try {
+            return content.join();
+        } catch (final CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw new RuntimeException(ex.getCause());
+        }
+    }
+
+    /**
+     * Loads the content of an URL using the configured cache directory.
+     * 
+     * @param url
+     *            URL to read.
+     * @param encoding
+     *            Encoding of the content.
+     * 
+     * @return Content.
+     */
+    static String load(final URL url, final String encoding) {
+        return load(url, encoding, cacheDir());
+    }
+
+    /**
+     * Loads the content of an URL.
+     * 
+     * @param url
+     *            URL to read.
+     * @param encoding
+     *            Encoding of the content.
+     * @param cacheDir
+     *            Directory used to cache the content or <code>null</code> to always read the URL.
+     * 
+     * @return Content.
+     */
+    static String load(final URL url, final String encoding, @Nullable final File cacheDir) {
+        final Charset charset = Charset.forName(encoding);
+        final File source = localFile(url);
+        if (cacheDir == null || source == null || !source.isFile()) {
+            return read(url, charset);
+        }
+
+        final String key = Hashes.hash(url + "|" + charset.name());
+        final File cacheFile = new File(cacheDir, key + "-" + source.length() + "-" + source.lastModified() + ".txt");
+        if (cacheFile.isFile()) {
+            try {
+                return Files.readString(cacheFile.toPath(), StandardCharsets.UTF_8);
+            } catch (final IOException ex) {
+                LOG.warn("Failed to read cached content of '{}' from: {}", url, cacheFile, ex);
+            }
+        }
+        final String content = read(url, charset);
+        writeCache(cacheDir, key, cacheFile, content);
+        return content;
+    }
+
+    private static String read(final URL url, final Charset charset) {
+        try {
+            final URLConnection connection = url.openConnection();
+            // Avoids keeping JAR files open after reading
+            connection.setUseCaches(false);
+            try (final InputStream in = connection.getInputStream()) {
+                return new String(in.readAllBytes(), charset);
+            }
+        } catch (final IOException ex) {
+            throw new RuntimeException("Failed to read URL: " + url, ex);
+        }
+    }
+
+    private static void writeCache(final File cacheDir, final String key, final File cacheFile, final String content) {
+        try {
+            final Path dir = createDirectories(cacheDir.toPath());
+            final Path tmp = Files.createTempFile(dir, key, ".tmp");
+            Files.writeString(tmp, content, StandardCharsets.UTF_8);
+            Files.move(tmp, cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            final File[] outdated = cacheDir.listFiles((d, name) -> name.startsWith(key + "-") && name.endsWith(".txt"));
+            if (outdated != null) {
+                for (final File file : outdated) {
+                    if (!file.equals(cacheFile)) {
+                        Files.deleteIfExists(file.toPath());
+                    }
+                }
+            }
+        } catch (final IOException ex) {
+            LOG.warn("Failed to cache content in: {}", cacheFile, ex);
+        }
+    }
+
+    private static Path createDirectories(final Path dir) throws IOException {
+        if (Files.isDirectory(dir)) {
+            return dir;
+        }
+        if (!dir.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            return Files.createDirectories(dir);
+        }
+        final Path parent = dir.toAbsolutePath().getParent();
+        if (parent != null) {
+            createDirectories(parent);
+        }
+        try {
+            return Files.createDirectory(dir, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+        } catch (final FileAlreadyExistsException ex) { // NOSONAR Created concurrently
+            return dir;
+        }
+    }
+
+    @Nullable
+    private static File cacheDir() {
+        final String dir = System.getProperty(CACHE_DIR_PROPERTY);
+        if (dir == null) {
+            return new File(System.getProperty("user.home"), DEFAULT_CACHE_DIR);
+        }
+        if (dir.isBlank()) {
+            return null;
+        }
+        return new File(dir);
+    }
+
+    /**
+     * Returns the local file that contains the content of the URL.
+     * 
+     * @param url
+     *            URL.
+     * 
+     * @return File or JAR file for local URLs, else <code>null</code>.
+     */
+    @Nullable
+    static File localFile(final URL url) {
+        try {
+            if ("file".equals(url.getProtocol())) {
+                return new File(url.toURI());
+            }
+            if ("jar".equals(url.getProtocol())) {
+                final String path = url.getPath();
+                final int idx = path.indexOf("!/");
+                if (idx > 0 && path.startsWith("file:")) {
+                    return new File(new URI(path.substring(0, idx)));
+                }
+            }
+        } catch (final URISyntaxException | IllegalArgumentException ex) {
+            LOG.debug("No local file for: {}", url, ex);
+        }
+        return null;
+    }
+
+}
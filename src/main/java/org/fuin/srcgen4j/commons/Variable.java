@@ -19,9 +19,11 @@ package org.fuin.srcgen4j.commons;
 
 import java.net.URL;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
+import jakarta.xml.bind.Unmarshaller;
 import jakarta.xml.bind.annotation.XmlAccessType;
 import jakarta.xml.bind.annotation.XmlAccessorType;
 import jakarta.xml.bind.annotation.XmlAttribute;
@@ -56,6 +58,8 @@ public final class Variable {
 
     private transient URL url;
 
+    private transient CompletableFuture<String> content;
+
     /**
      * Package visible default constructor for deserialization.
      */
@@ -98,6 +102,7 @@ public final class Variable {
         this.url = url;
         this.urlStr = url.toString();
         this.encoding = encoding;
+        prefetch();
     }
 
     /**
@@ -112,17 +117,38 @@ public final class Variable {
 
     /**
      * Returns the value. If no value but an URL is defined, the value will be loaded once from the URL. Later calls will only return the
-     * cached value.
+     * cached value. If loading was already started with {@link #prefetch()}, the method waits for the result.
      * 
      * @return Value or <code>null</code>.
      */
     public final String getValue() {
         if ((value == null) && (urlStr != null)) {
-            value = Utils4J.readAsString(getURL(), getEncodingOrDefault(), 1024);
+            if (content == null) {
+                value = UrlContentLoader.load(getURL(), getEncodingOrDefault());
+            } else {
+                value = UrlContentLoader.await(content);
+                content = null;
+            }
         }
         return value;
     }
 
+    /**
+     * Starts loading the value from the URL in the background. Does nothing if there is no URL, the value is already known or loading
+     * was already started. Called automatically after unmarshalling, so all URL variables of a configuration are loaded concurrently.
+     */
+    public final void prefetch() {
+        if ((value == null) && (urlStr != null) && (content == null)) {
+            final URL theUrl;
+            try {
+                theUrl = getURL();
+            } catch (final RuntimeException ex) { // NOSONAR Reported again by getValue()
+                return;
+            }
+            content = UrlContentLoader.loadAsync(theUrl, getEncodingOrDefault());
+        }
+    }
+
     /**
      * Returns the URL.
      * 
@@ -167,7 +193,19 @@ public final class Variable {
      *            Variables to use.
      */
     public final void init(@Nullable final Map<String, String> vars) {
-        value = Utils4J.replaceVars(getValue(), vars);
+        value = VariableTemplate.replaceVars(getValue(), vars);
+    }
+
+    /**
+     * Called by JAXB after all properties were set.
+     * 
+     * @param unmarshaller
+     *            Unmarshaller.
+     * @param parent
+     *            Parent object or <code>null</code>.
+     */
+    void afterUnmarshal(final Unmarshaller unmarshaller, final Object parent) {
+        prefetch();
     }
 
     @Override
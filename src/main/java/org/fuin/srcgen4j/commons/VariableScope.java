@@ -0,0 +1,255 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.commons;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Immutable map of resolved variables that only stores the variables defined on one level of the configuration tree and delegates all
+ * other lookups to the parent scope. References to variables are resolved once when the scope is created. Values of the parent that
+ * contain references unknown to the parent are resolved again with the variables of the child, so a child may complete a value
+ * defined by a parent.<br>
+ * <br>
+ * Lookups with {@link #get(Object)} and {@link #containsKey(Object)} walk up the levels without copying. The first call to a method that
+ * needs all entries ({@link #entrySet()} and with it {@link #size()}, iteration, <code>equals</code> or <code>hashCode</code>) merges all
+ * levels into one map. As the scope is immutable, the merged map is kept for later calls.
+ */
+final class VariableScope extends AbstractMap<String, String> {
+
+    private static final VariableScope EMPTY = new VariableScope(null, Collections.emptyMap(), Collections.emptySet());
+
+    private static final String START = "${";
+
+    private static final char END = '}';
+
+    @Nullable
+    private final VariableScope parent;
+
+    private final Map<String, String> vars;
+
+    private final Set<String> unresolved;
+
+    @Nullable
+    private volatile Map<String, String> merged;
+
+    private VariableScope(@Nullable final VariableScope parent, final Map<String, String> vars, final Set<String> unresolved) {
+        super();
+        this.parent = parent;
+        this.vars = vars;
+        this.unresolved = unresolved;
+    }
+
+    /**
+     * Returns a scope for the given map. If the map is already a scope, it's simply returned. Otherwise a new root scope with a copy of
+     * the (already resolved) map is created.
+     * 
+     * @param map
+     *            Variables or <code>null</code>.
+     * 
+     * @return Scope.
+     */
+    static VariableScope of(@Nullable final Map<String, String> map) {
+        if (map == null || map.isEmpty()) {
+            return EMPTY;
+        }
+        if (map instanceof VariableScope) {
+            return (VariableScope) map;
+        }
+        final Map<String, String> copy = new HashMap<>(map);
+        final Set<String> unresolved = new HashSet<>();
+        for (final Map.Entry<String, String> entry : copy.entrySet()) {
+            if (containsReference(entry.getValue())) {
+                unresolved.add(entry.getKey());
+            }
+        }
+        return new VariableScope(null, copy, unresolved);
+    }
+
+    /**
+     * Creates a scope with the given variables on top of a parent. If there are no variables, the parent itself is returned.
+     * 
+     * @param parentVars
+     *            Variables of the parent or <code>null</code>.
+     * @param variables
+     *            Variables defined on this level or <code>null</code>.
+     * 
+     * @return Scope.
+     */
+    static VariableScope create(@Nullable final Map<String, String> parentVars, @Nullable final List<Variable> variables) {
+        final VariableScope parent = of(parentVars);
+        if (variables == null || variables.isEmpty()) {
+            return parent;
+        }
+
+        // Same as before: Every value may use the parent's variables and the ones defined before it
+        final Map<String, String> raw = new LinkedHashMap<>();
+        final Map<String, String> lookup = new AbstractMap<String, String>() {
+            @Override
+            public String get(final Object key) {
+                final String value = raw.get(key);
+                if (value == null) {
+                    return parent.get(key);
+                }
+                return value;
+            }
+
+            @Override
+            public boolean containsKey(final Object key) {
+                return raw.containsKey(key) || parent.containsKey(key);
+            }
+
+            @Override
+            public Set<Map.Entry<String, String>> entrySet() {
+                final Map<String, String> all = new HashMap<>(parent);
+                all.putAll(raw);
+                return Collections.unmodifiableMap(all).entrySet();
+            }
+        };
+        for (final Variable variable : variables) {
+            raw.put(variable.getName(), VariableTemplate.replaceVars(variable.getValue(), lookup));
+        }
+        for (final String key : parent.unresolved) {
+            if (!raw.containsKey(key)) {
+                raw.put(key, parent.get(key));
+            }
+        }
+
+        final Map<String, String> resolved = new HashMap<>();
+        for (final String key : raw.keySet()) {
+            resolve(key, raw, resolved, parent, new ArrayList<>());
+        }
+
+        final Map<String, String> own = new HashMap<>();
+        final Set<String> unresolved = new HashSet<>();
+        for (final Map.Entry<String, String> entry : resolved.entrySet()) {
+            final String key = entry.getKey();
+            final String value = entry.getValue();
+            if (!value.equals(parent.get(key))) {
+                own.put(key, value);
+            }
+            if (containsReference(value)) {
+                unresolved.add(key);
+            }
+        }
+        if (own.isEmpty()) {
+            return parent;
+        }
+        return new VariableScope(parent, own, unresolved);
+    }
+
+    private static String resolve(final String key, final Map<String, String> raw, final Map<String, String> resolved,
+            final VariableScope parent, final List<String> path) {
+
+        final String done = resolved.get(key);
+        if (done != null) {
+            return done;
+        }
+        if (path.contains(key)) {
+            path.add(key);
+            throw new IllegalStateException("Cycle in variable references: " + String.join(" -> ", path));
+        }
+        path.add(key);
+
+        final String value = raw.get(key);
+        if (value == null) {
+            path.remove(path.size() - 1);
+            return null;
+        }
+        final StringBuilder sb = new StringBuilder();
+        int idx = 0;
+        while (idx < value.length()) {
+            final int start = value.indexOf(START, idx);
+            final int end = (start < 0 ? -1 : value.indexOf(END, start + START.length()));
+            if (end < 0) {
+                sb.append(value, idx, value.length());
+                break;
+            }
+            sb.append(value, idx, start);
+            final String name = value.substring(start + START.length(), end);
+            final String replacement;
+            if (raw.containsKey(name)) {
+                replacement = resolve(name, raw, resolved, parent, path);
+            } else {
+                replacement = parent.get(name);
+            }
+            if (replacement == null) {
+                sb.append(value, start, end + 1);
+            } else {
+                sb.append(replacement);
+            }
+            idx = end + 1;
+        }
+
+        path.remove(path.size() - 1);
+        final String result = sb.toString();
+        resolved.put(key, result);
+        return result;
+    }
+
+    private static boolean containsReference(@Nullable final String value) {
+        return value != null && value.contains(START);
+    }
+
+    @Override
+    public final String get(final Object key) {
+        VariableScope scope = this;
+        while (scope != null) {
+            final String value = scope.vars.get(key);
+            if (value != null) {
+                return value;
+            }
+            scope = scope.parent;
+        }
+        return null;
+    }
+
+    @Override
+    public final boolean containsKey(final Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public final boolean isEmpty() {
+        // Avoids merging all levels only to count them
+        return vars.isEmpty() && (parent == null || parent.isEmpty());
+    }
+
+    @Override
+    public final Set<Map.Entry<String, String>> entrySet() {
+        Map<String, String> all = merged;
+        if (all == null) {
+            // Uses the merged map of the parent, so each level is merged only once
+            final Map<String, String> map = (parent == null ? new HashMap<>() : new HashMap<>(parent));
+            map.putAll(vars);
+            all = Collections.unmodifiableMap(map);
+            merged = all;
+        }
+        return all.entrySet();
+    }
+
+}
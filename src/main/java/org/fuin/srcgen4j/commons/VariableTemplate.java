@@ -0,0 +1,178 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.commons;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jakarta.validation.constraints.NotNull;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.fuin.objects4j.common.Contract;
+
+/**
+ * String with variable references like <code>${name}</code> that is parsed only once. The literal parts and the variable names are kept
+ * separately, so replacing the variables is a single pass that appends the parts to a builder reused by the current thread. Templates
+ * are cached per distinct string. Unknown variables are left unchanged, same as {@link org.fuin.utils4j.Utils4J#replaceVars(String, Map)}
+ * does.
+ */
+public final class VariableTemplate {
+
+    /** Maximum number of templates kept in the cache. */
+    static final int MAX_CACHE_SIZE = 10000;
+
+    /** Builders larger than this are not kept for the next replacement. */
+    private static final int MAX_BUILDER_CAPACITY = 8192;
+
+    private static final String START = "${";
+
+    private static final char END = '}';
+
+    private static final Map<String, VariableTemplate> CACHE = new ConcurrentHashMap<>();
+
+    private static final ThreadLocal<StringBuilder> BUILDER = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    private final String template;
+
+    private final String[] literals;
+
+    private final String[] names;
+
+    private VariableTemplate(final String template) {
+        super();
+        this.template = template;
+        final List<String> literalList = new ArrayList<>();
+        final List<String> nameList = new ArrayList<>();
+        int from = 0;
+        int start;
+        while ((start = template.indexOf(START, from)) >= 0) {
+            final int end = template.indexOf(END, start + START.length());
+            if (end < 0) {
+                break;
+            }
+            literalList.add(template.substring(from, start));
+            nameList.add(template.substring(start + START.length(), end));
+            from = end + 1;
+        }
+        literalList.add(template.substring(from));
+        this.literals = literalList.toArray(new String[0]);
+        this.names = nameList.toArray(new String[0]);
+    }
+
+    /**
+     * Returns the template for a string. Templates are cached.
+     * 
+     * @param template
+     *            String that may contain variable references.
+     * 
+     * @return Compiled template.
+     */
+    @NotNull
+    public static VariableTemplate compile(@NotNull final String template) {
+        Contract.requireArgNotNull("template", template);
+        VariableTemplate compiled = CACHE.get(template);
+        if (compiled == null) {
+            compiled = new VariableTemplate(template);
+            if (CACHE.size() < MAX_CACHE_SIZE) {
+                final VariableTemplate existing = CACHE.putIfAbsent(template, compiled);
+                if (existing != null) {
+                    compiled = existing;
+                }
+            }
+        }
+        return compiled;
+    }
+
+    /**
+     * Replaces all variable references in a string. Works like {@link org.fuin.utils4j.Utils4J#replaceVars(String, Map)}, but uses a
+     * cached template.
+     * 
+     * @param str
+     *            String that may contain variable references or <code>null</code>.
+     * @param vars
+     *            Variables to use or <code>null</code>.
+     * 
+     * @return String with replaced variables or <code>null</code> if the string was <code>null</code>.
+     */
+    @Nullable
+    public static String replaceVars(@Nullable final String str, @Nullable final Map<String, String> vars) {
+        if (str == null || vars == null || str.indexOf(START) < 0) {
+            return str;
+        }
+        return compile(str).replace(vars);
+    }
+
+    /**
+     * Returns the original string.
+     * 
+     * @return Template text.
+     */
+    @NotNull
+    public final String getTemplate() {
+        return template;
+    }
+
+    /**
+     * Determines if the template contains any variable reference.
+     * 
+     * @return TRUE if there is at least one variable reference.
+     */
+    public final boolean hasVariables() {
+        return names.length > 0;
+    }
+
+    /**
+     * Replaces the variable references with values from a map. References to unknown variables are left unchanged.
+     * 
+     * @param vars
+     *            Variables to use or <code>null</code>.
+     * 
+     * @return String with replaced variables.
+     */
+    @NotNull
+    public final String replace(@Nullable final Map<String, String> vars) {
+        if (names.length == 0 || vars == null) {
+            return template;
+        }
+        final StringBuilder sb = BUILDER.get();
+        sb.setLength(0);
+        for (int i = 0; i < names.length; i++) {
+            sb.append(literals[i]);
+            final String value = vars.get(names[i]);
+            if (value == null) {
+                sb.append(START).append(names[i]).append(END);
+            } else {
+                sb.append(value);
+            }
+        }
+        sb.append(literals[names.length]);
+        final String result = sb.toString();
+        if (sb.capacity() > MAX_BUILDER_CAPACITY) {
+            BUILDER.remove();
+        }
+        return result;
+    }
+
+    @Override
+    public final String toString() {
+        return template;
+    }
+
+}
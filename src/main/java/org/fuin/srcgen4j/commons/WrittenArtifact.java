@@ -0,0 +1,125 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.commons;
+
+import java.io.File;
+
+import jakarta.validation.constraints.NotNull;
+
+import org.fuin.objects4j.common.Contract;
+
+/**
+ * Artifact handled by the {@link ArtifactWriter} on behalf of a generator.
+ */
+final class WrittenArtifact {
+
+    private final Folder folder;
+
+    private final String artifactName;
+
+    private final String pathAndName;
+
+    private final File file;
+
+    private final ArtifactWriteResult result;
+
+    /**
+     * Constructor with all data.
+     * 
+     * @param folder
+     *            Target folder.
+     * @param artifactName
+     *            Name of the artifact.
+     * @param pathAndName
+     *            Path and name relative to the folder.
+     * @param file
+     *            Target file.
+     * @param result
+     *            Outcome of the write operation.
+     */
+    WrittenArtifact(@NotNull final Folder folder, @NotNull final String artifactName, @NotNull final String pathAndName,
+            @NotNull final File file, @NotNull final ArtifactWriteResult result) {
+        super();
+        Contract.requireArgNotNull("folder", folder);
+        Contract.requireArgNotNull("artifactName", artifactName);
+        Contract.requireArgNotNull("pathAndName", pathAndName);
+        Contract.requireArgNotNull("file", file);
+        Contract.requireArgNotNull("result", result);
+        this.folder = folder;
+        this.artifactName = artifactName;
+        this.pathAndName = pathAndName;
+        this.file = file;
+        this.result = result;
+    }
+
+    /**
+     * Returns the target folder.
+     * 
+     * @return Folder.
+     */
+    @NotNull
+    final Folder getFolder() {
+        return folder;
+    }
+
+    /**
+     * Returns the name of the artifact.
+     * 
+     * @return Artifact name.
+     */
+    @NotNull
+    final String getArtifactName() {
+        return artifactName;
+    }
+
+    /**
+     * Returns the path and name relative to the folder.
+     * 
+     * @return Relative path.
+     */
+    @NotNull
+    final String getPathAndName() {
+        return pathAndName;
+    }
+
+    /**
+     * Returns the target file.
+     * 
+     * @return File.
+     */
+    @NotNull
+    final File getFile() {
+        return file;
+    }
+
+    /**
+     * Returns the outcome of the write operation.
+     * 
+     * @return Result.
+     */
+    @NotNull
+    final ArtifactWriteResult getResult() {
+        return result;
+    }
+
+    @Override
+    public final String toString() {
+        return file + " [" + result + "]";
+    }
+
+}
@@ -0,0 +1,18 @@
+// CHECKSTYLE:OFF
+package a.b.d;
+
+import org.fuin.srcgen4j.commons.CacheableGenerator;
+import org.fuin.srcgen4j.commons.GeneratorConfig;
+
+public class Generator3 implements CacheableGenerator<String> {
+
+    @Override
+    public void initialize(GeneratorConfig config) {
+    }
+
+    @Override
+    public void generate(String model, boolean incremental) {
+    }
+
+}
+// CHECKSTYLE:ON
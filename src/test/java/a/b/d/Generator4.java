@@ -0,0 +1,23 @@
+// CHECKSTYLE:OFF
+package a.b.d;
+
+import org.fuin.srcgen4j.commons.CacheableGenerator;
+import org.fuin.srcgen4j.commons.GeneratorConfig;
+
+public class Generator4 implements CacheableGenerator<String> {
+
+    @Override
+    public void initialize(GeneratorConfig config) {
+    }
+
+    @Override
+    public void generate(String model, boolean incremental) {
+    }
+
+    @Override
+    public String getCacheKey() {
+        return "generator4-v1";
+    }
+
+}
+// CHECKSTYLE:ON
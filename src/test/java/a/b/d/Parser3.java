@@ -0,0 +1,47 @@
+// CHECKSTYLE:OFF
+package a.b.d;
+
+import java.io.File;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.apache.commons.io.filefilter.IOFileFilter;
+import org.apache.commons.io.filefilter.SuffixFileFilter;
+import org.fuin.srcgen4j.commons.IncrementalParser;
+import org.fuin.srcgen4j.commons.ParserConfig;
+import org.fuin.srcgen4j.commons.SrcGen4JContext;
+
+public class Parser3 implements IncrementalParser<String> {
+
+    public static final BlockingQueue<Set<File>> PARSED = new LinkedBlockingQueue<>();
+
+    private ParserConfig config;
+
+    @Override
+    public void initialize(SrcGen4JContext context, ParserConfig config) {
+        this.config = config;
+    }
+
+    @Override
+    public String parse() {
+        return "FULL";
+    }
+
+    @Override
+    public IOFileFilter getFileFilter() {
+        return new SuffixFileFilter(".xml");
+    }
+
+    @Override
+    public String parse(Set<File> files) {
+        PARSED.add(files);
+        return "INCREMENTAL";
+    }
+
+    public ParserConfig getConfig() {
+        return config;
+    }
+
+}
+// CHECKSTYLE:ON
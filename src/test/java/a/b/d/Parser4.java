@@ -0,0 +1,45 @@
+// CHECKSTYLE:OFF
+package a.b.d;
+
+import java.io.File;
+import java.util.Set;
+
+import org.apache.commons.io.filefilter.IOFileFilter;
+import org.apache.commons.io.filefilter.TrueFileFilter;
+import org.fuin.srcgen4j.commons.IncrementalParser;
+import org.fuin.srcgen4j.commons.ParserConfig;
+import org.fuin.srcgen4j.commons.SrcGen4JContext;
+
+public class Parser4 implements IncrementalParser<String> {
+
+    @Override
+    public void initialize(SrcGen4JContext context, ParserConfig config) {
+    }
+
+    @Override
+    public String parse() {
+        return "FULL";
+    }
+
+    @Override
+    public IOFileFilter getFileFilter() {
+        return TrueFileFilter.INSTANCE;
+    }
+
+    @Override
+    public Set<String> getFileExtensions() {
+        return Set.of("txt");
+    }
+
+    @Override
+    public Set<File> getInputDirectories() {
+        return Set.of(new File("model"));
+    }
+
+    @Override
+    public String parse(Set<File> files) {
+        return "INCREMENTAL";
+    }
+
+}
+// CHECKSTYLE:ON
@@ -0,0 +1,35 @@
+// CHECKSTYLE:OFF
+package a.b.d;
+
+import java.io.File;
+import java.util.Set;
+
+import org.apache.commons.io.filefilter.IOFileFilter;
+import org.apache.commons.io.filefilter.SuffixFileFilter;
+import org.fuin.srcgen4j.commons.IncrementalParser;
+import org.fuin.srcgen4j.commons.ParserConfig;
+import org.fuin.srcgen4j.commons.SrcGen4JContext;
+
+public class Parser5 implements IncrementalParser<String> {
+
+    @Override
+    public void initialize(SrcGen4JContext context, ParserConfig config) {
+    }
+
+    @Override
+    public String parse() {
+        return "FULL";
+    }
+
+    @Override
+    public IOFileFilter getFileFilter() {
+        return new SuffixFileFilter(".error");
+    }
+
+    @Override
+    public String parse(Set<File> files) {
+        throw new Error("Simulated error");
+    }
+
+}
+// CHECKSTYLE:ON
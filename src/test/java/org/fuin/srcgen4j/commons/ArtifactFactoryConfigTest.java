@@ -19,7 +19,10 @@ package org.fuin.srcgen4j.commons;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import jakarta.xml.bind.JAXBContext;
 
@@ -90,6 +93,59 @@ public class ArtifactFactoryConfigTest extends AbstractTest {
 
     }
 
+    @Test
+    public final void testGetFactoryReentrant() {
+
+        // PREPARE
+        final ArtifactFactoryConfig testee = new ArtifactFactoryConfig("abc", ReentrantFactory.class.getName());
+        testee.init(new SrcGen4JContext() {
+            @Override
+            public ClassLoader getClassLoader() {
+                return ArtifactFactoryConfigTest.class.getClassLoader();
+            }
+
+        }, new HashMap<String, String>());
+
+        // TEST
+        final ArtifactFactory<?> factory = testee.getFactory();
+
+        // VERIFY
+        assertThat(factory).isInstanceOf(ReentrantFactory.class);
+        assertThat(((ReentrantFactory) factory).fromInit).isSameAs(factory);
+        assertThat(testee.getFactory()).isSameAs(factory);
+
+    }
+
+    /**
+     * Factory that requests itself from the configuration during initialization.
+     */
+    public static final class ReentrantFactory implements ArtifactFactory<Object> {
+
+        private ArtifactFactory<?> fromInit;
+
+        @Override
+        public final Class<? extends Object> getModelType() {
+            return Object.class;
+        }
+
+        @Override
+        public final boolean isIncremental() {
+            return true;
+        }
+
+        @Override
+        public final void init(final ArtifactFactoryConfig config) {
+            this.fromInit = config.getFactory();
+        }
+
+        @Override
+        public final List<GeneratedArtifact> create(final Object modelObject, final Map<String, Object> context,
+                final boolean preparationRun) throws GenerateException {
+            return Collections.emptyList();
+        }
+
+    }
+
     // CHECKSTYLE:ON
 
 }
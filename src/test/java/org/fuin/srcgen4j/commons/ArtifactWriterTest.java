@@ -0,0 +1,109 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.commons;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for {@link ArtifactWriter}.
+ */
+public class ArtifactWriterTest {
+
+    // CHECKSTYLE:OFF
+
+    @TempDir
+    File tempDir;
+
+    @Test
+    public void testWriteIfChanged() throws Exception {
+
+        // PREPARE
+        final File file = new File(tempDir, "a/b/Hello.java");
+        final ArtifactWriter testee = new ArtifactWriter();
+
+        // TEST & VERIFY
+        assertThat(testee.write(file, bytes("class Hello {}"))).isEqualTo(ArtifactWriteResult.WRITTEN);
+        assertThat(file).hasContent("class Hello {}");
+        file.setLastModified(1000000L);
+
+        assertThat(testee.write(file, bytes("class Hello {}"))).isEqualTo(ArtifactWriteResult.UNCHANGED);
+        assertThat(file.lastModified()).isEqualTo(1000000L);
+
+        assertThat(testee.write(file, bytes("class Hallo {}"))).isEqualTo(ArtifactWriteResult.WRITTEN);
+        assertThat(file).hasContent("class Hallo {}");
+
+        assertThat(testee.getWrittenCount()).isEqualTo(2L);
+        assertThat(testee.getUnchangedCount()).isEqualTo(1L);
+        assertThat(testee.getSkippedCount()).isEqualTo(0L);
+
+    }
+
+    @Test
+    public void testWriteOverrideNotAllowed() throws Exception {
+
+        // PREPARE
+        final Project project = new Project("project", tempDir.getPath());
+        final Folder folder = new Folder(project, "folder", "src", true, false, null, false, null);
+        final File file = new File(tempDir, "src/Hello.java");
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), bytes("// Manually changed"));
+        final ArtifactWriter testee = new ArtifactWriter();
+
+        // TEST
+        final ArtifactWriteResult result = testee.write(folder, new GeneratedArtifact("abc", "Hello.java", bytes("class Hello {}")));
+
+        // VERIFY
+        assertThat(result).isEqualTo(ArtifactWriteResult.SKIPPED);
+        assertThat(file).hasContent("// Manually changed");
+        assertThat(testee.getSkippedCount()).isEqualTo(1L);
+
+    }
+
+    @Test
+    public void testSameContentLargeFile() throws Exception {
+
+        // PREPARE
+        final byte[] data = new byte[200 * 1024 + 17];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+        final File file = new File(tempDir, "large.bin");
+        Files.write(file.toPath(), data);
+        final byte[] other = data.clone();
+        other[other.length - 1]++;
+
+        // TEST & VERIFY
+        assertThat(ArtifactWriter.sameContent(file.toPath(), data)).isTrue();
+        assertThat(ArtifactWriter.sameContent(file.toPath(), other)).isFalse();
+
+    }
+
+    private static byte[] bytes(final String str) {
+        return str.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // CHECKSTYLE:ON
+
+}
@@ -0,0 +1,114 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.commons;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.io.File;
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link AsyncMarkerLogger}.
+ */
+public class AsyncMarkerLoggerTest {
+
+    // CHECKSTYLE:OFF
+
+    @Test
+    public void testCoalesceAndLimit() {
+
+        // PREPARE
+        final File file1 = new File("./bla.txt");
+        final File file2 = new File("./blub.txt");
+        try (final AsyncMarkerLogger testee = new AsyncMarkerLogger(3)) {
+            final DefaultContext context = new DefaultContext();
+            context.setMarkerLogger(testee);
+
+            // TEST
+            for (final String message : new String[] { "A", "A", "A", "B", "C", "D", "E" }) {
+                context.addMarker(file1, FileMarkerSeverity.WARNING, message, 1);
+            }
+            context.addMarker(file2, FileMarkerSeverity.WARNING, "A");
+            testee.flush();
+
+            // VERIFY
+            assertThat(testee.getLoggedCount()).isEqualTo(4L);
+            assertThat(testee.getCoalescedCount()).isEqualTo(2L);
+            assertThat(testee.getSuppressedCount()).isEqualTo(2L);
+            assertThat(context.getMarkerCount()).isEqualTo(8L);
+
+            // Limits start again after flush
+            context.addMarker(file1, FileMarkerSeverity.WARNING, "A");
+            testee.flush();
+            assertThat(testee.getLoggedCount()).isEqualTo(5L);
+
+        }
+
+    }
+
+    @Test
+    public void testFailingEntry() {
+
+        // PREPARE
+        final File failing = new File("./fail.txt") {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public int hashCode() {
+                throw new IllegalStateException("Simulated failure");
+            }
+        };
+        final File file = new File("./bla.txt");
+        try (final AsyncMarkerLogger testee = new AsyncMarkerLogger()) {
+
+            // TEST
+            testee.log(failing, new DefaultFileMarker(FileMarkerSeverity.ERROR, "A"));
+            testee.log(file, new DefaultFileMarker(FileMarkerSeverity.ERROR, "B"));
+            assertTimeoutPreemptively(Duration.ofSeconds(5), testee::flush);
+
+            // VERIFY
+            assertThat(testee.getLoggedCount()).isEqualTo(1L);
+
+        }
+
+    }
+
+    @Test
+    public void testLogAfterClose() {
+
+        // PREPARE
+        final AsyncMarkerLogger testee = new AsyncMarkerLogger();
+        testee.log(new File("./bla.txt"), new DefaultFileMarker(FileMarkerSeverity.INFO, "A"));
+
+        // TEST
+        testee.close();
+        testee.log(new File("./bla.txt"), new DefaultFileMarker(FileMarkerSeverity.INFO, "B"));
+        testee.flush();
+        testee.close();
+
+        // VERIFY
+        assertThat(testee.getLoggedCount()).isEqualTo(1L);
+
+    }
+
+    // CHECKSTYLE:ON
+
+}
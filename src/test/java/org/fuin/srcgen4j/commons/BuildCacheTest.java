@@ -0,0 +1,237 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.commons;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for {@link BuildCache}.
+ */
+public class BuildCacheTest {
+
+    // CHECKSTYLE:OFF
+
+    @TempDir
+    File tempDir;
+
+    private SrcGen4JConfig config;
+
+    private ParserConfig parserConfig;
+
+    private GeneratorConfig generatorConfig;
+
+    private GeneratorConfig cacheableConfig;
+
+    private Folder folder;
+
+    private BuildCache testee;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        final File rootDir = tempDir.getCanonicalFile();
+        config = new SrcGen4JConfig();
+        final Project project = new Project("proj", rootDir.getPath());
+        folder = new Folder("gen", "src-gen");
+        folder.setOverride(true);
+        project.addFolder(folder);
+        config.setProjects(List.of(project));
+        parserConfig = new ParserConfig("parser1", "a.b.b.Parser1");
+        config.addParser(parserConfig);
+        generatorConfig = new GeneratorConfig("gen1", "a.b.b.Generator1", "parser1", "proj", "gen");
+        generatorConfig.addArtifact(new Artifact("art"));
+        final Generators generators = new Generators(null, null);
+        generators.addGenerator(generatorConfig);
+        cacheableConfig = new GeneratorConfig("gen3", "a.b.d.Generator3", "parser1", "proj", "gen");
+        generators.addGenerator(cacheableConfig);
+        config.setGenerators(generators);
+        config.init(new DefaultContext(), rootDir);
+        final File inputDir = new File(rootDir, "input");
+        inputDir.mkdirs();
+        testee = new BuildCache(new File(rootDir, "cache"), 1024 * 1024,
+                new InputFingerprintStore(new File(rootDir, "fingerprints.txt"), List.of(inputDir)));
+    }
+
+    @Test
+    public void testCreateKey() {
+
+        // TEST
+        final String key1 = testee.createKey("abc", parserConfig, generatorConfig);
+        final String key2 = testee.createKey("abc", parserConfig, generatorConfig);
+        final String key3 = testee.createKey("def", parserConfig, generatorConfig);
+
+        // VERIFY
+        assertThat(key1).isEqualTo(key2);
+        assertThat(key1).isNotEqualTo(key3);
+
+    }
+
+    @Test
+    public void testCreateKeyParserVariables() throws Exception {
+
+        // PREPARE
+        final String before = testee.createKey("abc", parserConfig, generatorConfig);
+        parserConfig.addVariable(new Variable("a", "b"));
+        config.init(new DefaultContext(), tempDir.getCanonicalFile());
+
+        // TEST
+        final String after = testee.createKey("abc", parserConfig, generatorConfig);
+
+        // VERIFY
+        assertThat(after).isNotEqualTo(before);
+
+    }
+
+    @Test
+    public void testCreateKeyConfigWithoutStableRepresentation() throws Exception {
+
+        // PREPARE
+        generatorConfig.setConfig(new Config<>("abc"));
+        final String stable = testee.createKey("abc", parserConfig, generatorConfig);
+        generatorConfig.setConfig(new Config<>(new Object()));
+        cacheableConfig.setConfig(new Config<>(new Object()));
+
+        // TEST
+        final String unstable = testee.createKey("abc", parserConfig, generatorConfig);
+        final String cacheable = testee.createKey("abc", parserConfig, cacheableConfig);
+
+        // VERIFY
+        assertThat(stable).isNotNull();
+        assertThat(unstable).isNull();
+        assertThat(cacheable).isNull();
+
+    }
+
+    @Test
+    public void testCreateKeyGeneratorCacheKey() throws Exception {
+
+        // PREPARE
+        final GeneratorConfig keyConfig = new GeneratorConfig("gen4", "a.b.d.Generator4", "parser1", "proj", "gen");
+        config.getGenerators().addGenerator(keyConfig);
+        config.init(new DefaultContext(), tempDir.getCanonicalFile());
+        keyConfig.setConfig(new Config<>(new Object()));
+        final String first = testee.createKey("abc", parserConfig, keyConfig);
+        keyConfig.setConfig(new Config<>(new Object()));
+
+        // TEST
+        final String second = testee.createKey("abc", parserConfig, keyConfig);
+
+        // VERIFY
+        assertThat(first).isNotNull();
+        assertThat(second).isEqualTo(first);
+
+    }
+
+    @Test
+    public void testIsCacheable() {
+
+        assertThat(testee.isCacheable(generatorConfig)).isFalse();
+        assertThat(testee.isCacheable(cacheableConfig)).isTrue();
+
+    }
+
+    @Test
+    public void testStoreAndRestore() throws Exception {
+
+        // PREPARE
+        final ArtifactWriter writer = config.getArtifactWriter();
+        writer.write("gen1", folder, new GeneratedArtifact("art", "a/A.java", bytes("class A {}")));
+        writer.write("gen1", folder, new GeneratedArtifact("art", "b/B.java", bytes("class B {}")));
+        testee.store("key1", writer.getOutputs("gen1"));
+        final File dir = folder.getCanonicalDir();
+        Files.delete(new File(dir, "a/A.java").toPath());
+        writer.reset();
+
+        // TEST
+        final boolean restored = testee.restore("key1", generatorConfig, config, writer);
+
+        // VERIFY
+        assertThat(restored).isTrue();
+        assertThat(new File(dir, "a/A.java")).hasContent("class A {}");
+        assertThat(new File(dir, "b/B.java")).hasContent("class B {}");
+        assertThat(writer.getWrittenCount()).isEqualTo(1L);
+        assertThat(writer.getUnchangedCount()).isEqualTo(1L);
+        assertThat(writer.getOutputs("gen1")).hasSize(2);
+        assertThat(testee.getHitCount()).isEqualTo(1L);
+
+    }
+
+    @Test
+    public void testRestoreCorruptContent() throws Exception {
+
+        // PREPARE
+        final ArtifactWriter writer = config.getArtifactWriter();
+        writer.write("gen1", folder, new GeneratedArtifact("art", "a/A.java", bytes("class A {}")));
+        testee.store("key1", writer.getOutputs("gen1"));
+        try (final Stream<Path> stream = Files.walk(new File(testee.getCacheDir(), "blobs").toPath())) {
+            for (final Path blob : (Iterable<Path>) stream.filter(Files::isRegularFile)::iterator) {
+                Files.write(blob, bytes("class X {}"));
+            }
+        }
+
+        // TEST
+        final boolean restored = testee.restore("key1", generatorConfig, config, writer);
+
+        // VERIFY
+        assertThat(restored).isFalse();
+        assertThat(testee.getMissCount()).isEqualTo(1L);
+        assertThat(new File(testee.getCacheDir(), "entries/key1")).doesNotExist();
+
+    }
+
+    @Test
+    public void testEvict() throws Exception {
+
+        // PREPARE
+        final BuildCache small = new BuildCache(new File(tempDir, "small-cache"), 15, new InputFingerprintStore(new File(tempDir,
+                "small.txt"), List.of()));
+        final ArtifactWriter writer = config.getArtifactWriter();
+        writer.write("gen1", folder, new GeneratedArtifact("art", "a/A.java", bytes("class A {}")));
+        small.store("old", writer.getOutputs("gen1"));
+        new File(small.getCacheDir(), "entries/old").setLastModified(System.currentTimeMillis() - 60000);
+        writer.reset();
+        writer.write("gen1", folder, new GeneratedArtifact("art", "b/B.java", bytes("class B {}")));
+        small.store("new", writer.getOutputs("gen1"));
+
+        // TEST
+        small.evict();
+
+        // VERIFY
+        assertThat(new File(small.getCacheDir(), "entries/old")).doesNotExist();
+        assertThat(new File(small.getCacheDir(), "entries/new")).exists();
+        assertThat(small.restore("new", generatorConfig, config, writer)).isTrue();
+
+    }
+
+    private static byte[] bytes(final String str) {
+        return str.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // CHECKSTYLE:ON
+
+}
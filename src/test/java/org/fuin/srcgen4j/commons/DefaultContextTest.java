@@ -20,7 +20,10 @@ package org.fuin.srcgen4j.commons;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -243,6 +246,160 @@ public class DefaultContextTest {
 
     }
 
+    @Test
+    public void testMarkerCounts() {
+
+        // PREPARE
+        final File file1 = new File("./bla.txt");
+        final File file2 = new File("./blub.txt");
+        final FileMarker marker1 = testee.addMarker(file1, FileMarkerSeverity.ERROR, "Abc");
+        testee.addMarker(file1, FileMarkerSeverity.WARNING, "Def");
+        testee.addMarker(file2, FileMarkerSeverity.ERROR, "Ghi");
+
+        // TEST & VERIFY
+        assertThat(testee.hasErrors()).isTrue();
+        assertThat(testee.getMarkerCount(FileMarkerSeverity.ERROR)).isEqualTo(2L);
+        assertThat(testee.getMarkerCount()).isEqualTo(3L);
+
+        testee.removeMarker(file1, marker1);
+        assertThat(testee.getMarkerCount(FileMarkerSeverity.ERROR)).isEqualTo(1L);
+
+        testee.removeAllMarkers(file2);
+        assertThat(testee.hasErrors()).isFalse();
+        assertThat(testee.getMarkerCount()).isEqualTo(1L);
+
+        testee.removeAllMarkers();
+        assertThat(testee.getMarkerCount()).isEqualTo(0L);
+
+    }
+
+    @Test
+    public void testConcurrentAdd() throws Exception {
+
+        // PREPARE
+        final int threadCount = 4;
+        final int markerCount = 1000;
+        final List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < threadCount; i++) {
+            final File file = new File("./file" + (i % 2) + ".txt");
+            threads.add(new Thread(() -> {
+                for (int j = 0; j < markerCount; j++) {
+                    testee.addMarker(file, FileMarkerSeverity.INFO, "Message " + j);
+                }
+            }));
+        }
+
+        // TEST
+        for (final Thread thread : threads) {
+            thread.start();
+        }
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        // VERIFY
+        int count = 0;
+        final Iterator<? extends FileMarker> it = testee.getMarkerIterator();
+        while (it.hasNext()) {
+            it.next();
+            count++;
+        }
+        assertThat(count).isEqualTo(threadCount * markerCount);
+        assertThat(testee.getMarkerCount(FileMarkerSeverity.INFO)).isEqualTo((long) threadCount * markerCount);
+
+    }
+
+    @Test
+    public void testMarkerBatch() {
+
+        // PREPARE
+        final File changed = new File("./changed.txt");
+        final File fixed = new File("./fixed.txt");
+        final File other = new File("./other.txt");
+        final FileMarker old1 = testee.addMarker(changed, FileMarkerSeverity.ERROR, "Old");
+        final FileMarker old2 = testee.addMarker(fixed, FileMarkerSeverity.ERROR, "Old");
+        final FileMarker old3 = testee.addMarker(other, FileMarkerSeverity.WARNING, "Old");
+        final List<FileMarkerDelta> deltas = new ArrayList<>();
+        testee.addFileMarkerListener(deltas::add);
+
+        // TEST
+        testee.beginMarkerBatch(Set.of(changed, fixed));
+        final FileMarker new1 = testee.addMarker(changed, FileMarkerSeverity.WARNING, "New");
+        final FileMarker new3 = testee.addMarker(other, FileMarkerSeverity.INFO, "New");
+        final Iterator<? extends FileMarker> before = testee.getMarkerIterator(changed);
+        final FileMarkerDelta delta = testee.commitMarkerBatch();
+
+        // VERIFY
+        assertThat(before.next()).isSameAs(old1);
+        assertThat(before.hasNext()).isFalse();
+        assertThat(deltas).hasSize(1);
+        assertThat(delta.getRemoved().get(changed)).containsOnly(old1);
+        assertThat(delta.getRemoved().get(fixed)).containsOnly(old2);
+        assertThat(delta.getRemoved().get(other)).containsOnly(old3);
+        assertThat(delta.getAdded().get(changed)).containsOnly(new1);
+        assertThat(delta.getAdded().get(other)).containsOnly(new3);
+
+        Iterator<? extends FileMarker> it = testee.getMarkerIterator(changed);
+        assertThat(it.next()).isSameAs(new1);
+        assertThat(it.hasNext()).isFalse();
+        assertThat(testee.getMarkerIterator(fixed)).isNull();
+        it = testee.getMarkerIterator(other);
+        assertThat(it.next()).isSameAs(new3);
+        assertThat(it.hasNext()).isFalse();
+        assertThat(testee.hasErrors()).isFalse();
+        assertThat(testee.getMarkerCount()).isEqualTo(2L);
+
+    }
+
+    @Test
+    public void testMarkerBatchReferencedFile() {
+
+        // PREPARE
+        final File changed = new File("./changed.txt");
+        final File referenced = new File("./referenced.txt");
+
+        // TEST
+        for (int i = 0; i < 2; i++) {
+            testee.beginMarkerBatch(Set.of(changed));
+            testee.addMarker(referenced, FileMarkerSeverity.WARNING, "Referenced");
+            testee.commitMarkerBatch();
+        }
+
+        // VERIFY
+        assertThat(testee.getMarkerCount()).isEqualTo(1L);
+        final Iterator<? extends FileMarker> it = testee.getMarkerIterator(referenced);
+        it.next();
+        assertThat(it.hasNext()).isFalse();
+
+    }
+
+    @Test
+    public void testNestedMarkerBatch() {
+
+        // PREPARE
+        final File file1 = new File("./file1.txt");
+        final File file2 = new File("./file2.txt");
+        testee.addMarker(file1, FileMarkerSeverity.ERROR, "Old");
+        testee.addMarker(file2, FileMarkerSeverity.ERROR, "Old");
+
+        // TEST
+        testee.beginMarkerBatch(Set.of(file1));
+        testee.beginMarkerBatch(Set.of(file2));
+        final FileMarker new2 = testee.addMarker(file2, FileMarkerSeverity.WARNING, "New");
+        final FileMarkerDelta inner = testee.commitMarkerBatch();
+        final boolean errorsBeforeCommit = testee.hasErrors();
+        final FileMarkerDelta outer = testee.commitMarkerBatch();
+
+        // VERIFY
+        assertThat(inner.isEmpty()).isTrue();
+        assertThat(errorsBeforeCommit).isTrue();
+        assertThat(outer.getRemoved()).containsOnlyKeys(file1, file2);
+        assertThat(outer.getAdded().get(file2)).containsOnly(new2);
+        assertThat(testee.hasErrors()).isFalse();
+        assertThat(testee.getMarkerCount()).isEqualTo(1L);
+
+    }
+
     // CHECKSTYLE:ON
 
 }
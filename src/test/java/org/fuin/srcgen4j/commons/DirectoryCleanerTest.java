@@ -0,0 +1,163 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.commons;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for {@link DirectoryCleaner}.
+ */
+public class DirectoryCleanerTest {
+
+    // CHECKSTYLE:OFF
+
+    @TempDir
+    File tempDir;
+
+    @Test
+    public void testCleanWithoutExclude() throws Exception {
+
+        // PREPARE
+        final Project project = new Project("project", tempDir.getCanonicalPath());
+        final Folder folder = new Folder(project, "folder", "src-gen", true, true, null, true, null);
+        final File dir = folder.getCanonicalDir();
+        for (int i = 0; i < 10; i++) {
+            create(new File(dir, "a/b" + i + "/File" + i + ".java"));
+        }
+        final File stale = create(new File(tempDir, DirectoryCleaner.trashPrefix(dir.toPath()) + "1-1/x/Old.java")).getParentFile().getParentFile();
+
+        // TEST
+        try (final DirectoryCleaner testee = new DirectoryCleaner(2)) {
+            testee.clean(folder);
+            assertThat(dir).exists();
+            assertThat(dir.list()).isEmpty();
+        }
+
+        // VERIFY
+        assertThat(tempDir.list()).containsOnly("src-gen");
+        assertThat(stale).doesNotExist();
+
+    }
+
+    @Test
+    public void testCleanWithExclude() throws Exception {
+
+        // PREPARE
+        final Project project = new Project("project", tempDir.getCanonicalPath());
+        final Folder folder = new Folder(project, "folder", "src-gen", true, true, null, true, ".*\\.keep");
+        final File dir = folder.getCanonicalDir();
+        final File a = create(new File(dir, "a/A.java"));
+        final File b = create(new File(dir, "b/B.java"));
+        final File keep = create(new File(dir, "b/c/manual.keep"));
+        final File d = create(new File(dir, "D.java"));
+
+        // TEST
+        try (final DirectoryCleaner testee = new DirectoryCleaner(2)) {
+            testee.clean(folder);
+        }
+
+        // VERIFY
+        assertThat(a).doesNotExist();
+        assertThat(a.getParentFile()).doesNotExist();
+        assertThat(b).doesNotExist();
+        assertThat(d).doesNotExist();
+        assertThat(keep).exists();
+        assertThat(tempDir.list()).containsOnly("src-gen");
+
+    }
+
+    @Test
+    public void testCleanWithTrashDir() throws Exception {
+
+        // PREPARE
+        final File projectDir = new File(tempDir, "project");
+        final File trashDir = new File(tempDir, "trash");
+        final Project project = new Project("project", projectDir.getCanonicalPath());
+        final Folder folder = new Folder(project, "folder", "src-gen", true, true, null, true, null);
+        final File dir = folder.getCanonicalDir();
+        create(new File(dir, "a/A.java"));
+        final File stale = create(new File(trashDir, DirectoryCleaner.trashPrefix(dir.toPath()) + "1-1/x/Old.java")).getParentFile().getParentFile();
+
+        // TEST
+        try (final DirectoryCleaner testee = new DirectoryCleaner(2, trashDir)) {
+            testee.clean(folder);
+            assertThat(dir.list()).isEmpty();
+        }
+
+        // VERIFY
+        assertThat(projectDir.list()).containsOnly("src-gen");
+        assertThat(trashDir.list()).isEmpty();
+        assertThat(stale).doesNotExist();
+
+    }
+
+    @Test
+    public void testCleanSameNameWithTrashDir() throws Exception {
+
+        // PREPARE
+        final File projectDir = new File(tempDir, "project");
+        final File trashDir = new File(tempDir, "trash");
+        final Project project = new Project("project", projectDir.getCanonicalPath());
+        final Folder main = new Folder(project, "main", "src-gen/main/java", true, true, null, true, null);
+        final Folder test = new Folder(project, "test", "src-gen/test/java", true, true, null, true, null);
+        final File mainDir = main.getCanonicalDir();
+        final File testDir = test.getCanonicalDir();
+        create(new File(mainDir, "a/A.java"));
+        create(new File(testDir, "a/ATest.java"));
+
+        // TEST
+        try (final DirectoryCleaner testee = new DirectoryCleaner(2, trashDir)) {
+            testee.clean(main);
+            testee.clean(test);
+            assertThat(mainDir.list()).isEmpty();
+            assertThat(testDir.list()).isEmpty();
+        }
+
+        // VERIFY
+        assertThat(DirectoryCleaner.trashPrefix(mainDir.toPath())).isNotEqualTo(DirectoryCleaner.trashPrefix(testDir.toPath()));
+        assertThat(DirectoryCleaner.trashPrefix(mainDir.toPath())).startsWith(".java-");
+        assertThat(trashDir.list()).isEmpty();
+
+    }
+
+    @Test
+    public void testIsTrash() {
+
+        assertThat(DirectoryCleaner.isTrash(Path.of("a", ".src-gen.srcgen4j-trash-1-2"))).isTrue();
+        assertThat(DirectoryCleaner.isTrash(Path.of(".src-gen.srcgen4j-trash-1-2", "b", "C.java"))).isTrue();
+        assertThat(DirectoryCleaner.isTrash(Path.of("a", "src-gen", "C.java"))).isFalse();
+
+    }
+
+    private static File create(final File file) throws Exception {
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), "x".getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    // CHECKSTYLE:ON
+
+}
@@ -0,0 +1,111 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.commons;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link FileFilterIndex}.
+ */
+public class FileFilterIndexTest {
+
+    // CHECKSTYLE:OFF
+
+    private ParserConfig parser1;
+
+    private ParserConfig parser2;
+
+    private ParserConfig parser3;
+
+    private FileFilterIndex testee;
+
+    @BeforeEach
+    public void setup() {
+        final SrcGen4JConfig config = new SrcGen4JConfig();
+        parser1 = new ParserConfig("parser1", "a.b.b.Parser1");
+        parser2 = new ParserConfig("parser2", "a.b.d.Parser3");
+        parser3 = new ParserConfig("parser3", "a.b.d.Parser4");
+        config.addParser(parser1);
+        config.addParser(parser2);
+        config.addParser(parser3);
+        config.init(new DefaultContext(), new File("."));
+        testee = new FileFilterIndex(List.of(parser1, parser2, parser3));
+    }
+
+    @Test
+    public void testAccept() {
+
+        assertThat(testee.accept(new File("a.xml"))).isTrue();
+        assertThat(testee.accept(new File("model/a.txt"))).isTrue();
+        assertThat(testee.accept(new File("other/a.txt"))).isFalse();
+        assertThat(testee.accept(new File("model/a.java"))).isFalse();
+        assertThat(testee.accept(new File("model"))).isFalse();
+        assertThat(testee.accept(null)).isFalse();
+
+    }
+
+    @Test
+    public void testFindParsers() {
+
+        assertThat(testee.findParsers(new File("model/a.xml"))).containsExactly(parser2);
+        assertThat(testee.findParsers(new File("model/sub/a.txt"))).containsExactly(parser3);
+        assertThat(testee.findParsers(new File("model/sub/a.TXT"))).containsExactly(parser3);
+        assertThat(testee.findParsers(new File("modelx/a.txt"))).isEmpty();
+        assertThat(testee.findParsers(new File("a.java"))).isEmpty();
+
+    }
+
+    @Test
+    public void testRoute() {
+
+        // PREPARE
+        final File xml = new File("a.xml");
+        final File txt = new File("model/b.txt");
+        final File java = new File("c.java");
+
+        // TEST
+        final Map<ParserConfig, Set<File>> result = testee.route(Set.of(txt, java, xml));
+
+        // VERIFY
+        assertThat(result.keySet()).containsExactly(parser2, parser3);
+        assertThat(result.get(parser2)).containsExactly(xml);
+        assertThat(result.get(parser3)).containsExactly(txt);
+
+    }
+
+    @Test
+    public void testIsCreatedFrom() {
+
+        assertThat(testee.isCreatedFrom(List.of(parser1, parser2, parser3))).isTrue();
+        assertThat(testee.isCreatedFrom(List.of(parser1, parser2))).isFalse();
+        assertThat(testee.isCreatedFrom(List.of(parser1, parser3, parser2))).isFalse();
+        assertThat(testee.isCreatedFrom(List.of(parser1, parser2, new ParserConfig("parser3", "a.b.d.Parser4")))).isFalse();
+
+    }
+
+    // CHECKSTYLE:ON
+
+}
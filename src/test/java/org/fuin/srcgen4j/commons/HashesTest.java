@@ -0,0 +1,58 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.commons;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for {@link Hashes}.
+ */
+public class HashesTest {
+
+    // CHECKSTYLE:OFF
+
+    private static final String ABC = "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad";
+
+    @TempDir
+    File tempDir;
+
+    @Test
+    public void testHash() throws Exception {
+
+        // PREPARE
+        final File file = new File(tempDir, "abc.txt");
+        Files.writeString(file.toPath(), "abc", StandardCharsets.UTF_8);
+
+        // TEST & VERIFY
+        assertThat(Hashes.hash("abc")).isEqualTo(ABC);
+        assertThat(Hashes.hash("abc".getBytes(StandardCharsets.UTF_8))).isEqualTo(ABC);
+        assertThat(Hashes.hash(file)).isEqualTo(ABC);
+        assertThat(Hashes.toHex(new byte[] { 0, 15, (byte) 255 })).isEqualTo("000fff");
+
+    }
+
+    // CHECKSTYLE:ON
+
+}
@@ -0,0 +1,141 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.commons;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for {@link InputFingerprintStore}.
+ */
+public class InputFingerprintStoreTest {
+
+    // CHECKSTYLE:OFF
+
+    private static final FileFilter XML_FILTER = file -> file.getName().endsWith(".xml");
+
+    @TempDir
+    File tempDir;
+
+    @Test
+    public void testScanAndSave() throws Exception {
+
+        // PREPARE
+        final File inputDir = new File(tempDir, "input");
+        final File subDir = new File(inputDir, "sub");
+        subDir.mkdirs();
+        final File a = write(new File(inputDir, "a.xml"), "<a/>");
+        final File b = write(new File(subDir, "b.xml"), "<b/>");
+        write(new File(inputDir, "ignored.txt"), "x");
+        final File storeFile = new File(tempDir, "fingerprints.txt");
+        final InputFingerprintStore testee = new InputFingerprintStore(storeFile, List.of(inputDir));
+
+        // TEST
+        final InputChanges changes = testee.scan(XML_FILTER);
+        testee.save();
+
+        // VERIFY
+        assertThat(changes.getAdded()).containsOnly(a, b);
+        assertThat(changes.getModified()).isEmpty();
+        assertThat(changes.getRemoved()).isEmpty();
+        assertThat(storeFile).exists();
+        final InputFingerprintStore reloaded = new InputFingerprintStore(storeFile, List.of(inputDir));
+        assertThat(reloaded.getFingerprints()).hasSize(2);
+        assertThat(reloaded.getFingerprints().get(a).getHash()).isEqualTo(testee.getFingerprints().get(a).getHash());
+        assertThat(reloaded.scan(XML_FILTER).isEmpty()).isTrue();
+
+    }
+
+    @Test
+    public void testScanChanges() throws Exception {
+
+        // PREPARE
+        final File inputDir = new File(tempDir, "input");
+        inputDir.mkdirs();
+        final File a = write(new File(inputDir, "a.xml"), "<a/>");
+        final File b = write(new File(inputDir, "b.xml"), "<b/>");
+        final File c = write(new File(inputDir, "c.xml"), "<c/>");
+        final File storeFile = new File(tempDir, "fingerprints.txt");
+        final InputFingerprintStore first = new InputFingerprintStore(storeFile, List.of(inputDir));
+        first.scan(XML_FILTER);
+        first.save();
+
+        write(a, "<a>changed</a>");
+        b.setLastModified(b.lastModified() + 5000); // Touched, but same content
+        c.delete();
+        final File d = write(new File(inputDir, "d.xml"), "<d/>");
+        final InputFingerprintStore testee = new InputFingerprintStore(storeFile, List.of(inputDir));
+
+        // TEST
+        final InputChanges changes = testee.scan(XML_FILTER);
+
+        // VERIFY
+        assertThat(changes.getAdded()).containsOnly(d);
+        assertThat(changes.getModified()).containsOnly(a);
+        assertThat(changes.getRemoved()).containsOnly(c);
+        assertThat(changes.getChangedFiles()).containsOnly(a, d);
+
+    }
+
+    @Test
+    public void testScanWithoutSaveRepeatsChanges() throws Exception {
+
+        // PREPARE
+        final File inputDir = new File(tempDir, "input");
+        inputDir.mkdirs();
+        final File a = write(new File(inputDir, "a.xml"), "<a/>");
+        final File storeFile = new File(tempDir, "fingerprints.txt");
+        final InputFingerprintStore testee = new InputFingerprintStore(storeFile, List.of(inputDir));
+        testee.scan(XML_FILTER);
+        testee.save();
+        write(a, "<a>changed</a>");
+        final File b = write(new File(inputDir, "b.xml"), "<b/>");
+
+        // TEST
+        final InputChanges failed = testee.scan(XML_FILTER);
+        // Build failed - Changes are not saved
+        final InputChanges retry = testee.scan(XML_FILTER);
+        testee.save();
+        final InputChanges afterSave = testee.scan(XML_FILTER);
+
+        // VERIFY
+        assertThat(failed.getAdded()).containsOnly(b);
+        assertThat(failed.getModified()).containsOnly(a);
+        assertThat(retry.getAdded()).containsOnly(b);
+        assertThat(retry.getModified()).containsOnly(a);
+        assertThat(afterSave.isEmpty()).isTrue();
+        assertThat(testee.getFingerprints()).containsOnlyKeys(a, b);
+
+    }
+
+    private static File write(final File file, final String content) throws Exception {
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    // CHECKSTYLE:ON
+
+}
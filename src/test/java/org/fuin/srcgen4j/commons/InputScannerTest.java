@@ -0,0 +1,118 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.commons;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for {@link InputScanner}.
+ */
+public class InputScannerTest {
+
+    // CHECKSTYLE:OFF
+
+    @TempDir
+    File tempDir;
+
+    @Test
+    public void testScan() throws Exception {
+
+        // PREPARE
+        final SrcGen4JConfig config = new SrcGen4JConfig();
+        final ParserConfig parser1 = new ParserConfig("parser1", "a.b.b.Parser1");
+        final ParserConfig parser3 = new ParserConfig("parser3", "a.b.d.Parser3");
+        config.addParser(parser1);
+        config.addParser(parser3);
+        config.init(new DefaultContext(), new File("."));
+        final List<File> expected = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            expected.add(create(new File(tempDir, "model/a" + i + "/b/Model" + i + ".xml")));
+            create(new File(tempDir, "model/a" + i + "/b/Model" + i + ".txt"));
+        }
+        create(new File(tempDir, ".git/objects/config.xml"));
+        create(new File(tempDir, "model/target/classes/copy.xml"));
+        create(new File(tempDir, "model/a1/generated/Other.xml"));
+        final File other = create(new File(tempDir, "other/generated/Other.xml"));
+        final File missing = new File(tempDir, "missing");
+
+        // TEST
+        final Map<ParserConfig, Set<File>> result;
+        try (final InputScanner testee = new InputScanner(new FileFilterIndex(config.getParsers().getList()), 2,
+                List.of(".git", "target", "model/*/generated"))) {
+            result = testee.scan(List.of(tempDir, missing));
+        }
+
+        // VERIFY
+        assertThat(result.keySet()).containsExactly(parser3);
+        expected.add(other);
+        assertThat(result.get(parser3)).isEqualTo(new HashSet<>(expected));
+
+    }
+
+    @Test
+    public void testScanDefaults() throws Exception {
+
+        // PREPARE
+        final SrcGen4JConfig config = new SrcGen4JConfig();
+        final ParserConfig parser3 = new ParserConfig("parser3", "a.b.d.Parser3");
+        config.addParser(parser3);
+        config.init(new DefaultContext(), new File("."));
+        final File pom = create(new File(tempDir, "pom.xml"));
+        final File modulePom = create(new File(tempDir, "module/pom.xml"));
+        create(new File(tempDir, "target/classes/Copy.xml"));
+        create(new File(tempDir, "module/target/classes/Copy.xml"));
+        create(new File(tempDir, ".git/objects/config.xml"));
+        final File model = create(new File(tempDir, "module/src/build/Model.xml"));
+        final File target = create(new File(tempDir, "module/src/target/Model.xml"));
+        final File link = new File(tempDir, "module/src/Link.xml");
+        Files.createSymbolicLink(link.toPath(), model.toPath());
+        Files.createSymbolicLink(new File(tempDir, "module/src/linked").toPath(), new File(tempDir, "module/src").toPath());
+
+        // TEST
+        final Map<ParserConfig, Set<File>> result;
+        try (final InputScanner testee = new InputScanner(new FileFilterIndex(config.getParsers().getList()))) {
+            result = testee.scan(List.of(tempDir));
+        }
+
+        // VERIFY
+        assertThat(result.get(parser3)).containsOnly(pom, modulePom, model, target, link);
+
+    }
+
+    private static File create(final File file) throws IOException {
+        file.getParentFile().mkdirs();
+        Files.writeString(file.toPath(), file.getName(), StandardCharsets.UTF_8);
+        return file;
+    }
+
+    // CHECKSTYLE:ON
+
+}
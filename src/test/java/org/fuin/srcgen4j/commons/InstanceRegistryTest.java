@@ -0,0 +1,72 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.commons;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import a.b.b.Parser1;
+
+/**
+ * Tests for {@link InstanceRegistry}.
+ */
+public class InstanceRegistryTest {
+
+    // CHECKSTYLE:OFF
+
+    @Test
+    public void testCreateInstance() {
+
+        // PREPARE
+        final ClassLoader classLoader = InstanceRegistryTest.class.getClassLoader();
+        final int created = TestInstanceFactory.CREATED.get();
+
+        // TEST
+        final Object registered = InstanceRegistry.createInstance(TestArtifactFactory.class.getName(), classLoader);
+        final Object reflected = InstanceRegistry.createInstance(Parser1.class.getName(), classLoader);
+
+        // VERIFY
+        assertThat(registered).isInstanceOf(TestArtifactFactory.class);
+        assertThat(TestInstanceFactory.CREATED.get()).isEqualTo(created + 1);
+        assertThat(reflected).isInstanceOf(Parser1.class);
+        assertThat(InstanceRegistry.isRegistered(TestArtifactFactory.class.getName(), classLoader)).isTrue();
+        assertThat(InstanceRegistry.isRegistered(Parser1.class.getName(), classLoader)).isFalse();
+
+    }
+
+    @Test
+    public void testClear() {
+
+        // PREPARE
+        final ClassLoader classLoader = InstanceRegistryTest.class.getClassLoader();
+        assertThat(InstanceRegistry.isRegistered(TestArtifactFactory.class.getName(), classLoader)).isTrue();
+
+        // TEST
+        InstanceRegistry.clear(classLoader);
+
+        // VERIFY
+        assertThat(InstanceRegistry.isRegistered(TestArtifactFactory.class.getName(), classLoader)).isTrue();
+        assertThat(InstanceRegistry.createInstance(TestArtifactFactory.class.getName(), classLoader))
+                .isInstanceOf(TestArtifactFactory.class);
+
+    }
+
+    // CHECKSTYLE:ON
+
+}
@@ -0,0 +1,130 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.commons;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.namespace.QName;
+
+import jakarta.xml.bind.annotation.XmlAccessType;
+import jakarta.xml.bind.annotation.XmlAccessorType;
+import jakarta.xml.bind.annotation.XmlElement;
+import jakarta.xml.bind.annotation.XmlRootElement;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares unmarshalling a whole document with {@link JaxbHelper#readElements(File, QName, Class, java.util.function.Consumer)}. The
+ * forks run with a small heap, so the full document approach fails for the larger sizes while streaming still works. The GC profiler
+ * shows the allocated bytes per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx128m" })
+public class JaxbHelperStreamingBenchmark {
+
+    // CHECKSTYLE:OFF
+
+    private static final QName INPUT = new QName(AbstractTest.NS_TEST, "input");
+
+    @Param({ "10000", "1000000" })
+    public int elements;
+
+    private File file;
+
+    private JaxbHelper helper;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        helper = new JaxbHelper();
+        file = File.createTempFile("streaming-benchmark", ".xml");
+        try (final Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            writer.write("<inputs xmlns=\"" + AbstractTest.NS_TEST + "\">\n");
+            for (int i = 0; i < elements; i++) {
+                writer.write("    <input path=\"src/main/model/element-" + i + ".xml\"/>\n");
+            }
+            writer.write("</inputs>\n");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() throws IOException {
+        Files.deleteIfExists(file.toPath());
+    }
+
+    @Benchmark
+    public int fullDocument() throws UnmarshalObjectException {
+        final Inputs inputs = helper.read(file, Inputs.class, null);
+        int len = 0;
+        for (final TestInput input : inputs.list) {
+            len += input.getPath().length();
+        }
+        return len;
+    }
+
+    @Benchmark
+    public int streaming() throws UnmarshalObjectException {
+        final int[] len = new int[1];
+        helper.readElements(file, INPUT, TestInput.class, input -> len[0] += input.getPath().length());
+        return len[0];
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JaxbHelperStreamingBenchmark.class.getSimpleName()).addProfiler("gc").build()).run();
+    }
+
+    /**
+     * Root element of the whole document.
+     */
+    @XmlAccessorType(XmlAccessType.FIELD)
+    @XmlRootElement(name = "inputs", namespace = AbstractTest.NS_TEST)
+    public static class Inputs {
+
+        @XmlElement(name = "input", namespace = AbstractTest.NS_TEST)
+        private List<TestInput> list = new ArrayList<>();
+
+    }
+
+    // CHECKSTYLE:ON
+
+}
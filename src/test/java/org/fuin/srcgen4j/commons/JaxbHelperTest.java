@@ -18,12 +18,27 @@
 package org.fuin.srcgen4j.commons;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.Reader;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.io.Writer;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.xml.namespace.QName;
 
 import jakarta.xml.bind.JAXBContext;
 
@@ -32,6 +47,7 @@ import org.fuin.utils4j.jaxb.UnmarshallerBuilder;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.xmlunit.assertj3.XmlAssert;
 
 import com.openpojo.reflection.PojoClass;
@@ -46,6 +62,9 @@ public class JaxbHelperTest extends AbstractTest {
 
     // CHECKSTYLE:OFF Tests
 
+    @TempDir
+    File tempDir;
+
     private JaxbHelper testee;
 
     @BeforeEach
@@ -70,6 +89,49 @@ public class JaxbHelperTest extends AbstractTest {
 
     }
 
+    @Test
+    public void testContainsStartTagAfterComment() throws Exception {
+
+        // PREPARE
+        final File file = new File(tempDir, "comment.xml");
+        Files.writeString(file.toPath(), "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<!-- <abc-xyz> " + "x".repeat(2000)
+                + " -->\n<a:test-tag xmlns:a=\"urn:a\"><child/></a:test-tag>", StandardCharsets.UTF_8);
+
+        // TEST & VERIFY
+        assertThat(testee.containsStartTag(file, "test-tag")).isTrue();
+        assertThat(testee.containsStartTag(file, "a:test-tag")).isTrue();
+        assertThat(testee.containsStartTag(file, "abc-xyz")).isFalse();
+        assertThat(testee.containsStartTag(file, "child")).isFalse();
+
+    }
+
+    @Test
+    public void testFindRootElements() throws Exception {
+
+        // PREPARE
+        final File dir = new File(tempDir, "models");
+        final File sub = new File(dir, "sub");
+        sub.mkdirs();
+        final File a = new File(dir, "a.xml");
+        final File b = new File(sub, "b.xml");
+        final File c = new File(sub, "c.xml");
+        final File d = new File(dir, "d.xml");
+        Files.writeString(a.toPath(), "<?xml version=\"1.0\"?><!-- <other/> --><x:model xmlns:x=\"urn:x\"/>", StandardCharsets.UTF_8);
+        Files.writeString(b.toPath(), "<model xmlns=\"urn:x\"><entry/></model>", StandardCharsets.UTF_8);
+        Files.writeString(c.toPath(), "<model/>", StandardCharsets.UTF_8);
+        Files.writeString(d.toPath(), "no xml", StandardCharsets.UTF_8);
+
+        // TEST
+        final Map<QName, List<File>> result = JaxbHelper.findRootElements(dir, file -> file.getName().endsWith(".xml"));
+
+        // VERIFY
+        assertThat(result.keySet()).containsOnly(new QName("urn:x", "model"), new QName("model"));
+        assertThat(result.get(new QName("urn:x", "model"))).containsOnly(a, b);
+        assertThat(result.get(new QName("model"))).containsExactly(c);
+        assertThat(JaxbHelper.readRootElement(d)).isNull();
+
+    }
+
     @Test
     public void testCreateReaderJAXBContext() throws Exception {
 
@@ -174,6 +236,196 @@ public class JaxbHelperTest extends AbstractTest {
 
     }
 
+    @Test
+    public void testRead() throws Exception {
+
+        // PREPARE
+        final String xml = "<dummy name=\"Joe\" xmlns=\"" + NS_SG4JC + "\"/>";
+
+        // TEST
+        final Dummy fromReader = testee.read(new StringReader(xml), Dummy.class, null);
+        final Dummy fromStream = testee.read(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), Dummy.class, null);
+        final Dummy fromFile = testee.read(new File("./src/test/resources/dummy.xml"), Dummy.class, null);
+
+        // VERIFY
+        assertThat(fromReader.getName()).isEqualTo("Joe");
+        assertThat(fromStream.getName()).isEqualTo("Joe");
+        assertThat(fromFile.getName()).isEqualTo("Joe");
+        assertThat(JaxbHelper.getContext(Dummy.class)).isSameAs(JaxbHelper.getContext(Dummy.class));
+
+    }
+
+    @Test
+    public void testClear() throws Exception {
+
+        // PREPARE
+        final JAXBContext context = JaxbHelper.getContext(Dummy.class);
+
+        // TEST
+        JaxbHelper.clear(Dummy.class.getClassLoader());
+
+        // VERIFY
+        assertThat(JaxbHelper.getContext(Dummy.class)).isNotSameAs(context);
+
+    }
+
+    @Test
+    public void testReadSchema() throws Exception {
+
+        // PREPARE
+        final URL xsd = getClass().getResource("/test-input.xsd");
+        final String valid = "<input path=\"a/b\" xmlns=\"" + NS_TEST + "\"/>";
+        final String invalid = "<input unknown=\"x\" xmlns=\"" + NS_TEST + "\"/>";
+
+        // TEST
+        final TestInput input = testee.read(new StringReader(valid), TestInput.class, xsd);
+
+        // VERIFY
+        assertThat(input.getPath()).isEqualTo("a/b");
+        assertThat(JaxbHelper.getSchema(xsd)).isSameAs(JaxbHelper.getSchema(xsd));
+        assertThrows(UnmarshalObjectException.class, () -> testee.read(new StringReader(invalid), TestInput.class, xsd));
+
+    }
+
+    @Test
+    public void testReadAll() throws Exception {
+
+        // PREPARE
+        final List<File> files = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            final File file = new File(tempDir, "input" + i + ".xml");
+            final String xml = (i == 7 ? "<input path=\"broken\"" : "<input path=\"p" + i + "\" xmlns=\"" + NS_TEST + "\"/>");
+            Files.writeString(file.toPath(), xml, StandardCharsets.UTF_8);
+            files.add(file);
+        }
+        final DefaultContext context = new DefaultContext();
+        final List<String> paths = new ArrayList<>();
+
+        // TEST
+        final int count = testee.readAll(files, TestInput.class, null, 4, true, context, (file, input) -> paths.add(input.getPath()));
+
+        // VERIFY
+        assertThat(count).isEqualTo(19);
+        assertThat(paths).hasSize(19);
+        assertThat(paths.get(6)).isEqualTo("p6");
+        assertThat(paths.get(7)).isEqualTo("p8");
+        assertThat(context.getMarkerCount(FileMarkerSeverity.ERROR)).isEqualTo(1L);
+        assertThat(context.getMarkerIterator(files.get(7)).hasNext()).isTrue();
+
+    }
+
+    @Test
+    public void testReadAllCompletionOrder() throws Exception {
+
+        // PREPARE
+        final List<File> files = new ArrayList<>();
+        final List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            final File file = new File(tempDir, "input" + i + ".xml");
+            final String xml = (i == 7 ? "<input path=\"broken\"" : "<input path=\"p" + i + "\" xmlns=\"" + NS_TEST + "\"/>");
+            Files.writeString(file.toPath(), xml, StandardCharsets.UTF_8);
+            files.add(file);
+            if (i != 7) {
+                expected.add("p" + i);
+            }
+        }
+        final DefaultContext context = new DefaultContext();
+        final List<String> paths = new ArrayList<>();
+        final Thread caller = Thread.currentThread();
+        final List<Thread> consumerThreads = new ArrayList<>();
+
+        // TEST
+        final int count = testee.readAll(files, TestInput.class, null, 4, false, context, (file, input) -> {
+            paths.add(input.getPath());
+            consumerThreads.add(Thread.currentThread());
+        });
+
+        // VERIFY
+        assertThat(count).isEqualTo(19);
+        assertThat(paths).containsExactlyInAnyOrderElementsOf(expected);
+        assertThat(consumerThreads).containsOnly(caller);
+        assertThat(context.getMarkerCount(FileMarkerSeverity.ERROR)).isEqualTo(1L);
+        assertThat(context.getMarkerIterator(files.get(7)).hasNext()).isTrue();
+
+    }
+
+    @Test
+    public void testReadAllExecutor() throws Exception {
+
+        // PREPARE
+        final List<File> files = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            final File file = new File(tempDir, "input" + i + ".xml");
+            final String xml = (i == 7 ? "<input path=\"broken\"" : "<input path=\"p" + i + "\" xmlns=\"" + NS_TEST + "\"/>");
+            Files.writeString(file.toPath(), xml, StandardCharsets.UTF_8);
+            files.add(file);
+        }
+        final DefaultContext context = new DefaultContext();
+        final List<String> paths = new ArrayList<>();
+        final BiConsumer<File, TestInput> consumer = (file, input) -> paths.add(input.getPath());
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+
+            // TEST
+            final int first = testee.readAll(files, TestInput.class, null, executor, true, context, consumer);
+            final int second = testee.readAll(files, TestInput.class, null, executor, false, context, consumer);
+
+            // VERIFY
+            assertThat(first).isEqualTo(19);
+            assertThat(second).isEqualTo(19);
+            assertThat(paths).hasSize(38);
+            assertThat(paths.get(7)).isEqualTo("p8");
+            assertThat(executor.isShutdown()).isFalse();
+            assertThat(context.getMarkerIterator(files.get(7)).hasNext()).isTrue();
+
+        } finally {
+            executor.shutdownNow();
+        }
+
+    }
+
+    @Test
+    public void testReadElements() throws Exception {
+
+        // PREPARE
+        final File file = new File(tempDir, "inputs.xml");
+        Files.writeString(file.toPath(), "<inputs xmlns=\"" + NS_TEST + "\"><input path=\"a\"/><other/><input path=\"b\"/>"
+                + "<group><input path=\"c\"/></group></inputs>", StandardCharsets.UTF_8);
+        final QName name = new QName(NS_TEST, "input");
+        final List<String> paths = new ArrayList<>();
+
+        // TEST
+        final long count = testee.readElements(file, name, TestInput.class, input -> paths.add(input.getPath()));
+        final List<String> streamed;
+        try (final Stream<TestInput> stream = testee.streamElements(file, name, TestInput.class)) {
+            streamed = stream.map(TestInput::getPath).collect(Collectors.toList());
+        }
+
+        // VERIFY
+        assertThat(count).isEqualTo(3L);
+        assertThat(paths).containsExactly("a", "b", "c");
+        assertThat(streamed).containsExactly("a", "b", "c");
+
+    }
+
+    @Test
+    public void testWriteTYPEWriterCachedContext() throws Exception {
+
+        // PREPARE
+        final Writer writer = new StringWriter();
+        final Dummy dummy = new Dummy();
+        dummy.setName("Joe");
+        testee.setFormattedOutput(false);
+
+        // TEST
+        testee.write(dummy, writer);
+        testee.write(dummy, new StringWriter());
+
+        // VERIFY
+        XmlAssert.assertThat(writer.toString()).and(XML + "<sg4jc:dummy name=\"Joe\" xmlns:sg4jc=\"" + NS_SG4JC + "\"/>").areIdentical();
+
+    }
+
     @Test
     public void testStructureAndBehaviour() {
 
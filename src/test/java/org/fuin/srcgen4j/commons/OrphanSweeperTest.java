@@ -0,0 +1,107 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.commons;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for {@link OrphanSweeper}.
+ */
+public class OrphanSweeperTest {
+
+    // CHECKSTYLE:OFF
+
+    @TempDir
+    File tempDir;
+
+    @Test
+    public void testSweep() throws Exception {
+
+        // PREPARE
+        final Project project = new Project("project", tempDir.getCanonicalPath());
+        final Folder folder = new Folder(project, "folder", "src-gen", true, true, null, true, ".*\\.keep");
+        final File dir = folder.getCanonicalDir();
+        final ArtifactWriter writer = new ArtifactWriter();
+        writer.write(folder, artifact("a/Generated.java"));
+        writer.write(folder, artifact("a/Orphan.java"));
+        writer.write(folder, artifact("b/Old.java"));
+        writer.write(folder, artifact("b/manual.keep"));
+        writer.write(folder, artifact("c/d/Old.java"));
+        final File manual = create(new File(dir, "e/Manual.java"));
+        final OrphanSweeper testee = new OrphanSweeper(writer);
+        assertThat(testee.sweep(folder)).isEqualTo(0);
+        writer.reset();
+        writer.write(folder, artifact("a/Generated.java"));
+
+        // TEST
+        final int deleted = testee.sweep(folder);
+
+        // VERIFY
+        assertThat(deleted).isEqualTo(5);
+        assertThat(new File(dir, "a/Generated.java")).exists();
+        assertThat(new File(dir, "a/Orphan.java")).doesNotExist();
+        assertThat(new File(dir, "b/Old.java")).doesNotExist();
+        assertThat(new File(dir, "b/manual.keep")).exists();
+        assertThat(new File(dir, "c")).doesNotExist();
+        assertThat(manual).exists();
+        assertThat(Files.readAllLines(new File(dir, OrphanSweeper.MANIFEST).toPath())).containsExactly("# srcgen4j generated files v1",
+                "a/Generated.java");
+
+    }
+
+    @Test
+    public void testSweepWithoutManifest() throws Exception {
+
+        // PREPARE
+        final Project project = new Project("project", tempDir.getCanonicalPath());
+        final Folder folder = new Folder(project, "folder", "src-gen", true, true, null, true, null);
+        final File dir = folder.getCanonicalDir();
+        final ArtifactWriter writer = new ArtifactWriter();
+        writer.write(folder, artifact("a/Generated.java"));
+        final File other = create(new File(dir, "a/Other.java"));
+
+        // TEST
+        final int deleted = new OrphanSweeper(writer).sweep(folder);
+
+        // VERIFY
+        assertThat(deleted).isEqualTo(0);
+        assertThat(other).exists();
+        assertThat(new File(dir, OrphanSweeper.MANIFEST)).exists();
+
+    }
+
+    private static GeneratedArtifact artifact(final String path) {
+        return new GeneratedArtifact("abc", path, "x".getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static File create(final File file) throws Exception {
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), "x".getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    // CHECKSTYLE:ON
+
+}
@@ -0,0 +1,138 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.commons;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link ParallelExecutionEngine}.
+ */
+public class ParallelExecutionEngineTest {
+
+    // CHECKSTYLE:OFF
+
+    @Test
+    public void testExecute() throws Exception {
+
+        // PREPARE
+        final ParserConfig parser1 = new ParserConfig("parser1", "a.b.b.Parser1");
+        final ParserConfig parser2 = new ParserConfig("parser2", "a.b.c.Parser2");
+        final List<ParserConfig> parsers = new ArrayList<>();
+        parsers.add(parser1);
+        parsers.add(parser2);
+        final Map<ParserConfig, List<GeneratorConfig>> generators = new ConcurrentHashMap<>();
+        generators.put(parser1, List.of(new GeneratorConfig("gen1", "a.b.b.Generator1", "parser1")));
+        generators.put(parser2, List.of(new GeneratorConfig("gen2", "a.b.c.Generator2", "parser2"),
+                new GeneratorConfig("gen3", "a.b.c.Generator2", "parser2")));
+        final RecordingSteps steps = new RecordingSteps(generators, null);
+        final ParallelExecutionEngine testee = new ParallelExecutionEngine(4);
+
+        // TEST
+        testee.execute(parsers, steps);
+
+        // VERIFY
+        assertThat(steps.generated).hasSize(3);
+        assertThat(steps.generated.get("gen1")).isEqualTo("MODEL-parser1");
+        assertThat(steps.generated.get("gen2")).isEqualTo("MODEL-parser2");
+        assertThat(steps.generated.get("gen3")).isEqualTo("MODEL-parser2");
+
+    }
+
+    @Test
+    public void testExecuteParseException() throws Exception {
+
+        // PREPARE
+        final ParserConfig parser1 = new ParserConfig("parser1", "a.b.b.Parser1");
+        final ParserConfig parser2 = new ParserConfig("parser2", "a.b.c.Parser2");
+        final List<ParserConfig> parsers = new ArrayList<>();
+        parsers.add(parser1);
+        parsers.add(parser2);
+        final Map<ParserConfig, List<GeneratorConfig>> generators = new ConcurrentHashMap<>();
+        generators.put(parser1, List.of(new GeneratorConfig("gen1", "a.b.b.Generator1", "parser1")));
+        generators.put(parser2, List.of());
+        final RecordingSteps steps = new RecordingSteps(generators, "parser1");
+        final ParallelExecutionEngine testee = new ParallelExecutionEngine(2);
+
+        // TEST
+        try {
+            testee.execute(parsers, steps);
+            fail("Expected a parse exception");
+        } catch (final ParseException ex) {
+            // VERIFY
+            assertThat(ex.getMessage()).isEqualTo("Failed: parser1");
+        }
+        assertThat(steps.generated).doesNotContainKey("gen1");
+
+    }
+
+    @Test
+    public void testIllegalWorkerCount() {
+
+        try {
+            new ParallelExecutionEngine(0);
+            fail("Expected an exception");
+        } catch (final IllegalArgumentException ex) {
+            // VERIFIED
+        }
+
+    }
+
+    private static final class RecordingSteps implements ExecutionSteps {
+
+        private final Map<ParserConfig, List<GeneratorConfig>> generators;
+
+        private final String failingParser;
+
+        private final Map<String, Object> generated = new ConcurrentHashMap<>();
+
+        public RecordingSteps(final Map<ParserConfig, List<GeneratorConfig>> generators, final String failingParser) {
+            this.generators = generators;
+            this.failingParser = failingParser;
+        }
+
+        @Override
+        public List<GeneratorConfig> findGenerators(final ParserConfig parserConfig) {
+            return generators.get(parserConfig);
+        }
+
+        @Override
+        public Object parse(final ParserConfig parserConfig) throws ParseException {
+            if (parserConfig.getName().equals(failingParser)) {
+                throw new ParseException("Failed: " + parserConfig.getName());
+            }
+            return "MODEL-" + parserConfig.getName();
+        }
+
+        @Override
+        public void generate(final GeneratorConfig generatorConfig, final Object model) throws GenerateException {
+            generated.put(generatorConfig.getName(), model);
+        }
+
+    }
+
+    // CHECKSTYLE:ON
+
+}
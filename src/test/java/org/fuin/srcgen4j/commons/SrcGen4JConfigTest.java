@@ -322,6 +322,144 @@ public class SrcGen4JConfigTest extends AbstractTest {
 
     }
 
+    @Test
+    public void testFindGeneratorsForParser() {
+
+        // PREPARE
+        final SrcGen4JConfig testee = createConfig();
+
+        // TEST
+        final List<GeneratorConfig> list1 = testee.findGeneratorsForParser("parser1");
+        final List<GeneratorConfig> list2 = testee.findGeneratorsForParser("parser2");
+        final List<GeneratorConfig> list3 = testee.findGeneratorsForParser("unknown");
+
+        // VERIFY
+        assertThat(list1).hasSize(2);
+        assertThat(list1.get(0).getName()).isEqualTo("gen1");
+        assertThat(list1.get(1).getName()).isEqualTo("gen2");
+        assertThat(list2).hasSize(1);
+        assertThat(list2.get(0).getName()).isEqualTo("gen3");
+        assertThat(list3).isEmpty();
+
+    }
+
+    @Test
+    public void testFindTargetFolderIndexed() throws Exception {
+
+        // PREPARE
+        final SrcGen4JConfig testee = createConfig();
+
+        // TEST
+        final Folder folder1 = testee.findTargetFolder("gen1", "arti1", "a/A.java");
+        final Folder folder2 = testee.findTargetFolder("gen1", "arti1", "b/B.java");
+        final Folder folder3 = testee.findTargetFolder("gen3", "arti1");
+
+        // VERIFY
+        assertThat(folder1.getName()).isEqualTo("folder1");
+        assertThat(folder2).isSameAs(folder1);
+        assertThat(folder3.getName()).isEqualTo("folder2");
+        try {
+            testee.findTargetFolder("unknown", "arti1");
+            fail("Expected generator not to be found");
+        } catch (final GeneratorNotFoundException ex) {
+            // VERIFIED
+        }
+        try {
+            testee.findTargetFolder("gen1", "unknown");
+            fail("Expected artifact not to be found");
+        } catch (final ArtifactNotFoundException ex) {
+            // VERIFIED
+        }
+
+    }
+
+    @Test
+    public void testFindTargetFolderNotIndexed() throws Exception {
+
+        // PREPARE
+        final SrcGen4JConfig testee = createConfig();
+        testee.setGenerators(testee.getGenerators());
+
+        // TEST
+        final Folder folder = testee.findTargetFolder("gen3", "arti1");
+
+        // VERIFY
+        assertThat(folder.getName()).isEqualTo("folder2");
+        try {
+            testee.findTargetFolder("unknown", "arti1");
+            fail("Expected generator not to be found");
+        } catch (final GeneratorNotFoundException ex) {
+            // VERIFIED
+        }
+        try {
+            testee.findTargetFolder("gen1", "unknown");
+            fail("Expected artifact not to be found");
+        } catch (final ArtifactNotFoundException ex) {
+            // VERIFIED
+        }
+
+    }
+
+    @Test
+    public void testFindGeneratorsForParserDuplicateNames() {
+
+        // PREPARE
+        final SrcGen4JConfig testee = createConfig();
+        testee.getGenerators().addGenerator(createGenerator("gen1", "parser1", "folder2"));
+        testee.init(new DefaultContext(), new File("."));
+
+        // TEST
+        final List<GeneratorConfig> list = testee.findGeneratorsForParser("parser1");
+
+        // VERIFY
+        assertThat(list).hasSize(3);
+        assertThat(list.get(2).getName()).isEqualTo("gen1");
+        assertThat(list.get(2).getDefFolder()).isEqualTo("folder2");
+
+    }
+
+    @Test
+    public void testWarmUp() {
+
+        // PREPARE
+        final Generators generators = new Generators(null, null);
+        generators.addGenerator(new GeneratorConfig("gen1", "a.b.b.Generator1", "parser1"));
+        final SrcGen4JConfig testee = new SrcGen4JConfig();
+        testee.setGenerators(generators);
+        testee.addParser(new ParserConfig("parser1", "a.b.b.Parser1"));
+        testee.addParser(new ParserConfig("parser2", "a.b.b.DoesNotExist"));
+        testee.init(new DefaultContext(), new File("."));
+
+        // TEST
+        final Map<String, Exception> failures = testee.warmUp(2);
+
+        // VERIFY
+        assertThat(failures.keySet()).containsExactly("parser 'parser2'");
+        assertThat(testee.getParsers().getList().get(0).getParser()).isInstanceOf(a.b.b.Parser1.class);
+        assertThat(testee.getGenerators().getList().get(0).getGenerator()).isInstanceOf(a.b.b.Generator1.class);
+
+    }
+
+    private static SrcGen4JConfig createConfig() {
+        final Project project = new Project("proj", ".");
+        project.addFolder(new Folder("folder1", "src-gen1"));
+        project.addFolder(new Folder("folder2", "src-gen2"));
+        final Generators generators = new Generators(null, null);
+        generators.addGenerator(createGenerator("gen1", "parser1", "folder1"));
+        generators.addGenerator(createGenerator("gen2", "parser1", "folder1"));
+        generators.addGenerator(createGenerator("gen3", "parser2", "folder2"));
+        final SrcGen4JConfig config = new SrcGen4JConfig();
+        config.setProjects(List.of(project));
+        config.setGenerators(generators);
+        return config.init(new DefaultContext(), new File("."));
+    }
+
+    private static GeneratorConfig createGenerator(final String name, final String parser, final String folder) {
+        final GeneratorConfig generator = new GeneratorConfig(name, "a.b.b.Generator1", parser, "proj", folder);
+        generator.addArtifact(new Artifact("arti1"));
+        return generator;
+    }
+
     private SrcGen4JConfig load(final String resourceName) throws Exception {
         final JAXBContext jaxbContext = JAXBContext
                 .newInstance(SrcGen4JConfig.class);
@@ -0,0 +1,159 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.commons;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import a.b.d.Parser3;
+
+/**
+ * Tests for {@link SrcGen4JServer} and {@link SrcGen4JClient}.
+ */
+public class SrcGen4JServerTest {
+
+    // CHECKSTYLE:OFF
+
+    @TempDir
+    File tempDir;
+
+    private SrcGen4J srcGen4J;
+
+    private Path socketFile;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        final File rootDir = tempDir.getCanonicalFile();
+        final SrcGen4JConfig config = new SrcGen4JConfig();
+        config.setProjects(List.of(new Project("proj", rootDir.getPath())));
+        config.addParser(new ParserConfig("parser3", "a.b.d.Parser3"));
+        config.addParser(new ParserConfig("parser5", "a.b.d.Parser5"));
+        final Generators generators = new Generators(null, null);
+        generators.setList(new ArrayList<>());
+        config.setGenerators(generators);
+        config.init(new DefaultContext(), rootDir);
+        srcGen4J = new SrcGen4J(config, new DefaultContext());
+        socketFile = new File(rootDir, "srcgen4j.sock").toPath();
+        Parser3.PARSED.clear();
+    }
+
+    @Test
+    public void testIncrementalRequests() throws Exception {
+
+        // PREPARE
+        final File a = new File(tempDir, "a.xml");
+        final File b = new File(tempDir, "b.xml");
+        try (final SrcGen4JServer server = new SrcGen4JServer(socketFile)) {
+            server.register("test", srcGen4J);
+            server.start();
+
+            try (final SrcGen4JClient testee = new SrcGen4JClient(socketFile)) {
+
+                // TEST
+                testee.execute("test", Set.of(a));
+                testee.execute("test", Set.of(b));
+                testee.execute("test");
+
+                // VERIFY
+                assertThat(Parser3.PARSED.poll(1, TimeUnit.SECONDS)).containsOnly(a);
+                assertThat(Parser3.PARSED.poll(1, TimeUnit.SECONDS)).containsOnly(b);
+
+            }
+        }
+
+    }
+
+    @Test
+    public void testRelativeFiles() throws Exception {
+
+        try (final SrcGen4JServer server = new SrcGen4JServer(socketFile)) {
+            server.register("test", srcGen4J);
+            server.start();
+
+            try (final SrcGen4JClient testee = new SrcGen4JClient(socketFile)) {
+
+                // TEST
+                testee.execute("test", Set.of(new File("relative.xml")));
+
+                // VERIFY
+                assertThat(Parser3.PARSED.poll(1, TimeUnit.SECONDS)).containsOnly(new File("relative.xml").getAbsoluteFile());
+                assertThrows(IllegalArgumentException.class, () -> testee.execute("test", Set.of(new File("a\nb.xml"))));
+
+            }
+        }
+
+    }
+
+    @Test
+    public void testErrorResponse() throws Exception {
+
+        try (final SrcGen4JServer server = new SrcGen4JServer(socketFile)) {
+            server.register("test", srcGen4J);
+            server.start();
+
+            try (final SrcGen4JClient testee = new SrcGen4JClient(socketFile)) {
+
+                // TEST
+                final IOException ex = assertThrows(IOException.class, () -> testee.execute("test", Set.of(new File(tempDir, "a.error"))));
+
+                // VERIFY
+                assertThat(ex.getMessage()).contains("Simulated error");
+
+            }
+
+            // The connection with the error was closed, but the server accepts new ones
+            try (final SrcGen4JClient testee = new SrcGen4JClient(socketFile)) {
+                final File b = new File(tempDir, "b.xml");
+                testee.execute("test", Set.of(b));
+                assertThat(Parser3.PARSED.poll(1, TimeUnit.SECONDS)).containsOnly(b);
+            }
+        }
+
+    }
+
+    @Test
+    public void testUnknownConfiguration() throws Exception {
+
+        try (final SrcGen4JServer server = new SrcGen4JServer(socketFile)) {
+            server.start();
+
+            try (final SrcGen4JClient testee = new SrcGen4JClient(socketFile)) {
+
+                // TEST & VERIFY
+                assertThrows(IOException.class, () -> testee.execute("unknown"));
+
+            }
+        }
+
+    }
+
+    // CHECKSTYLE:ON
+
+}
@@ -20,6 +20,7 @@ package org.fuin.srcgen4j.commons;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.io.File;
+import java.util.Set;
 
 import org.junit.jupiter.api.Test;
 
@@ -27,6 +28,7 @@ import a.b.b.Generator1;
 import a.b.b.Parser1;
 import a.b.c.Generator2;
 import a.b.c.Parser2;
+import a.b.d.Parser3;
 
 /**
  * Tests for {@link SrcGen4J}.
@@ -98,6 +100,69 @@ public class SrcGen4JTest {
 
     }
 
+    @Test
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public final void testExecuteParallel() throws ParseException, GenerateException {
+
+        // PREPARE
+        final SrcGen4JConfig config = new SrcGen4JConfig();
+        final ParserConfig parserCfg1 = new ParserConfig("parser1", "a.b.b.Parser1");
+        config.addParser(parserCfg1);
+        final ParserConfig parserCfg2 = new ParserConfig("parser2", "a.b.c.Parser2");
+        config.addParser(parserCfg2);
+
+        final Generators generators = new Generators();
+        config.setGenerators(generators);
+
+        final GeneratorConfig genCfg1 = new GeneratorConfig("generator1", "a.b.b.Generator1", "parser1");
+        generators.addGenerator(genCfg1);
+
+        final GeneratorConfig genCfg2 = new GeneratorConfig("generator2", "a.b.c.Generator2", "parser2");
+        generators.addGenerator(genCfg2);
+
+        final GeneratorConfig genCfg3 = new GeneratorConfig("generator3", "a.b.c.Generator2", "parser2");
+        generators.addGenerator(genCfg3);
+
+        config.init(new DefaultContext(), new File("."));
+
+        final SrcGen4J testee = new SrcGen4J(config, new DefaultContext(), new ParallelExecutionEngine(3));
+
+        // TEST
+        testee.execute();
+
+        // VERIFY
+        final Parser1 parser1 = (Parser1) (Parser) parserCfg1.getParser();
+        final Parser2 parser2 = (Parser2) (Parser) parserCfg2.getParser();
+        final Generator1 generator1 = (Generator1) (Generator) genCfg1.getGenerator();
+        final Generator2 generator2 = (Generator2) (Generator) genCfg2.getGenerator();
+        final Generator2 generator3 = (Generator2) (Generator) genCfg3.getGenerator();
+        assertThat(generator1.getModel()).isEqualTo(parser1.getModel());
+        assertThat(generator2.getModel()).isEqualTo(parser2.getModel());
+        assertThat(generator3.getModel()).isEqualTo(parser2.getModel());
+
+    }
+
+    @Test
+    public final void testExecuteIncrementalFiltersFiles() throws ParseException, GenerateException {
+
+        // PREPARE
+        final SrcGen4JConfig config = new SrcGen4JConfig();
+        config.addParser(new ParserConfig("parser3", "a.b.d.Parser3"));
+        config.init(new DefaultContext(), new File("."));
+        final SrcGen4J testee = new SrcGen4J(config, new DefaultContext());
+        final File txt = new File("a.txt");
+        final File xml = new File("b.xml");
+        Parser3.PARSED.clear();
+
+        // TEST
+        testee.execute(Set.of(txt));
+        testee.execute(Set.of(txt, xml));
+
+        // VERIFY
+        assertThat(Parser3.PARSED).containsExactly(Set.of(xml));
+
+    }
+
     // CHECKSTYLE:ON
 
 }
@@ -0,0 +1,187 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.commons;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import a.b.d.Parser3;
+
+/**
+ * Tests for {@link SrcGen4JWatcher}.
+ */
+public class SrcGen4JWatcherTest {
+
+    // CHECKSTYLE:OFF
+
+    @TempDir
+    File tempDir;
+
+    @Test
+    public void testIncrementalBuildOnChange() throws Exception {
+
+        // PREPARE
+        final File rootDir = tempDir.getCanonicalFile();
+        final File inputDir = new File(rootDir, "input");
+        inputDir.mkdirs();
+        final SrcGen4JConfig config = new SrcGen4JConfig();
+        config.setProjects(List.of(new Project("proj", rootDir.getPath())));
+        config.addParser(new ParserConfig("parser3", "a.b.d.Parser3"));
+        config.init(new DefaultContext(), rootDir);
+        final SrcGen4J srcGen4J = new SrcGen4J(config, new DefaultContext());
+        Parser3.PARSED.clear();
+
+        try (final SrcGen4JWatcher testee = new SrcGen4JWatcher(srcGen4J, List.of(inputDir), 200)) {
+            testee.start();
+
+            // TEST
+            final File subDir = new File(inputDir, "sub");
+            subDir.mkdirs();
+            final File a = write(new File(subDir, "a.xml"));
+            final File b = write(new File(inputDir, "b.xml"));
+            write(new File(inputDir, "ignored.txt"));
+
+            // VERIFY
+            final Set<File> parsed = new HashSet<>();
+            final long end = System.currentTimeMillis() + 10000;
+            while (!parsed.contains(a) || !parsed.contains(b)) {
+                final Set<File> files = Parser3.PARSED.poll(end - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+                if (files == null) {
+                    break;
+                }
+                parsed.addAll(files);
+            }
+            assertThat(parsed).containsOnly(a, b);
+        }
+
+    }
+
+    @Test
+    public void testOutputFolderNotWatched() throws Exception {
+
+        // PREPARE
+        final File rootDir = tempDir.getCanonicalFile();
+        final File inputDir = new File(rootDir, "input");
+        final File outputDir = new File(inputDir, "gen");
+        outputDir.mkdirs();
+        final SrcGen4JConfig config = new SrcGen4JConfig();
+        final Project project = new Project("proj", rootDir.getPath());
+        project.addFolder(new Folder("gen", "input/gen"));
+        config.setProjects(List.of(project));
+        config.addParser(new ParserConfig("parser3", "a.b.d.Parser3"));
+        config.init(new DefaultContext(), rootDir);
+        final SrcGen4J srcGen4J = new SrcGen4J(config, new DefaultContext());
+        Parser3.PARSED.clear();
+
+        try (final SrcGen4JWatcher testee = new SrcGen4JWatcher(srcGen4J, List.of(inputDir), 200)) {
+            testee.start();
+
+            // TEST
+            write(new File(outputDir, "generated.xml"));
+            final File a = write(new File(inputDir, "a.xml"));
+
+            // VERIFY
+            final Set<File> parsed = Parser3.PARSED.poll(10, TimeUnit.SECONDS);
+            assertThat(parsed).containsOnly(a);
+        }
+
+    }
+
+    @Test
+    public void testOutputFolderNotWatchedRelativeDir() throws Exception {
+
+        // PREPARE
+        final File rootDir = tempDir.getCanonicalFile();
+        final File inputDir = new File(rootDir, "input");
+        final File outputDir = new File(inputDir, "gen");
+        outputDir.mkdirs();
+        final File relativeInputDir = Paths.get("").toAbsolutePath().relativize(inputDir.toPath()).toFile();
+        final SrcGen4JConfig config = new SrcGen4JConfig();
+        final Project project = new Project("proj", rootDir.getPath());
+        project.addFolder(new Folder("gen", "input/gen"));
+        config.setProjects(List.of(project));
+        config.addParser(new ParserConfig("parser3", "a.b.d.Parser3"));
+        config.init(new DefaultContext(), rootDir);
+        final SrcGen4J srcGen4J = new SrcGen4J(config, new DefaultContext());
+        Parser3.PARSED.clear();
+
+        try (final SrcGen4JWatcher testee = new SrcGen4JWatcher(srcGen4J, List.of(relativeInputDir), 200)) {
+            testee.start();
+
+            // TEST
+            write(new File(outputDir, "generated.xml"));
+            final File a = write(new File(inputDir, "a.xml"));
+
+            // VERIFY
+            final Set<File> parsed = Parser3.PARSED.poll(10, TimeUnit.SECONDS);
+            assertThat(parsed).containsOnly(a);
+            assertThat(Parser3.PARSED.poll(1, TimeUnit.SECONDS)).isNull();
+        }
+
+    }
+
+    @Test
+    public void testMaxWait() throws Exception {
+
+        // PREPARE
+        final File rootDir = tempDir.getCanonicalFile();
+        final File inputDir = new File(rootDir, "input");
+        inputDir.mkdirs();
+        final SrcGen4JConfig config = new SrcGen4JConfig();
+        config.setProjects(List.of(new Project("proj", rootDir.getPath())));
+        config.addParser(new ParserConfig("parser3", "a.b.d.Parser3"));
+        config.init(new DefaultContext(), rootDir);
+        final SrcGen4J srcGen4J = new SrcGen4J(config, new DefaultContext());
+        Parser3.PARSED.clear();
+
+        try (final SrcGen4JWatcher testee = new SrcGen4JWatcher(srcGen4J, List.of(inputDir), 1000, 1500)) {
+            testee.start();
+
+            // TEST
+            final long end = System.currentTimeMillis() + 6000;
+            int i = 0;
+            while (Parser3.PARSED.isEmpty() && System.currentTimeMillis() < end) {
+                write(new File(inputDir, "file" + (i++) + ".xml"));
+                Thread.sleep(100);
+            }
+
+            // VERIFY
+            assertThat(Parser3.PARSED.isEmpty()).isFalse();
+        }
+
+    }
+
+    private static File write(final File file) throws Exception {
+        Files.write(file.toPath(), "<x/>".getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    // CHECKSTYLE:ON
+
+}
@@ -0,0 +1,79 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.commons;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashMap;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link TargetRouter}.
+ */
+public class TargetRouterTest {
+
+    // CHECKSTYLE:OFF
+
+    @Test
+    public void testFindFirstMatchWins() {
+
+        // PREPARE
+        final Target api = target(".*/api/.*\\.java");
+        final Target impl = target("impl/");
+        final Target java = target("\\.java$");
+        final TargetRouter testee = new TargetRouter(List.of(api, impl, java), 2);
+
+        // TEST & VERIFY
+        assertThat(testee.find("a/api/impl/A.java")).isSameAs(api);
+        assertThat(testee.find("a/impl/B.java")).isSameAs(impl);
+        assertThat(testee.find("a/b/C.java")).isSameAs(java);
+        assertThat(testee.find("a/b/D.txt")).isNull();
+        assertThat(testee.find("a/api/impl/A.java")).isSameAs(api);
+
+    }
+
+    @Test
+    public void testRequiredLiteral() {
+
+        assertThat(TargetRouter.requiredLiteral("impl/")).isEqualTo("impl/");
+        assertThat(TargetRouter.requiredLiteral(".*/api/.*\\.java")).isEqualTo("/api/");
+        assertThat(TargetRouter.requiredLiteral("abc?de")).isEqualTo("ab");
+        assertThat(TargetRouter.requiredLiteral("x{2,3}yz")).isEqualTo("yz");
+        assertThat(TargetRouter.requiredLiteral("[abc]+def(gh)*")).isEqualTo("def");
+        assertThat(TargetRouter.requiredLiteral("api|impl")).isNull();
+        assertThat(TargetRouter.requiredLiteral("(?i)impl")).isNull();
+        assertThat(TargetRouter.requiredLiteral("a.b")).isNull();
+        assertThat(TargetRouter.requiredLiteral("\\x41BC")).isNull();
+        assertThat(TargetRouter.requiredLiteral("\\0101xyz")).isNull();
+        assertThat(TargetRouter.requiredLiteral("\\k<n>")).isNull();
+        assertThat(TargetRouter.requiredLiteral("[a-z&&[^b]]Foo")).isNull();
+        assertThat(TargetRouter.requiredLiteral("\\$abc")).isEqualTo("$abc");
+
+    }
+
+    private static Target target(final String pattern) {
+        final Target target = new Target(pattern, "project", "folder");
+        target.init(new DefaultContext(), null, new HashMap<>());
+        return target;
+    }
+
+    // CHECKSTYLE:ON
+
+}
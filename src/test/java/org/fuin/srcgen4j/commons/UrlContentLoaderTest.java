@@ -0,0 +1,99 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.commons;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for {@link UrlContentLoader}.
+ */
+public class UrlContentLoaderTest {
+
+    // CHECKSTYLE:OFF
+
+    @TempDir
+    File tempDir;
+
+    @Test
+    public void testLoadCached() throws Exception {
+
+        // PREPARE
+        final File cacheDir = new File(tempDir, "cache");
+        final File file = new File(tempDir, "header.txt");
+        Files.writeString(file.toPath(), "Hello", StandardCharsets.UTF_8);
+        final URL url = file.toURI().toURL();
+
+        // TEST
+        final String first = UrlContentLoader.load(url, "utf-8", cacheDir);
+        final String second = UrlContentLoader.load(url, "utf-8", cacheDir);
+
+        // VERIFY
+        assertThat(first).isEqualTo("Hello");
+        assertThat(second).isEqualTo("Hello");
+        assertThat(cacheDir.list()).hasSize(1);
+        if (cacheDir.toPath().getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            assertThat(PosixFilePermissions.toString(Files.getPosixFilePermissions(cacheDir.toPath()))).isEqualTo("rwx------");
+        }
+
+        // Changed file replaces the cache entry
+        Files.writeString(file.toPath(), "Hello World", StandardCharsets.UTF_8);
+        assertThat(UrlContentLoader.load(url, "utf-8", cacheDir)).isEqualTo("Hello World");
+        assertThat(cacheDir.list()).hasSize(1);
+
+    }
+
+    @Test
+    public void testLoadAsync() throws Exception {
+
+        // PREPARE
+        final File file = new File(tempDir, "header.txt");
+        Files.writeString(file.toPath(), "Hello", StandardCharsets.UTF_8);
+
+        // TEST & VERIFY
+        assertThat(UrlContentLoader.await(UrlContentLoader.loadAsync(file.toURI().toURL(), "utf-8"))).isEqualTo("Hello");
+        final URL missing = new File(tempDir, "missing.txt").toURI().toURL();
+        assertThrows(RuntimeException.class, () -> UrlContentLoader.await(UrlContentLoader.loadAsync(missing, "utf-8")));
+
+    }
+
+    @Test
+    public void testLocalFile() throws Exception {
+
+        // PREPARE
+        final File jar = new File(tempDir, "example.jar");
+
+        // TEST & VERIFY
+        assertThat(UrlContentLoader.localFile(jar.toURI().toURL())).isEqualTo(jar);
+        assertThat(UrlContentLoader.localFile(new URL("jar:" + jar.toURI() + "!/header.txt"))).isEqualTo(jar);
+        assertThat(UrlContentLoader.localFile(new URL("http://www.fuin.org/header.txt"))).isNull();
+
+    }
+
+    // CHECKSTYLE:ON
+
+}
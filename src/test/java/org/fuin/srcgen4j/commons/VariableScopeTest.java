@@ -0,0 +1,88 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.commons;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link VariableScope}.
+ */
+public class VariableScopeTest {
+
+    // CHECKSTYLE:OFF
+
+    @Test
+    public void testCreate() {
+
+        // PREPARE
+        final VariableScope root = VariableScope.of(Map.of("root", "/var/tmp", "path", "${root}/example", "d", "${b}/D"));
+
+        // TEST
+        final VariableScope child = VariableScope.create(root,
+                List.of(new Variable("path", "${path}/child"), new Variable("b", "${c}/B"), new Variable("c", "${root}/C")));
+        final VariableScope grandChild = VariableScope.create(child, null);
+
+        // VERIFY
+        assertThat(child).containsOnly(entry("root", "/var/tmp"), entry("path", "/var/tmp/example/child"), entry("b", "/var/tmp/C/B"),
+                entry("c", "/var/tmp/C"), entry("d", "/var/tmp/C/B/D"));
+        assertThat(child.get("root")).isEqualTo("/var/tmp");
+        assertThat(child.get("unknown")).isNull();
+        assertThat(grandChild).isSameAs(child);
+
+    }
+
+    @Test
+    public void testCreateCycle() {
+
+        // PREPARE
+        final VariableScope root = VariableScope.of(Map.of("root", "/var/tmp"));
+        final List<Variable> variables = List.of(new Variable("a", "${b}"), new Variable("b", "${a}"));
+
+        // TEST & VERIFY
+        assertThrows(IllegalStateException.class, () -> VariableScope.create(root, variables));
+
+    }
+
+    @Test
+    public void testEntrySet() {
+
+        // PREPARE
+        final VariableScope root = VariableScope.of(Map.of("a", "1", "b", "2"));
+        final VariableScope child = VariableScope.create(root, List.of(new Variable("b", "3"), new Variable("c", "${b}")));
+
+        // TEST
+        final Set<Map.Entry<String, String>> entries = child.entrySet();
+
+        // VERIFY
+        assertThat(child).hasSize(3).isEqualTo(Map.of("a", "1", "b", "3", "c", "3"));
+        assertThat(child.entrySet()).isSameAs(entries);
+        assertThat(root).isEqualTo(Map.of("a", "1", "b", "2"));
+
+    }
+
+    // CHECKSTYLE:ON
+
+}
@@ -0,0 +1,92 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.commons;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.fuin.utils4j.Utils4J;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares {@link Utils4J#replaceVars(String, Map)} with {@link VariableTemplate#replaceVars(String, Map)}. Not executed by the build;
+ * run the main method from the IDE or the test classpath. Add <code>-prof gc</code> to the options to compare the allocation rate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VariableTemplateBenchmark {
+
+    // CHECKSTYLE:OFF
+
+    private Map<String, String> vars;
+
+    private String[] values;
+
+    @Setup
+    public void setup() {
+        vars = new HashMap<>();
+        vars.put("root", "/var/tmp/project");
+        vars.put("gen", "target/generated-sources");
+        vars.put("pkg", "org/fuin/example");
+        vars.put("name", "example");
+        values = new String[] { "${root}/${gen}/${pkg}", "${root}/src/main/java", "${name}-${unknown}", "no-variables-at-all",
+                "${root}/${gen}/${pkg}/${name}/impl" };
+    }
+
+    @Benchmark
+    public int utils4j() {
+        int len = 0;
+        for (final String value : values) {
+            len += Utils4J.replaceVars(value, vars).length();
+        }
+        return len;
+    }
+
+    @Benchmark
+    public int variableTemplate() {
+        int len = 0;
+        for (final String value : values) {
+            len += VariableTemplate.replaceVars(value, vars).length();
+        }
+        return len;
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(VariableTemplateBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    // CHECKSTYLE:ON
+
+}
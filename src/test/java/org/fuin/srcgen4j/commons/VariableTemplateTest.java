@@ -0,0 +1,75 @@
+/**
+ * Copyright (C) 2015 Michael Schnell. All rights reserved. 
+ * http://www.fuin.org/
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library. If not, see http://www.gnu.org/licenses/.
+ */
+package org.fuin.srcgen4j.commons;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.fuin.utils4j.Utils4J;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link VariableTemplate}.
+ */
+public class VariableTemplateTest {
+
+    // CHECKSTYLE:OFF
+
+    @Test
+    public void testReplaceVars() {
+
+        // PREPARE
+        final Map<String, String> vars = new HashMap<>();
+        vars.put("a", "1");
+        vars.put("b", "2");
+
+        // TEST & VERIFY
+        assertThat(VariableTemplate.replaceVars(null, vars)).isNull();
+        assertThat(VariableTemplate.replaceVars("${a}", null)).isEqualTo("${a}");
+        assertThat(VariableTemplate.replaceVars("abc", vars)).isEqualTo("abc");
+        assertThat(VariableTemplate.replaceVars("${a}", vars)).isEqualTo("1");
+        assertThat(VariableTemplate.replaceVars("x${a}y${b}z", vars)).isEqualTo("x1y2z");
+        assertThat(VariableTemplate.replaceVars("${a}${b}${c}", vars)).isEqualTo("12${c}");
+        assertThat(VariableTemplate.replaceVars("${a}/${", vars)).isEqualTo("1/${");
+
+        // Same result as the utility method
+        for (final String str : new String[] { "", "abc", "${a}", "x${a}y${b}z", "${a}${b}${c}", "${a}/${" }) {
+            assertThat(VariableTemplate.replaceVars(str, vars)).isEqualTo(Utils4J.replaceVars(str, vars));
+        }
+
+    }
+
+    @Test
+    public void testCompile() {
+
+        // TEST
+        final VariableTemplate testee = VariableTemplate.compile("${a}/${b}");
+
+        // VERIFY
+        assertThat(testee.getTemplate()).isEqualTo("${a}/${b}");
+        assertThat(testee.hasVariables()).isTrue();
+        assertThat(VariableTemplate.compile("${a}/${b}")).isSameAs(testee);
+        assertThat(VariableTemplate.compile("abc").hasVariables()).isFalse();
+
+    }
+
+    // CHECKSTYLE:ON
+
+}
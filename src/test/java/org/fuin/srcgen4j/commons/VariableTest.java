@@ -24,7 +24,10 @@ import static org.fuin.utils4j.jaxb.JaxbUtils.XML_PREFIX;
 import static org.fuin.utils4j.jaxb.JaxbUtils.marshal;
 import static org.fuin.utils4j.jaxb.JaxbUtils.unmarshal;
 
+import java.io.File;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -33,6 +36,7 @@ import nl.jqno.equalsverifier.Warning;
 
 import org.fuin.utils4j.jaxb.UnmarshallerBuilder;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.xmlunit.assertj3.XmlAssert;
 
 import com.openpojo.reflection.PojoClass;
@@ -46,6 +50,9 @@ public class VariableTest {
 
     // CHECKSTYLE:OFF
 
+    @TempDir
+    File tempDir;
+
     @Test
     public final void testPojoStructureAndBehavior() {
 
@@ -108,6 +115,23 @@ public class VariableTest {
 
     }
 
+    @Test
+    public final void testUrlPrefetch() throws Exception {
+
+        // PREPARE
+        final File file = new File(tempDir, "header.txt");
+        Files.writeString(file.toPath(), "/* Header */", StandardCharsets.UTF_8);
+
+        // TEST
+        final Variable testee = new Variable("x", file.toURI().toURL(), "utf-8");
+
+        // VERIFY
+        assertThat(testee.getValue()).isEqualTo("/* Header */");
+        testee.prefetch();
+        assertThat(testee.getValue()).isEqualTo("/* Header */");
+
+    }
+
     // CHECKSTYLE:ON
 
 }